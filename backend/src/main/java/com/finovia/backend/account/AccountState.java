@@ -0,0 +1,95 @@
+package com.finovia.backend.account;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory balance, realized P&L and holdings of one account, amounts in Money micro-units. Only the account's
+// TradeSequencer lane mutates it; other threads may read it (portfolio views) without locking.
+public class AccountState {
+
+    private final long userId;
+    private volatile long balanceMicros;
+    private volatile long realizedPnlMicros;
+    private final Map<String, Position> positions = new ConcurrentHashMap<>();
+    private long nextLotSeq;
+
+    public AccountState(long userId, long balanceMicros, long realizedPnlMicros, long nextLotSeq) {
+        this.userId = userId;
+        this.balanceMicros = balanceMicros;
+        this.realizedPnlMicros = realizedPnlMicros;
+        this.nextLotSeq = nextLotSeq;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public BigDecimal getBalance() {
+        return Money.toDecimal(balanceMicros);
+    }
+
+    public long getBalanceMicros() {
+        return balanceMicros;
+    }
+
+    public void setBalanceMicros(long balanceMicros) {
+        this.balanceMicros = balanceMicros;
+    }
+
+    public BigDecimal getRealizedPnl() {
+        return Money.toDecimal(realizedPnlMicros);
+    }
+
+    public long getRealizedPnlMicros() {
+        return realizedPnlMicros;
+    }
+
+    public void addRealizedPnlMicros(long amount) {
+        this.realizedPnlMicros = Math.addExact(realizedPnlMicros, amount);
+    }
+
+    public void setRealizedPnlMicros(long realizedPnlMicros) {
+        this.realizedPnlMicros = realizedPnlMicros;
+    }
+
+    // Lot seqs are unique per account, not per holding, so lots of a reopened holding always sort
+    // after the cut-off used when it was closed
+    public long allocateLotSeq() {
+        return nextLotSeq++;
+    }
+
+    public long peekNextLotSeq() {
+        return nextLotSeq;
+    }
+
+    // Journal replay: a lot replayed with this seq was allocated, so later ones must sort after it
+    public void reserveLotSeq(long seq) {
+        nextLotSeq = Math.max(nextLotSeq, seq + 1);
+    }
+
+    public Position getPosition(String symbol) {
+        return positions.get(symbol);
+    }
+
+    public Collection<Position> getPositions() {
+        return positions.values();
+    }
+
+    // Returns the existing position for symbol, or a new empty one registered on the account
+    public Position openPosition(String symbol) {
+        return positions.computeIfAbsent(symbol, Position::new);
+    }
+
+    public void putPosition(Position position) {
+        positions.put(position.getStockSymbol(), position);
+    }
+
+    // Positions sold down to zero are dropped, matching the deleted holdings row
+    public void closeIfEmpty(Position position) {
+        if (position.getQuantity() == 0) {
+            positions.remove(position.getStockSymbol(), position);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.finovia.backend.account;
+
+import com.finovia.backend.entity.Holding;
+import com.finovia.backend.entity.HoldingLot;
+import com.finovia.backend.entity.User;
+import com.finovia.backend.journal.Journal;
+import com.finovia.backend.repository.HoldingLotRepository;
+import com.finovia.backend.repository.HoldingRepository;
+import com.finovia.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+// Authoritative in-memory account state. Each account is loaded from the database on first
+// use, unless the journal recovery restored it at startup; after that trades read and write
+// memory and the write-behind pipeline catches the database up. Loads and evictions are journaled.
+@Service
+public class AccountStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountStore.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private HoldingLotRepository holdingLotRepository;
+
+    @Autowired
+    private Journal journal;
+
+    private final Map<Long, AccountState> accounts = new ConcurrentHashMap<>();
+    private final List<LongConsumer> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    // Called on the account's lane after its memory was dropped, e.g. because a trade failed to
+    // persist; anything derived from the old state should be rebuilt from a fresh get()
+    public void addInvalidationListener(LongConsumer listener) {
+        invalidationListeners.add(listener);
+    }
+
+    public AccountState get(long userId) {
+        AccountState account = accounts.get(userId);
+        if (account != null) {
+            return account;
+        }
+        AccountState loaded = load(userId);
+        AccountState existing = journal.register(loaded, () -> accounts.putIfAbsent(userId, loaded));
+        return existing != null ? existing : loaded;
+    }
+
+    // The account if it is already in memory, without loading it
+    public AccountState peek(long userId) {
+        return accounts.get(userId);
+    }
+
+    public Set<Long> ids() {
+        return Set.copyOf(accounts.keySet());
+    }
+
+    // Installs accounts rebuilt by the journal recovery, before any trading starts
+    public void restore(Collection<AccountState> recovered) {
+        for (AccountState account : recovered) {
+            accounts.put(account.getUserId(), account);
+        }
+    }
+
+    // Drops the cached copy so the next access reloads it from the database
+    public void invalidate(long userId) {
+        journal.invalidate(userId, () -> accounts.remove(userId));
+        for (LongConsumer listener : invalidationListeners) {
+            try {
+                listener.accept(userId);
+            } catch (RuntimeException e) {
+                log.warn("Invalidation listener failed for user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    private AccountState load(long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Map<String, List<TaxLot>> lotsBySymbol = new HashMap<>();
+        long maxLotSeq = 1;
+        for (HoldingLot lot : holdingLotRepository.findByUserIdOrderByStockSymbolAscLotSeqAsc(userId)) {
+            maxLotSeq = Math.max(maxLotSeq, lot.getLotSeq());
+            lotsBySymbol.computeIfAbsent(lot.getStockSymbol(), symbol -> new ArrayList<>())
+                    .add(new TaxLot(lot.getLotSeq(), lot.getQuantity(), Money.of(lot.getPrice()), lot.getOpenedAt()));
+        }
+        AccountState account = new AccountState(userId, Money.of(user.getVirtualBalance()), Money.of(user.getRealizedPnl()), maxLotSeq + 1);
+        for (Holding holding : holdingRepository.findByUser(user)) {
+            List<TaxLot> lots = lotsBySymbol.get(holding.getStockSymbol());
+            if (lots == null) {
+                // Holding without lot rows: treat the whole quantity as one lot at the average price
+                lots = List.of(new TaxLot(1, holding.getQuantity(), Money.of(holding.getAveragePurchasePrice()), LocalDateTime.now()));
+            }
+            long costBasis = holding.getCostBasis() != null
+                    ? Money.of(holding.getCostBasis())
+                    : Money.times(Money.of(holding.getAveragePurchasePrice()), holding.getQuantity());
+            account.putPosition(Position.restore(holding.getStockSymbol(), lots, costBasis));
+        }
+        return account;
+    }
+}
@@ -0,0 +1,9 @@
+package com.finovia.backend.account;
+
+// How the cost of shares sold is determined (pnl.cost-basis-method)
+public enum CostBasisMethod {
+    // Oldest lots are sold first, at their own purchase prices
+    FIFO,
+    // Every share sold costs the position's current average price
+    AVERAGE
+}
@@ -0,0 +1,11 @@
+package com.finovia.backend.account;
+
+// How one fill changed a position's lots, in the form the write-behind flush replays:
+// an added lot (buys), and for sells every lot below consumedBeforeSeq closed plus at most one
+// partially consumed lot left with partialRemaining shares. Zero means "not present".
+public record LotChange(TaxLot added, long consumedBeforeSeq, long partialSeq, int partialRemaining) {
+
+    public static LotChange added(TaxLot lot) {
+        return new LotChange(lot, 0, 0, 0);
+    }
+}
@@ -0,0 +1,58 @@
+package com.finovia.backend.account;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Amounts on the trade path are plain longs of micro-units (1/1,000,000), so balances, cost
+// bases and aggregates are updated without allocating. Conversion to BigDecimal happens only
+// where amounts leave memory: JDBC parameters and JSON responses.
+// Rules: prices are rounded HALF_UP to 6 places once, on the way in; sums and price * quantity
+// are exact and throw ArithmeticException on overflow (about 9.2 trillion); divisions round
+// HALF_UP to the nearest micro-unit.
+public final class Money {
+
+    public static final int SCALE = 6;
+    public static final long ONE = 1_000_000L;
+
+    private Money() {
+    }
+
+    public static long of(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static long of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public static BigDecimal toDecimal(long micros) {
+        return BigDecimal.valueOf(micros, SCALE);
+    }
+
+    public static long times(long micros, long quantity) {
+        return Math.multiplyExact(micros, quantity);
+    }
+
+    public static long divide(long micros, long divisor) {
+        long quotient = micros / divisor;
+        long remainder = micros % divisor;
+        // Round half away from zero, written so that 2 * |remainder| cannot overflow
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += (micros < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    // micros * multiplier / divisor without intermediate rounding; only a product beyond the long
+    // range takes the BigDecimal path
+    public static long mulDiv(long micros, long multiplier, long divisor) {
+        long high = Math.multiplyHigh(micros, multiplier);
+        long low = micros * multiplier;
+        if (high == (low >> 63)) {
+            return divide(low, divisor);
+        }
+        return BigDecimal.valueOf(micros).multiply(BigDecimal.valueOf(multiplier))
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+}
@@ -0,0 +1,151 @@
+package com.finovia.backend.account;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+
+// One holding with its open tax lots. Every fill adjusts the lots and the exact cost basis in
+// place, so realized and unrealized P&L never require rescanning the trade history.
+// Mutated only on the owning account's sequencer lane; quantity and cost basis are published
+// together through one volatile snapshot so other threads always see a consistent pair.
+public class Position {
+
+    public static final int COST_SCALE = Money.SCALE;
+
+    private final String stockSymbol;
+    private final ArrayDeque<TaxLot> lots = new ArrayDeque<>();
+    private volatile Amounts amounts = new Amounts(0, 0);
+
+    public Position(String stockSymbol) {
+        this.stockSymbol = stockSymbol;
+    }
+
+    // Rebuilds a position from persisted lots (in seq order) and its stored cost basis
+    public static Position restore(String stockSymbol, Collection<TaxLot> lots, long costBasisMicros) {
+        Position position = new Position(stockSymbol);
+        int quantity = 0;
+        for (TaxLot lot : lots) {
+            position.lots.addLast(lot);
+            quantity += lot.quantity();
+        }
+        position.amounts = new Amounts(quantity, costBasisMicros);
+        return position;
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    public int getQuantity() {
+        return amounts.quantity();
+    }
+
+    public BigDecimal getCostBasis() {
+        return Money.toDecimal(amounts.costBasisMicros());
+    }
+
+    @JsonIgnore
+    public long getCostBasisMicros() {
+        return amounts.costBasisMicros();
+    }
+
+    // Derived from the exact cost basis, so repeated buys no longer accumulate rounding drift
+    public BigDecimal getAveragePurchasePrice() {
+        return Money.toDecimal(getAveragePriceMicros());
+    }
+
+    @JsonIgnore
+    public long getAveragePriceMicros() {
+        Amounts current = amounts;
+        return current.quantity() == 0 ? 0 : Money.divide(current.costBasisMicros(), current.quantity());
+    }
+
+    @JsonIgnore
+    public Collection<TaxLot> getLots() {
+        return Collections.unmodifiableCollection(lots);
+    }
+
+    // lotSeq comes from the account so that it keeps increasing even across a close and reopen
+    public LotChange buy(long lotSeq, int quantity, long priceMicros, LocalDateTime timestamp) {
+        TaxLot lot = new TaxLot(lotSeq, quantity, priceMicros, timestamp);
+        lots.addLast(lot);
+        Amounts current = amounts;
+        amounts = new Amounts(current.quantity() + quantity,
+                Math.addExact(current.costBasisMicros(), Money.times(priceMicros, quantity)));
+        return LotChange.added(lot);
+    }
+
+    // Relieves quantity shares (oldest lots first) and returns the realized P&L and lot changes.
+    // The caller has already checked that the position holds at least quantity shares.
+    // nextLotSeq is the account's next unassigned lot seq, used as the cut-off when every lot closes.
+    public SellOutcome sell(int quantity, long priceMicros, CostBasisMethod method, long nextLotSeq) {
+        Amounts current = amounts;
+        long relievedCost = 0;
+        int remaining = quantity;
+        long partialSeq = 0;
+        int partialRemaining = 0;
+        boolean closedLot = false;
+        while (remaining > 0) {
+            TaxLot head = lots.pollFirst();
+            int taken = Math.min(remaining, head.quantity());
+            relievedCost = Math.addExact(relievedCost, Money.times(head.priceMicros(), taken));
+            remaining -= taken;
+            if (taken < head.quantity()) {
+                TaxLot rest = new TaxLot(head.seq(), head.quantity() - taken, head.priceMicros(), head.openedAt());
+                lots.addFirst(rest);
+                partialSeq = rest.seq();
+                partialRemaining = rest.quantity();
+            } else {
+                closedLot = true;
+            }
+        }
+        long consumedBeforeSeq = !closedLot ? 0 : lots.isEmpty() ? nextLotSeq : lots.peekFirst().seq();
+
+        int newQuantity = current.quantity() - quantity;
+        if (method == CostBasisMethod.AVERAGE) {
+            relievedCost = newQuantity == 0
+                    ? current.costBasisMicros()
+                    : Money.mulDiv(current.costBasisMicros(), quantity, current.quantity());
+        }
+        long newCostBasis = newQuantity == 0 ? 0 : current.costBasisMicros() - relievedCost;
+        amounts = new Amounts(newQuantity, newCostBasis);
+
+        long realized = Money.times(priceMicros, quantity) - relievedCost;
+        return new SellOutcome(realized, new LotChange(null, consumedBeforeSeq, partialSeq, partialRemaining));
+    }
+
+    // Journal replay: applies a recorded fill's lot change and sets the recorded resulting totals,
+    // so replay does not depend on the cost basis method in effect when it runs
+    public void replay(LotChange change, int quantityAfter, long costBasisAfterMicros) {
+        if (change.added() != null) {
+            lots.addLast(change.added());
+        }
+        while (change.consumedBeforeSeq() > 0 && !lots.isEmpty() && lots.peekFirst().seq() < change.consumedBeforeSeq()) {
+            lots.pollFirst();
+        }
+        if (change.partialSeq() > 0 && !lots.isEmpty() && lots.peekFirst().seq() == change.partialSeq()) {
+            TaxLot head = lots.pollFirst();
+            lots.addFirst(new TaxLot(head.seq(), change.partialRemaining(), head.priceMicros(), head.openedAt()));
+        }
+        amounts = new Amounts(quantityAfter, costBasisAfterMicros);
+    }
+
+    public long unrealizedPnlMicros(long marketPriceMicros) {
+        Amounts current = amounts;
+        return Money.times(marketPriceMicros, current.quantity()) - current.costBasisMicros();
+    }
+
+    public record SellOutcome(long realizedPnlMicros, LotChange lotChange) {
+
+        public BigDecimal realizedPnl() {
+            return Money.toDecimal(realizedPnlMicros);
+        }
+    }
+
+    private record Amounts(int quantity, long costBasisMicros) {
+    }
+}
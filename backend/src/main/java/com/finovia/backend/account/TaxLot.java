@@ -0,0 +1,12 @@
+package com.finovia.backend.account;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// priceMicros is the fill price in Money micro-units
+public record TaxLot(long seq, int quantity, long priceMicros, LocalDateTime openedAt) {
+
+    public BigDecimal price() {
+        return Money.toDecimal(priceMicros);
+    }
+}
@@ -0,0 +1,25 @@
+package com.finovia.backend.backtest;
+
+import com.finovia.backend.account.CostBasisMethod;
+
+// A single strategy run over a history. Each day the account is marked to the closes and the
+// strategy then trades at them; trading at the mark leaves equity unchanged, so the pre-trade
+// mark is that day's point on the equity curve.
+final class Backtest {
+
+    record Outcome(long[] equity, int trades, int rejected, long realizedPnl) {
+    }
+
+    private Backtest() {
+    }
+
+    static Outcome run(PriceHistory history, Strategy strategy, long initialCash, CostBasisMethod method) {
+        SimulatedAccount account = new SimulatedAccount(history.symbolCount(), initialCash, method);
+        long[] equity = new long[history.dayCount()];
+        for (int day = 0; day < equity.length; day++) {
+            equity[day] = account.markToMarket(history, day);
+            strategy.onBar(day, history, account);
+        }
+        return new Outcome(equity, account.trades(), account.rejected(), account.realizedPnl());
+    }
+}
@@ -0,0 +1,288 @@
+package com.finovia.backend.backtest;
+
+import com.finovia.backend.account.CostBasisMethod;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.candles.CandleStore;
+import com.finovia.backend.candles.Resolution;
+import com.finovia.backend.dto.BacktestReport;
+import com.finovia.backend.dto.BacktestRequest;
+import com.finovia.backend.dto.BacktestResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.regex.Pattern;
+
+// Replays daily closes through strategies on a simulated account that follows the live trading
+// rules. The history is loaded once per request into a shared read-only matrix and every
+// strategy/parameter combination runs as its own task on a dedicated fork-join pool, so a grid
+// search uses every core without touching the trading lanes.
+@Service
+public class BacktestService {
+
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final double TRADING_DAYS = 252;
+    private static final double YEAR_MILLIS = 365.25 * Resolution.DAY.getMillis();
+
+    @Autowired
+    private CandleStore candleStore;
+
+    @Value("${backtest.data-dir:data/history}")
+    private String dataDir;
+
+    @Value("${backtest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${backtest.max-runs:500}")
+    private int maxRuns;
+
+    @Value("${backtest.curve-points:250}")
+    private int curvePoints;
+
+    @Value("${pnl.cost-basis-method:FIFO}")
+    private CostBasisMethod defaultCostBasisMethod;
+
+    private ForkJoinPool pool;
+
+    private record Run(StrategyType type, Map<String, Integer> params) {
+    }
+
+    @PostConstruct
+    public void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("backtest-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    public BacktestReport run(BacktestRequest request) {
+        long started = System.currentTimeMillis();
+        if (request.getStrategies() == null || request.getStrategies().isEmpty()) {
+            throw new IllegalArgumentException("At least one strategy is required.");
+        }
+        if (request.getInitialCash() == null || request.getInitialCash().signum() <= 0) {
+            throw new IllegalArgumentException("Initial cash must be positive.");
+        }
+        long initialCash = Money.of(request.getInitialCash());
+        CostBasisMethod method = request.getCostBasisMethod() != null ? request.getCostBasisMethod() : defaultCostBasisMethod;
+        List<Run> runs = expand(request.getStrategies());
+
+        long from = request.getFrom() == null ? 0 : startOf(request.getFrom());
+        long to = request.getTo() == null ? Long.MAX_VALUE : startOf(request.getTo().plusDays(1)) - 1;
+        if (from > to) {
+            throw new IllegalArgumentException("from must not be after to.");
+        }
+        PriceHistory history = load(request, from, to);
+        if (history.symbolCount() == 0 || history.dayCount() < 2) {
+            throw new IllegalArgumentException("Not enough price history for the requested symbols and dates.");
+        }
+
+        List<ForkJoinTask<BacktestResult>> tasks = new ArrayList<>(runs.size());
+        for (Run run : runs) {
+            tasks.add(pool.submit(() -> simulate(history, run, initialCash, method)));
+        }
+        List<BacktestResult> results = new ArrayList<>(runs.size());
+        for (ForkJoinTask<BacktestResult> task : tasks) {
+            results.add(task.join());
+        }
+        List<String> symbols = new ArrayList<>(history.symbolCount());
+        for (int s = 0; s < history.symbolCount(); s++) {
+            symbols.add(history.symbol(s));
+        }
+        return new BacktestReport(symbols, history.day(0), history.day(history.dayCount() - 1), history.dayCount(),
+                System.currentTimeMillis() - started, results);
+    }
+
+    // Every combination of each strategy's parameter values, validated before anything runs
+    private List<Run> expand(List<BacktestRequest.StrategyGrid> grids) {
+        List<Run> runs = new ArrayList<>();
+        for (BacktestRequest.StrategyGrid grid : grids) {
+            StrategyType type = grid.getType();
+            if (type == null) {
+                throw new IllegalArgumentException("Every strategy needs a type.");
+            }
+            Map<String, List<Integer>> params = grid.getParams() == null ? Map.of() : grid.getParams();
+            for (String name : params.keySet()) {
+                if (!type.getParameters().contains(name)) {
+                    throw new IllegalArgumentException(type + " has no parameter " + name + "; expected " + type.getParameters() + ".");
+                }
+            }
+            List<Map<String, Integer>> combinations = List.of(Map.of());
+            for (String name : type.getParameters()) {
+                List<Integer> values = params.get(name);
+                if (values == null || values.isEmpty() || values.contains(null)) {
+                    throw new IllegalArgumentException(type + " needs at least one value for " + name + ".");
+                }
+                List<Map<String, Integer>> next = new ArrayList<>(combinations.size() * values.size());
+                for (Map<String, Integer> combination : combinations) {
+                    for (Integer value : values) {
+                        Map<String, Integer> extended = new LinkedHashMap<>(combination);
+                        extended.put(name, value);
+                        next.add(extended);
+                    }
+                }
+                if (runs.size() + next.size() > maxRuns) {
+                    throw new IllegalArgumentException("A backtest can hold at most " + maxRuns + " runs.");
+                }
+                combinations = next;
+            }
+            for (Map<String, Integer> combination : combinations) {
+                // Constructing a one-symbol instance checks the values without waiting for the pool
+                type.create(1, combination);
+                runs.add(new Run(type, combination));
+            }
+            if (runs.size() > maxRuns) {
+                throw new IllegalArgumentException("A backtest can hold at most " + maxRuns + " runs.");
+            }
+        }
+        return runs;
+    }
+
+    private PriceHistory load(BacktestRequest request, long from, long to) {
+        Set<String> wanted = null;
+        if (request.getSymbols() != null && !request.getSymbols().isEmpty()) {
+            wanted = new HashSet<>();
+            for (String symbol : request.getSymbols()) {
+                wanted.add(symbol.trim().toUpperCase());
+            }
+        }
+        PriceHistory.Builder builder = new PriceHistory.Builder();
+        String source = request.getSource() == null ? "candles" : request.getSource().trim();
+        if (source.equalsIgnoreCase("candles")) {
+            for (String symbol : wanted != null ? wanted : candleStore.symbols()) {
+                candleStore.forEachClose(symbol, Resolution.DAY, from, to, (time, close) -> builder.add(symbol, time, close));
+            }
+        } else {
+            readCsv(resolve(source), wanted, from, to, builder);
+        }
+        return builder.build();
+    }
+
+    private Path resolve(String name) {
+        if (!FILE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid history file name: " + name);
+        }
+        Path file = Path.of(dataDir).resolve(name);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Unknown history file: " + name);
+        }
+        return file;
+    }
+
+    // Rows are "time,SYMBOL,close" (the replay format) or "time,SYMBOL,open,high,low,close[,volume]"
+    // (the candle import format); time is epoch millis or an ISO date. Lines not starting with a
+    // digit, such as a header, are skipped.
+    private static void readCsv(Path file, Set<String> wanted, long from, long to, PriceHistory.Builder builder) {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || !Character.isDigit(line.charAt(0))) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length < 3) {
+                    throw new IllegalArgumentException("Malformed row in " + file.getFileName() + ": " + line);
+                }
+                String symbol = parts[1].trim().toUpperCase();
+                if (wanted != null && !wanted.contains(symbol)) {
+                    continue;
+                }
+                long timestamp = parseTime(parts[0].trim());
+                if (timestamp >= from && timestamp <= to) {
+                    builder.add(symbol, timestamp, Money.of(parts[parts.length >= 6 ? 5 : 2].trim()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read history file " + file, e);
+        }
+    }
+
+    private BacktestResult simulate(PriceHistory history, Run run, long initialCash, CostBasisMethod method) {
+        Strategy strategy = run.type().create(history.symbolCount(), run.params());
+        Backtest.Outcome outcome = Backtest.run(history, strategy, initialCash, method);
+        long[] equity = outcome.equity();
+        int last = equity.length - 1;
+
+        double peak = equity[0];
+        double maxDrawdown = 0;
+        double sum = 0;
+        double sumSquares = 0;
+        for (int day = 1; day <= last; day++) {
+            double change = (double) equity[day] / equity[day - 1] - 1;
+            sum += change;
+            sumSquares += change * change;
+            peak = Math.max(peak, equity[day]);
+            maxDrawdown = Math.max(maxDrawdown, 1 - equity[day] / peak);
+        }
+        double mean = sum / last;
+        double deviation = Math.sqrt(Math.max(0, sumSquares / last - mean * mean));
+        double growth = (double) equity[last] / initialCash;
+        double years = (history.day(last) - history.day(0)) / YEAR_MILLIS;
+
+        return new BacktestResult(run.type(), run.params(), Money.toDecimal(equity[last]),
+                rounded((growth - 1) * 100),
+                rounded((Math.pow(growth, 1 / years) - 1) * 100),
+                rounded(maxDrawdown * 100),
+                rounded(deviation * Math.sqrt(TRADING_DAYS) * 100),
+                rounded(deviation == 0 ? 0 : mean / deviation * Math.sqrt(TRADING_DAYS)),
+                outcome.trades(), outcome.rejected(), Money.toDecimal(outcome.realizedPnl()),
+                curve(history, equity));
+    }
+
+    // At most curvePoints evenly spaced points, always including the first and last day
+    private List<BacktestResult.EquityPoint> curve(PriceHistory history, long[] equity) {
+        int points = Math.max(2, Math.min(curvePoints, equity.length));
+        List<BacktestResult.EquityPoint> curve = new ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            int day = (int) ((long) i * (equity.length - 1) / (points - 1));
+            curve.add(new BacktestResult.EquityPoint(history.day(day), Money.toDecimal(equity[day])));
+        }
+        return curve;
+    }
+
+    private static BigDecimal rounded(double value) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP) : null;
+    }
+
+    private static long parseTime(String time) {
+        try {
+            return time.indexOf('-') > 0 ? startOf(LocalDate.parse(time)) : Long.parseLong(time);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date in history file: " + time, e);
+        }
+    }
+
+    private static long startOf(LocalDate date) {
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+}
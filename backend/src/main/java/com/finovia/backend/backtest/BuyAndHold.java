@@ -0,0 +1,26 @@
+package com.finovia.backend.backtest;
+
+// Splits the starting cash equally over every symbol on its first tradable day and never sells
+final class BuyAndHold implements Strategy {
+
+    private final boolean[] bought;
+    private long slot;
+
+    BuyAndHold(int symbols) {
+        this.bought = new boolean[symbols];
+    }
+
+    @Override
+    public void onBar(int day, PriceHistory history, SimulatedAccount account) {
+        if (day == 0) {
+            slot = account.cash() / bought.length;
+        }
+        for (int s = 0; s < bought.length; s++) {
+            long close = history.close(day, s);
+            if (!bought[s] && close > 0) {
+                bought[s] = true;
+                account.orderTarget(s, slot, close);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.finovia.backend.backtest;
+
+import com.finovia.backend.account.Money;
+
+// Every `rebalance` days, ranks symbols by their return over the last `lookback` days and holds
+// the best `top` of them in equal slots of current equity. Sells run before buys so that the
+// freed cash funds the new positions.
+final class Momentum implements Strategy {
+
+    private final int lookback;
+    private final int top;
+    private final int rebalance;
+    private final double[] score;
+    private final int[] chosen;
+    private final boolean[] selected;
+
+    Momentum(int symbols, int lookback, int top, int rebalance) {
+        if (lookback <= 0 || top <= 0 || rebalance <= 0) {
+            throw new IllegalArgumentException("MOMENTUM needs positive lookback, top and rebalance.");
+        }
+        this.lookback = lookback;
+        this.top = Math.min(top, symbols);
+        this.rebalance = rebalance;
+        this.score = new double[symbols];
+        this.chosen = new int[this.top];
+        this.selected = new boolean[symbols];
+    }
+
+    @Override
+    public void onBar(int day, PriceHistory history, SimulatedAccount account) {
+        if (day < lookback || (day - lookback) % rebalance != 0) {
+            return;
+        }
+        int symbols = score.length;
+        for (int s = 0; s < symbols; s++) {
+            long then = history.close(day - lookback, s);
+            long now = history.close(day, s);
+            score[s] = then > 0 && now > 0 ? (double) now / then : Double.NaN;
+            selected[s] = false;
+        }
+        // Partial selection of the best `top`; top is small next to the universe
+        int picked = 0;
+        for (; picked < top; picked++) {
+            int best = -1;
+            for (int s = 0; s < symbols; s++) {
+                if (!selected[s] && !Double.isNaN(score[s]) && (best < 0 || score[s] > score[best])) {
+                    best = s;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            selected[best] = true;
+            chosen[picked] = best;
+        }
+        for (int s = 0; s < symbols; s++) {
+            if (!selected[s] && account.quantity(s) > 0) {
+                account.closePosition(s, history.close(day, s));
+            }
+        }
+        if (picked == 0) {
+            return;
+        }
+        long slot = account.equity() / picked;
+        // Trim overweight holdings first, then top up the rest
+        for (int i = 0; i < picked; i++) {
+            int s = chosen[i];
+            long close = history.close(day, s);
+            if (Money.times(close, account.quantity(s)) > slot) {
+                account.orderTarget(s, slot, close);
+            }
+        }
+        for (int i = 0; i < picked; i++) {
+            int s = chosen[i];
+            account.orderTarget(s, slot, history.close(day, s));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.finovia.backend.backtest;
+
+import com.finovia.backend.candles.Resolution;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Daily closes of a set of symbols on one shared calendar, in Money micro-units. Stored day-major
+// in a single long[] so that a bar (every symbol's close on one day) is one contiguous slice.
+// A symbol's close is carried forward over days it has no price and is 0 before its first one,
+// which strategies treat as "not tradable yet". Immutable once built and shared by parallel runs.
+public final class PriceHistory {
+
+    private final String[] symbols;
+    private final long[] days;
+    private final long[] closes;
+
+    private PriceHistory(String[] symbols, long[] days, long[] closes) {
+        this.symbols = symbols;
+        this.days = days;
+        this.closes = closes;
+    }
+
+    public int symbolCount() {
+        return symbols.length;
+    }
+
+    public int dayCount() {
+        return days.length;
+    }
+
+    public String symbol(int symbol) {
+        return symbols[symbol];
+    }
+
+    // Start of the day in epoch millis (UTC)
+    public long day(int day) {
+        return days[day];
+    }
+
+    public long close(int day, int symbol) {
+        return closes[day * symbols.length + symbol];
+    }
+
+    // Collects (symbol, time, close) rows in any order; several rows on one day keep the latest time
+    public static final class Builder {
+
+        private final Map<String, Series> series = new LinkedHashMap<>();
+
+        public Builder add(String symbol, long time, long closeMicros) {
+            if (closeMicros > 0) {
+                series.computeIfAbsent(symbol, key -> new Series()).add(time, closeMicros);
+            }
+            return this;
+        }
+
+        public PriceHistory build() {
+            String[] symbols = series.keySet().stream().sorted().toArray(String[]::new);
+            int total = 0;
+            for (Series one : series.values()) {
+                one.sortByTime();
+                total += one.size;
+            }
+            // The calendar is the union of every symbol's days
+            long[] all = new long[total];
+            int at = 0;
+            for (Series one : series.values()) {
+                for (int i = 0; i < one.size; i++) {
+                    all[at++] = Resolution.DAY.floor(one.times[i]);
+                }
+            }
+            long[] days = Arrays.stream(all).sorted().distinct().toArray();
+
+            long[] closes = new long[days.length * symbols.length];
+            for (int s = 0; s < symbols.length; s++) {
+                Series one = series.get(symbols[s]);
+                long last = 0;
+                int row = 0;
+                for (int d = 0; d < days.length; d++) {
+                    while (row < one.size && Resolution.DAY.floor(one.times[row]) == days[d]) {
+                        last = one.closes[row++];
+                    }
+                    closes[d * symbols.length + s] = last;
+                }
+            }
+            return new PriceHistory(symbols, days, closes);
+        }
+    }
+
+    private static final class Series {
+        private long[] times = new long[256];
+        private long[] closes = new long[256];
+        private int size;
+
+        void add(long time, long close) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                closes = Arrays.copyOf(closes, size * 2);
+            }
+            times[size] = time;
+            closes[size] = close;
+            size++;
+        }
+
+        // Rows usually arrive in order; sort only when they did not
+        void sortByTime() {
+            for (int i = 1; i < size; i++) {
+                if (times[i] < times[i - 1]) {
+                    Integer[] order = new Integer[size];
+                    for (int j = 0; j < size; j++) {
+                        order[j] = j;
+                    }
+                    Arrays.sort(order, (a, b) -> Long.compare(times[a], times[b]));
+                    long[] sortedTimes = new long[size];
+                    long[] sortedCloses = new long[size];
+                    for (int j = 0; j < size; j++) {
+                        sortedTimes[j] = times[order[j]];
+                        sortedCloses[j] = closes[order[j]];
+                    }
+                    times = sortedTimes;
+                    closes = sortedCloses;
+                    return;
+                }
+            }
+        }
+    }
+}
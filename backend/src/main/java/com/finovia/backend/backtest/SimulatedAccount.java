@@ -0,0 +1,191 @@
+package com.finovia.backend.backtest;
+
+import com.finovia.backend.account.CostBasisMethod;
+import com.finovia.backend.account.Money;
+
+import java.util.Arrays;
+
+// A backtest portfolio that trades by the same rules as TradeService and Position: orders fill at
+// the bar's close, a buy needs cash for the full notional, a sell needs the shares, lots are
+// relieved oldest first and the cost basis follows CostBasisMethod, all in Money micro-units.
+// Positions and lots are primitive arrays indexed by symbol, so once the lot rings have grown to
+// a run's working size an order allocates nothing. Not thread-safe: one account per run.
+final class SimulatedAccount {
+
+    private static final int INITIAL_LOTS = 8;
+
+    private final CostBasisMethod method;
+    private final int[] quantity;
+    private final long[] costBasis;
+    // Open lots per symbol as a ring: lotHead is the oldest, lotCount how many are open
+    private final int[][] lotQuantity;
+    private final long[][] lotPrice;
+    private final int[] lotHead;
+    private final int[] lotCount;
+
+    private long cash;
+    private long realizedPnl;
+    private long equity;
+    private int trades;
+    private int rejected;
+
+    SimulatedAccount(int symbols, long initialCash, CostBasisMethod method) {
+        this.method = method;
+        this.quantity = new int[symbols];
+        this.costBasis = new long[symbols];
+        this.lotQuantity = new int[symbols][INITIAL_LOTS];
+        this.lotPrice = new long[symbols][INITIAL_LOTS];
+        this.lotHead = new int[symbols];
+        this.lotCount = new int[symbols];
+        this.cash = initialCash;
+        this.equity = initialCash;
+    }
+
+    boolean buy(int symbol, int shares, long priceMicros) {
+        if (shares <= 0 || priceMicros <= 0) {
+            return false;
+        }
+        long total = Money.times(priceMicros, shares);
+        if (cash < total) {
+            rejected++;
+            return false;
+        }
+        cash -= total;
+        quantity[symbol] += shares;
+        costBasis[symbol] = Math.addExact(costBasis[symbol], total);
+        pushLot(symbol, shares, priceMicros);
+        trades++;
+        return true;
+    }
+
+    boolean sell(int symbol, int shares, long priceMicros) {
+        if (shares <= 0 || priceMicros <= 0) {
+            return false;
+        }
+        int held = quantity[symbol];
+        if (held < shares) {
+            rejected++;
+            return false;
+        }
+        int[] quantities = lotQuantity[symbol];
+        long[] prices = lotPrice[symbol];
+        int mask = quantities.length - 1;
+        long relievedCost = 0;
+        int remaining = shares;
+        while (remaining > 0) {
+            int head = lotHead[symbol];
+            int taken = Math.min(remaining, quantities[head]);
+            relievedCost = Math.addExact(relievedCost, Money.times(prices[head], taken));
+            remaining -= taken;
+            quantities[head] -= taken;
+            if (quantities[head] == 0) {
+                lotHead[symbol] = (head + 1) & mask;
+                lotCount[symbol]--;
+            }
+        }
+        int newQuantity = held - shares;
+        if (method == CostBasisMethod.AVERAGE) {
+            relievedCost = newQuantity == 0
+                    ? costBasis[symbol]
+                    : Money.mulDiv(costBasis[symbol], shares, held);
+        }
+        costBasis[symbol] = newQuantity == 0 ? 0 : costBasis[symbol] - relievedCost;
+        quantity[symbol] = newQuantity;
+        long proceeds = Money.times(priceMicros, shares);
+        realizedPnl += proceeds - relievedCost;
+        cash += proceeds;
+        trades++;
+        return true;
+    }
+
+    // Buys or sells toward holding targetMicros worth of the symbol; buys are trimmed to the cash on hand
+    void orderTarget(int symbol, long targetMicros, long priceMicros) {
+        if (priceMicros <= 0) {
+            return;
+        }
+        int target = (int) Math.min(Integer.MAX_VALUE, Math.max(0, targetMicros) / priceMicros);
+        int delta = target - quantity[symbol];
+        if (delta < 0) {
+            sell(symbol, -delta, priceMicros);
+        } else if (delta > 0) {
+            int affordable = (int) Math.min(delta, cash / priceMicros);
+            buy(symbol, affordable, priceMicros);
+        }
+    }
+
+    void closePosition(int symbol, long priceMicros) {
+        sell(symbol, quantity[symbol], priceMicros);
+    }
+
+    // Marks every position to the day's closes and returns cash plus market value
+    long markToMarket(PriceHistory history, int day) {
+        long value = cash;
+        for (int s = 0; s < quantity.length; s++) {
+            if (quantity[s] != 0) {
+                value += Money.times(history.close(day, s), quantity[s]);
+            }
+        }
+        equity = value;
+        return value;
+    }
+
+    int quantity(int symbol) {
+        return quantity[symbol];
+    }
+
+    long costBasis(int symbol) {
+        return costBasis[symbol];
+    }
+
+    long cash() {
+        return cash;
+    }
+
+    // Equity as of the last markToMarket
+    long equity() {
+        return equity;
+    }
+
+    long realizedPnl() {
+        return realizedPnl;
+    }
+
+    int trades() {
+        return trades;
+    }
+
+    int rejected() {
+        return rejected;
+    }
+
+    private void pushLot(int symbol, int shares, long priceMicros) {
+        int count = lotCount[symbol];
+        if (count == lotQuantity[symbol].length) {
+            growLots(symbol);
+        }
+        int mask = lotQuantity[symbol].length - 1;
+        int tail = (lotHead[symbol] + count) & mask;
+        lotQuantity[symbol][tail] = shares;
+        lotPrice[symbol][tail] = priceMicros;
+        lotCount[symbol] = count + 1;
+    }
+
+    // Doubles the ring and unwraps it so the oldest lot is at index 0
+    private void growLots(int symbol) {
+        int[] quantities = lotQuantity[symbol];
+        long[] prices = lotPrice[symbol];
+        int length = quantities.length;
+        int head = lotHead[symbol];
+        int[] grownQuantities = Arrays.copyOf(quantities, length * 2);
+        long[] grownPrices = Arrays.copyOf(prices, length * 2);
+        if (head != 0) {
+            System.arraycopy(quantities, head, grownQuantities, 0, length - head);
+            System.arraycopy(quantities, 0, grownQuantities, length - head, head);
+            System.arraycopy(prices, head, grownPrices, 0, length - head);
+            System.arraycopy(prices, 0, grownPrices, length - head, head);
+        }
+        lotQuantity[symbol] = grownQuantities;
+        lotPrice[symbol] = grownPrices;
+        lotHead[symbol] = 0;
+    }
+}
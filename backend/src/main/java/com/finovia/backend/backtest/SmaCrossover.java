@@ -0,0 +1,64 @@
+package com.finovia.backend.backtest;
+
+// Holds a symbol while its fast moving average of closes is above the slow one. Each symbol gets
+// an equal slot of current equity when it turns long and is sold out when it turns flat. The
+// last `slow` closes of every symbol sit in one flat ring with running sums for both windows.
+final class SmaCrossover implements Strategy {
+
+    private final int fast;
+    private final int slow;
+    private final int symbols;
+    private final long[] window;
+    private final long[] fastSum;
+    private final long[] slowSum;
+    private final int[] seen;
+    private final boolean[] holding;
+
+    SmaCrossover(int symbols, int fast, int slow) {
+        if (fast <= 0 || slow <= fast) {
+            throw new IllegalArgumentException("SMA_CROSSOVER needs 0 < fast < slow.");
+        }
+        this.fast = fast;
+        this.slow = slow;
+        this.symbols = symbols;
+        this.window = new long[symbols * slow];
+        this.fastSum = new long[symbols];
+        this.slowSum = new long[symbols];
+        this.seen = new int[symbols];
+        this.holding = new boolean[symbols];
+    }
+
+    @Override
+    public void onBar(int day, PriceHistory history, SimulatedAccount account) {
+        long slot = account.equity() / symbols;
+        for (int s = 0; s < symbols; s++) {
+            long close = history.close(day, s);
+            if (close == 0) {
+                continue;
+            }
+            int n = seen[s]++;
+            int base = s * slow;
+            if (n >= fast) {
+                fastSum[s] -= window[base + (n - fast) % slow];
+            }
+            if (n >= slow) {
+                slowSum[s] -= window[base + n % slow];
+            }
+            window[base + n % slow] = close;
+            fastSum[s] += close;
+            slowSum[s] += close;
+            if (n + 1 < slow) {
+                continue;
+            }
+            // fastSum / fast > slowSum / slow without dividing
+            boolean up = fastSum[s] * slow > slowSum[s] * fast;
+            if (up && !holding[s]) {
+                holding[s] = true;
+                account.orderTarget(s, slot, close);
+            } else if (!up && holding[s]) {
+                holding[s] = false;
+                account.closePosition(s, close);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.finovia.backend.backtest;
+
+// One parameterised trading rule. A fresh instance is created per run, sized in the constructor
+// for the history it will see, so onBar can work in preallocated arrays without allocating.
+interface Strategy {
+
+    // Called once per day in order, after the account has been marked to that day's closes
+    void onBar(int day, PriceHistory history, SimulatedAccount account);
+}
@@ -0,0 +1,38 @@
+package com.finovia.backend.backtest;
+
+import java.util.List;
+import java.util.Map;
+
+public enum StrategyType {
+    BUY_AND_HOLD(List.of()) {
+        @Override
+        Strategy create(int symbols, Map<String, Integer> params) {
+            return new BuyAndHold(symbols);
+        }
+    },
+    SMA_CROSSOVER(List.of("fast", "slow")) {
+        @Override
+        Strategy create(int symbols, Map<String, Integer> params) {
+            return new SmaCrossover(symbols, params.get("fast"), params.get("slow"));
+        }
+    },
+    MOMENTUM(List.of("lookback", "top", "rebalance")) {
+        @Override
+        Strategy create(int symbols, Map<String, Integer> params) {
+            return new Momentum(symbols, params.get("lookback"), params.get("top"), params.get("rebalance"));
+        }
+    };
+
+    private final List<String> parameters;
+
+    StrategyType(List<String> parameters) {
+        this.parameters = parameters;
+    }
+
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    // params holds exactly getParameters(); see BacktestService.expand
+    abstract Strategy create(int symbols, Map<String, Integer> params);
+}
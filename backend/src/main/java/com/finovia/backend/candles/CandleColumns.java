@@ -0,0 +1,168 @@
+package com.finovia.backend.candles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// One append-only, memory-mapped file of candles for a symbol at one resolution.
+// Rows are stored column by column in fixed blocks of BLOCK_ROWS, so each column is a plain
+// long[] slice (times, then open/high/low/close in Money micro-units, then volume). Times are
+// strictly increasing, which makes the time column its own index: lookups are a binary search.
+// The row count in the header is written after the row itself and is the commit point.
+// Not thread-safe: CandleSeries serializes access.
+final class CandleColumns {
+
+    static final int TIME = 0;
+    static final int OPEN = 1;
+    static final int HIGH = 2;
+    static final int LOW = 3;
+    static final int CLOSE = 4;
+    static final int VOLUME = 5;
+
+    static final int BLOCK_ROWS = 1024;
+    private static final int COLUMNS = 6;
+    private static final long BLOCK_BYTES = (long) BLOCK_ROWS * COLUMNS * Long.BYTES;
+
+    private static final int MAGIC = 0x464E4331; // "FNC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int RESOLUTION_AT = 8;
+    private static final int BLOCK_ROWS_AT = 16;
+    private static final int ROWS_AT = 24;
+
+    private final Path file;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> blocks = new ArrayList<>();
+    private int rows;
+
+    private CandleColumns(Path file, MappedByteBuffer header) {
+        this.file = file;
+        this.header = header;
+    }
+
+    static CandleColumns open(Path file, long resolutionMillis) {
+        try {
+            boolean exists = Files.exists(file) && Files.size(file) >= HEADER_BYTES;
+            CandleColumns columns = new CandleColumns(file, map(file, 0, HEADER_BYTES));
+            columns.header.order(ByteOrder.LITTLE_ENDIAN);
+            if (!exists) {
+                columns.header.putInt(MAGIC_AT, MAGIC);
+                columns.header.putInt(VERSION_AT, VERSION);
+                columns.header.putLong(RESOLUTION_AT, resolutionMillis);
+                columns.header.putInt(BLOCK_ROWS_AT, BLOCK_ROWS);
+                columns.header.putLong(ROWS_AT, 0);
+                return columns;
+            }
+            if (columns.header.getInt(MAGIC_AT) != MAGIC || columns.header.getInt(VERSION_AT) != VERSION
+                    || columns.header.getLong(RESOLUTION_AT) != resolutionMillis
+                    || columns.header.getInt(BLOCK_ROWS_AT) != BLOCK_ROWS) {
+                throw new IllegalStateException("Not a candle file for " + resolutionMillis + " ms candles: " + file);
+            }
+            columns.rows = Math.toIntExact(columns.header.getLong(ROWS_AT));
+            for (int block = 0; block * BLOCK_ROWS < columns.rows; block++) {
+                columns.mapBlock(block);
+            }
+            return columns;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open candle file " + file, e);
+        }
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    long get(int column, int row) {
+        return blocks.get(row / BLOCK_ROWS).getLong(offset(column, row));
+    }
+
+    void append(long time, long open, long high, long low, long close, long volume) {
+        if (rows > 0 && time <= get(TIME, rows - 1)) {
+            throw new IllegalArgumentException("Candle at " + time + " is not after the last stored candle in " + file);
+        }
+        if (rows / BLOCK_ROWS == blocks.size()) {
+            mapBlock(blocks.size());
+        }
+        write(rows, time, open, high, low, close, volume);
+        rows++;
+        header.putLong(ROWS_AT, rows);
+    }
+
+    // Rewrites the newest row in place; only the still-open candle is ever updated
+    void replaceLast(long open, long high, long low, long close, long volume) {
+        int row = rows - 1;
+        write(row, get(TIME, row), open, high, low, close, volume);
+    }
+
+    // First row whose time is at or after the given time, or rows() if there is none
+    int lowerBound(long time) {
+        return search(time, false);
+    }
+
+    // First row whose time is after the given time, or rows() if there is none
+    int upperBound(long time) {
+        return search(time, true);
+    }
+
+    private int search(long time, boolean inclusive) {
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long midTime = get(TIME, mid);
+            if (midTime < time || inclusive && midTime == time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    void force() {
+        for (MappedByteBuffer block : blocks) {
+            block.force();
+        }
+        header.force();
+    }
+
+    private void write(int row, long time, long open, long high, long low, long close, long volume) {
+        MappedByteBuffer block = blocks.get(row / BLOCK_ROWS);
+        block.putLong(offset(TIME, row), time);
+        block.putLong(offset(OPEN, row), open);
+        block.putLong(offset(HIGH, row), high);
+        block.putLong(offset(LOW, row), low);
+        block.putLong(offset(CLOSE, row), close);
+        block.putLong(offset(VOLUME, row), volume);
+    }
+
+    private static int offset(int column, int row) {
+        return (column * BLOCK_ROWS + row % BLOCK_ROWS) * Long.BYTES;
+    }
+
+    private void mapBlock(int block) {
+        try {
+            MappedByteBuffer buffer = map(file, HEADER_BYTES + block * BLOCK_BYTES, BLOCK_BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            blocks.add(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not grow candle file " + file, e);
+        }
+    }
+
+    // The mapping stays valid after the channel is closed, so no descriptor is held per file
+    private static MappedByteBuffer map(Path file, long position, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.finovia.backend.candles;
+
+import com.finovia.backend.account.Money;
+import com.finovia.backend.dto.Candle;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.finovia.backend.candles.CandleColumns.CLOSE;
+import static com.finovia.backend.candles.CandleColumns.HIGH;
+import static com.finovia.backend.candles.CandleColumns.LOW;
+import static com.finovia.backend.candles.CandleColumns.OPEN;
+import static com.finovia.backend.candles.CandleColumns.TIME;
+import static com.finovia.backend.candles.CandleColumns.VOLUME;
+
+// The candles of one symbol at one resolution. Closed candles are in the file; the newest one is
+// still open and is aggregated in memory. It is written to the file when its bucket closes and on
+// flush, after which it is rewritten in place until it closes, so a restart picks it up again.
+final class CandleSeries {
+
+    private final Resolution resolution;
+    private final CandleColumns columns;
+
+    private long openTime = -1;
+    private long open;
+    private long high;
+    private long low;
+    private long close;
+    private long volume;
+    // Whether the open candle already occupies the last file row, and whether memory is ahead of it
+    private boolean stored;
+    private boolean dirty;
+
+    CandleSeries(Path file, Resolution resolution) {
+        this.resolution = resolution;
+        this.columns = CandleColumns.open(file, resolution.getMillis());
+        int rows = columns.rows();
+        if (rows > 0) {
+            int last = rows - 1;
+            openTime = columns.get(TIME, last);
+            open = columns.get(OPEN, last);
+            high = columns.get(HIGH, last);
+            low = columns.get(LOW, last);
+            close = columns.get(CLOSE, last);
+            volume = columns.get(VOLUME, last);
+            stored = true;
+        }
+    }
+
+    // Folds a bar (or a single price, with open = high = low = close) into its bucket.
+    // Returns false if the bucket is older than the open candle; history is append-only.
+    synchronized boolean add(long timestamp, long barOpen, long barHigh, long barLow, long barClose, long barVolume) {
+        long bucket = resolution.floor(timestamp);
+        if (bucket < openTime) {
+            return false;
+        }
+        if (bucket > openTime) {
+            if (openTime >= 0) {
+                store();
+            }
+            openTime = bucket;
+            open = barOpen;
+            high = barHigh;
+            low = barLow;
+            close = barClose;
+            volume = barVolume;
+            stored = false;
+        } else {
+            high = Math.max(high, barHigh);
+            low = Math.min(low, barLow);
+            close = barClose;
+            volume += barVolume;
+        }
+        dirty = true;
+        return true;
+    }
+
+    // Candles with from <= time <= to, the newest maxPoints of them if there are more
+    synchronized void range(long from, long to, int maxPoints, List<Candle> out) {
+        int end = stored ? columns.rows() - 1 : columns.rows();
+        int start = columns.lowerBound(from);
+        int stop = Math.min(columns.upperBound(to), end);
+        boolean withOpen = maxPoints > 0 && openTime >= from && openTime <= to;
+        int room = maxPoints - (withOpen ? 1 : 0);
+        if (stop - start > room) {
+            start = stop - room;
+        }
+        for (int row = start; row < stop; row++) {
+            out.add(new Candle(columns.get(TIME, row), Money.toDecimal(columns.get(OPEN, row)), Money.toDecimal(columns.get(HIGH, row)),
+                    Money.toDecimal(columns.get(LOW, row)), Money.toDecimal(columns.get(CLOSE, row)), columns.get(VOLUME, row)));
+        }
+        if (withOpen) {
+            out.add(new Candle(openTime, Money.toDecimal(open), Money.toDecimal(high), Money.toDecimal(low), Money.toDecimal(close), volume));
+        }
+    }
+
+    // Closing prices with from <= time <= to, oldest first, read straight from the columns
+    synchronized void closes(long from, long to, CandleStore.CloseVisitor visitor) {
+        int end = stored ? columns.rows() - 1 : columns.rows();
+        int stop = Math.min(columns.upperBound(to), end);
+        for (int row = columns.lowerBound(from); row < stop; row++) {
+            visitor.visit(columns.get(TIME, row), columns.get(CLOSE, row));
+        }
+        if (openTime >= from && openTime <= to) {
+            visitor.visit(openTime, close);
+        }
+    }
+
+    synchronized void flush() {
+        if (dirty) {
+            store();
+        }
+        columns.force();
+    }
+
+    private void store() {
+        if (stored) {
+            columns.replaceLast(open, high, low, close, volume);
+        } else {
+            columns.append(openTime, open, high, low, close, volume);
+            stored = true;
+        }
+        dirty = false;
+    }
+}
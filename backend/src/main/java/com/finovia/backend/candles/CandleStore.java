@@ -0,0 +1,201 @@
+package com.finovia.backend.candles;
+
+import com.finovia.backend.account.Money;
+import com.finovia.backend.dto.Candle;
+import com.finovia.backend.marketdata.MarketDataEngine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Local OHLCV history built from the prices the market data engine publishes, plus optional CSV
+// imports. Every price is folded into the 1m, 1h and 1d candle of its symbol, each kept in its own
+// memory-mapped columnar file under candles.dir, so charts at any of the three resolutions are a
+// binary search and a sequential read, without Postgres or upstream calls.
+// Quotes carry no traded volume, so candles built from live prices have volume 0; imported bars
+// keep theirs.
+@Service
+public class CandleStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CandleStore.class);
+    // Symbols name directories under candles.dir; the leading alphanumeric rules out "." and ".."
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9][A-Z0-9._-]{0,31}");
+
+    @FunctionalInterface
+    public interface CloseVisitor {
+        void visit(long time, long closeMicros);
+    }
+
+    @Autowired
+    private MarketDataEngine marketDataEngine;
+
+    @Value("${candles.dir:data/candles}")
+    private String dir;
+
+    @Value("${candles.import.file:}")
+    private String importFile;
+
+    @Value("${candles.max-points:5000}")
+    private int maxPoints;
+
+    private final Map<String, CandleSeries[]> series = new ConcurrentHashMap<>();
+    private Path root;
+
+    @PostConstruct
+    public void start() throws IOException {
+        root = Path.of(dir);
+        Files.createDirectories(root);
+        if (!importFile.isBlank()) {
+            importCsv(Path.of(importFile));
+        }
+        marketDataEngine.addListener((symbol, price, timestamp) -> {
+            long micros = Money.of(price);
+            add(symbol, timestamp, micros, micros, micros, micros, 0);
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${candles.flush-interval-ms:5000}", initialDelayString = "${candles.flush-interval-ms:5000}")
+    public void flush() {
+        for (CandleSeries[] bySymbol : series.values()) {
+            for (CandleSeries resolution : bySymbol) {
+                resolution.flush();
+            }
+        }
+    }
+
+    // Candles of the symbol with from <= time <= to, oldest first, at most candles.max-points
+    // (the newest ones) per call
+    public List<Candle> range(String symbol, Resolution resolution, long from, long to) {
+        List<Candle> candles = new ArrayList<>();
+        String key = symbol.toUpperCase();
+        if (from > to || !SYMBOL.matcher(key).matches()) {
+            return candles;
+        }
+        CandleSeries[] bySymbol = series.get(key);
+        if (bySymbol == null && Files.isDirectory(root.resolve(key))) {
+            bySymbol = open(key);
+        }
+        if (bySymbol != null) {
+            bySymbol[resolution.ordinal()].range(from, to, maxPoints, candles);
+        }
+        return candles;
+    }
+
+    // Closing prices in Money micro-units, without building Candle objects (backtests read years of them)
+    public void forEachClose(String symbol, Resolution resolution, long from, long to, CloseVisitor visitor) {
+        String key = symbol.toUpperCase();
+        if (from > to || !SYMBOL.matcher(key).matches()) {
+            return;
+        }
+        CandleSeries[] bySymbol = series.get(key);
+        if (bySymbol == null && Files.isDirectory(root.resolve(key))) {
+            bySymbol = open(key);
+        }
+        if (bySymbol != null) {
+            bySymbol[resolution.ordinal()].closes(from, to, visitor);
+        }
+    }
+
+    // Every symbol with stored history, sorted
+    public List<String> symbols() {
+        try (Stream<Path> listing = Files.list(root)) {
+            return listing.filter(Files::isDirectory).map(path -> path.getFileName().toString())
+                    .filter(name -> SYMBOL.matcher(name).matches()).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list candle directory " + root, e);
+        }
+    }
+
+    // Imports a CSV of 1m bars "epochMillis,SYMBOL,open,high,low,close[,volume]" or of prices in
+    // the replay format "epochMillis,SYMBOL,price". Rows must be in time order per symbol; rows
+    // older than what the store already holds are skipped, so re-importing a file is harmless.
+    public void importCsv(Path file) {
+        long imported = 0;
+        long skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                long timestamp = Long.parseLong(parts[0].trim());
+                String symbol = parts[1].trim().toUpperCase();
+                boolean added;
+                if (parts.length == 3) {
+                    long price = Money.of(new BigDecimal(parts[2].trim()));
+                    added = add(symbol, timestamp, price, price, price, price, 0);
+                } else {
+                    added = add(symbol, timestamp, Money.of(parts[2].trim()), Money.of(parts[3].trim()), Money.of(parts[4].trim()),
+                            Money.of(parts[5].trim()), parts.length > 6 ? Long.parseLong(parts[6].trim()) : 0);
+                }
+                if (added) {
+                    imported++;
+                } else {
+                    skipped++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read candle import " + file, e);
+        }
+        flush();
+        log.info("Imported {} candle rows from {} ({} skipped as older than stored history)", imported, file, skipped);
+    }
+
+    private boolean add(String symbol, long timestamp, long open, long high, long low, long close, long volume) {
+        if (!SYMBOL.matcher(symbol).matches()) {
+            return false;
+        }
+        CandleSeries[] bySymbol = series.get(symbol);
+        if (bySymbol == null) {
+            bySymbol = open(symbol);
+        }
+        // Buckets nest, so whatever the minute series accepts the coarser ones accept too
+        if (!bySymbol[Resolution.MINUTE.ordinal()].add(timestamp, open, high, low, close, volume)) {
+            return false;
+        }
+        bySymbol[Resolution.HOUR.ordinal()].add(timestamp, open, high, low, close, volume);
+        bySymbol[Resolution.DAY.ordinal()].add(timestamp, open, high, low, close, volume);
+        return true;
+    }
+
+    private CandleSeries[] open(String symbol) {
+        return series.computeIfAbsent(symbol, key -> {
+            try {
+                Path symbolDir = Files.createDirectories(root.resolve(key));
+                Resolution[] resolutions = Resolution.values();
+                CandleSeries[] bySymbol = new CandleSeries[resolutions.length];
+                for (Resolution resolution : resolutions) {
+                    bySymbol[resolution.ordinal()] = new CandleSeries(symbolDir.resolve(resolution.getCode() + ".candles"), resolution);
+                }
+                return bySymbol;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open candle directory for " + key, e);
+            }
+        });
+    }
+}
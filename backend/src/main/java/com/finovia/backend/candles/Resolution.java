@@ -0,0 +1,38 @@
+package com.finovia.backend.candles;
+
+// Candle widths kept by the store. Buckets are aligned to the epoch, so days are UTC days.
+public enum Resolution {
+    MINUTE("1m", 60_000L),
+    HOUR("1h", 3_600_000L),
+    DAY("1d", 86_400_000L);
+
+    private final String code;
+    private final long millis;
+
+    Resolution(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    // Start of the bucket the timestamp falls in
+    public long floor(long timestamp) {
+        return Math.floorDiv(timestamp, millis) * millis;
+    }
+
+    public static Resolution fromCode(String code) {
+        for (Resolution resolution : values()) {
+            if (resolution.code.equalsIgnoreCase(code)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown resolution '" + code + "', expected 1m, 1h or 1d");
+    }
+}
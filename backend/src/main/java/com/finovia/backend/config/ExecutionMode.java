@@ -0,0 +1,9 @@
+package com.finovia.backend.config;
+
+// How request handling is threaded, selected with execution.mode
+public enum ExecutionMode {
+    // Tomcat's bounded platform thread pool (server.tomcat.threads.max, 200 by default)
+    PLATFORM,
+    // One virtual thread per request; see execution-virtual-defaults.properties
+    VIRTUAL
+}
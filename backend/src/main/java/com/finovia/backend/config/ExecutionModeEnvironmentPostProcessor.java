@@ -0,0 +1,34 @@
+package com.finovia.backend.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+// Applies the defaults that go with execution.mode=VIRTUAL: virtual threads for Tomcat and
+// Spring's executors, and connection, JDBC pool and upstream bulkhead limits sized for requests
+// that are no longer capped by a thread pool. They are added with the lowest precedence, so any
+// of them can still be overridden individually.
+public class ExecutionModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String PROPERTY = "execution.mode";
+    private static final String VIRTUAL_DEFAULTS = "execution-virtual-defaults.properties";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        ExecutionMode mode = ExecutionMode.valueOf(environment.getProperty(PROPERTY, "PLATFORM").trim().toUpperCase(Locale.ROOT));
+        if (mode != ExecutionMode.VIRTUAL) {
+            return;
+        }
+        try {
+            environment.getPropertySources().addLast(new ResourcePropertySource(VIRTUAL_DEFAULTS, new ClassPathResource(VIRTUAL_DEFAULTS)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load " + VIRTUAL_DEFAULTS, e);
+        }
+    }
+}
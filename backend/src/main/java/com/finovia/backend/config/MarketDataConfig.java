@@ -0,0 +1,35 @@
+package com.finovia.backend.config;
+
+import com.finovia.backend.marketdata.FinnhubPollingFeed;
+import com.finovia.backend.marketdata.MarketDataFeed;
+import com.finovia.backend.marketdata.ReplayFeed;
+import com.finovia.backend.service.QuoteService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class MarketDataConfig {
+
+    // Default feed: poll Finnhub for every symbol with live interest, within a per-minute call budget
+    @Bean
+    @ConditionalOnProperty(name = "marketdata.feed", havingValue = "finnhub", matchIfMissing = true)
+    public MarketDataFeed finnhubPollingFeed(QuoteService quoteService,
+                                             @Value("${marketdata.poll-interval-ms:2000}") long pollIntervalMillis,
+                                             @Value("${marketdata.poll-concurrency:8}") int maxConcurrent,
+                                             @Value("${marketdata.poll-calls-per-minute:120}") int maxCallsPerMinute) {
+        return new FinnhubPollingFeed(quoteService, pollIntervalMillis, maxConcurrent, maxCallsPerMinute);
+    }
+
+    // Offline feed: replay a local CSV file (marketdata.feed=replay)
+    @Bean
+    @ConditionalOnProperty(name = "marketdata.feed", havingValue = "replay")
+    public MarketDataFeed replayFeed(@Value("${marketdata.replay.file}") String file,
+                                     @Value("${marketdata.replay.speed:1.0}") double speed,
+                                     @Value("${marketdata.replay.loop:true}") boolean loop) {
+        return new ReplayFeed(Path.of(file), speed, loop);
+    }
+}
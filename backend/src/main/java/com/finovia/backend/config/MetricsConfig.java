@@ -0,0 +1,23 @@
+package com.finovia.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+// Actuator/Prometheus exposure and histogram defaults live in metrics-defaults.properties so they
+// apply without touching the deployment's application properties, which still take precedence.
+@Configuration
+@PropertySource("classpath:metrics-defaults.properties")
+public class MetricsConfig {
+
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> commonTags(@Value("${spring.application.name:finovia-backend}") String application,
+                                                             @Value("${execution.mode:PLATFORM}") ExecutionMode executionMode) {
+        // Tagged with the execution mode so platform and virtual runs can be compared side by side
+        return registry -> registry.config().commonTags("application", application,
+                "execution_mode", executionMode.name().toLowerCase());
+    }
+}
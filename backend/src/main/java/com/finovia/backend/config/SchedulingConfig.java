@@ -0,0 +1,10 @@
+package com.finovia.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs (recommendation prefetch, leaderboard snapshots, candle flush)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
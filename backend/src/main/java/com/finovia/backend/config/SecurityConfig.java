@@ -1,6 +1,7 @@
 package com.finovia.backend.config;
 
 import com.finovia.backend.filter.JwtRequestFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -41,8 +42,12 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async completions re-dispatch a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/signup", "/api/signin", "/api/hello").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/stocks/quote/**").permitAll()
+                        // Scraped by Prometheus without a user token
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 // Add our custom JWT filter before the standard username/password filter
@@ -0,0 +1,28 @@
+package com.finovia.backend.controller;
+
+import com.finovia.backend.backtest.BacktestService;
+import com.finovia.backend.dto.BacktestRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/backtest")
+public class BacktestController {
+
+    @Autowired
+    private BacktestService backtestService;
+
+    // Runs every strategy/parameter combination in the request over the same history
+    @PostMapping
+    public ResponseEntity<?> run(@RequestBody BacktestRequest request) {
+        try {
+            return ResponseEntity.ok(backtestService.run(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
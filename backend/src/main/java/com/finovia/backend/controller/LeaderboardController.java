@@ -0,0 +1,44 @@
+package com.finovia.backend.controller;
+
+import com.finovia.backend.dto.LeaderboardEntry;
+import com.finovia.backend.leaderboard.Leaderboard;
+import com.finovia.backend.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+public class LeaderboardController {
+
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @Value("${leaderboard.max-limit:100}")
+    private int maxLimit;
+
+    // Top accounts by equity, read from memory
+    @GetMapping
+    public ResponseEntity<?> getTop(@RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalRanked", leaderboard.size());
+        response.put("entries", leaderboard.top(Math.max(1, Math.min(limit, maxLimit))));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<?> getMyRank() {
+        LeaderboardEntry entry = leaderboard.rankOf(CurrentUser.id());
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(entry);
+    }
+}
@@ -0,0 +1,62 @@
+package com.finovia.backend.controller;
+
+import com.finovia.backend.dto.OrderRequest;
+import com.finovia.backend.matching.MatchingEngine;
+import com.finovia.backend.matching.Order;
+import com.finovia.backend.persistence.TradeNotSavedException;
+import com.finovia.backend.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+
+    @Autowired
+    private MatchingEngine matchingEngine;
+
+    @PostMapping
+    public ResponseEntity<?> placeOrder(@RequestBody OrderRequest request) {
+        if (request.getSymbol() == null || request.getSide() == null) {
+            return ResponseEntity.badRequest().body("Symbol and side are required.");
+        }
+        try {
+            Order order = matchingEngine.submit(CurrentUser.id(), request.getSymbol(), request.getSide(),
+                    request.getType(), request.getQuantity(), request.getPrice());
+            return ResponseEntity.ok(order);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (TradeNotSavedException e) {
+            // A market order filled but is not confirmed as saved, as for /api/stocks/buy and /sell
+            return ResponseEntity.status(503).body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getOpenOrders() {
+        return ResponseEntity.ok(matchingEngine.getOpenOrders(CurrentUser.id()));
+    }
+
+    @PutMapping("/{orderId}")
+    public ResponseEntity<?> replaceOrder(@PathVariable long orderId, @RequestBody OrderRequest request) {
+        try {
+            Order order = matchingEngine.replace(CurrentUser.id(), orderId, request.getPrice(), request.getQuantity());
+            if (order == null) {
+                return ResponseEntity.status(404).body("Open order not found: " + orderId);
+            }
+            return ResponseEntity.ok(order);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{orderId}")
+    public ResponseEntity<?> cancelOrder(@PathVariable long orderId) {
+        Order order = matchingEngine.cancel(CurrentUser.id(), orderId);
+        if (order == null) {
+            return ResponseEntity.status(404).body("Open order not found: " + orderId);
+        }
+        return ResponseEntity.ok(order);
+    }
+}
@@ -1,16 +1,21 @@
 package com.finovia.backend.controller;
 
-import com.finovia.backend.entity.Holding;
-import com.finovia.backend.entity.User;
-import com.finovia.backend.repository.HoldingRepository;
-import com.finovia.backend.repository.UserRepository;
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.dto.PortfolioValuation;
+import com.finovia.backend.marketdata.MarketDataEngine;
+import com.finovia.backend.security.CurrentUser;
+import com.finovia.backend.service.PortfolioValuationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,26 +25,86 @@ import java.util.Map;
 public class PortfolioController {
 
     @Autowired
-    private UserRepository userRepository;
+    private AccountStore accountStore;
 
     @Autowired
-    private HoldingRepository holdingRepository;
+    private MarketDataEngine marketDataEngine;
+
+    @Autowired
+    private PortfolioValuationService portfolioValuationService;
 
     @GetMapping("/me")
     public ResponseEntity<?> getMyPortfolio() {
         // Get the currently logged-in user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        long userId = CurrentUser.id();
 
-        // Get all holdings for that user
-        List<Holding> holdings = holdingRepository.findByUser(user);
+        // Balance and holdings come from the in-memory account, which may be ahead of the
+        // database while write-behind batches are pending
+        AccountState account = accountStore.get(userId);
+        List<Position> holdings = List.copyOf(account.getPositions());
 
         // Create a response object
         Map<String, Object> portfolioData = new HashMap<>();
-        portfolioData.put("virtualBalance", user.getVirtualBalance());
+        portfolioData.put("virtualBalance", account.getBalance());
         portfolioData.put("holdings", holdings);
+        // Latest in-memory prices for the held symbols, no upstream call
+        portfolioData.put("prices", marketDataEngine.getLastPrices(holdings.stream().map(Position::getStockSymbol).toList()));
 
         return ResponseEntity.ok(portfolioData);
     }
+
+    // Balance, holdings, prices, weights and P/L in one call, so clients do not fetch a quote per holding
+    @GetMapping("/valuation")
+    public ResponseEntity<PortfolioValuation> getMyValuation() {
+        long userId = CurrentUser.id();
+
+        return ResponseEntity.ok(portfolioValuationService.value(accountStore.get(userId)));
+    }
+
+    @GetMapping("/pnl")
+    public ResponseEntity<?> getMyPnl() {
+        long userId = CurrentUser.id();
+
+        AccountState account = accountStore.get(userId);
+        List<Position> holdings = List.copyOf(account.getPositions());
+        Map<String, BigDecimal> prices = marketDataEngine.getLastPrices(holdings.stream().map(Position::getStockSymbol).toList());
+
+        // Unrealized P/L is marked against the last in-memory price; symbols without one yet are
+        // reported with null market values and left out of the totals
+        List<Map<String, Object>> positions = new ArrayList<>();
+        long totalCost = 0;
+        long totalMarketValue = 0;
+        long totalUnrealized = 0;
+        for (Position position : holdings) {
+            BigDecimal price = prices.get(position.getStockSymbol());
+            Map<String, Object> row = new HashMap<>();
+            row.put("stockSymbol", position.getStockSymbol());
+            row.put("quantity", position.getQuantity());
+            row.put("costBasis", position.getCostBasis());
+            row.put("averagePurchasePrice", position.getAveragePurchasePrice());
+            row.put("marketPrice", price);
+            if (price != null) {
+                long priceMicros = Money.of(price);
+                long marketValue = Money.times(priceMicros, position.getQuantity());
+                long unrealized = position.unrealizedPnlMicros(priceMicros);
+                row.put("marketValue", Money.toDecimal(marketValue));
+                row.put("unrealizedPnl", Money.toDecimal(unrealized));
+                totalCost = Math.addExact(totalCost, position.getCostBasisMicros());
+                totalMarketValue = Math.addExact(totalMarketValue, marketValue);
+                totalUnrealized = Math.addExact(totalUnrealized, unrealized);
+            } else {
+                row.put("marketValue", null);
+                row.put("unrealizedPnl", null);
+            }
+            positions.add(row);
+        }
+
+        Map<String, Object> pnl = new HashMap<>();
+        pnl.put("positions", positions);
+        pnl.put("totalCostBasis", Money.toDecimal(totalCost));
+        pnl.put("totalMarketValue", Money.toDecimal(totalMarketValue));
+        pnl.put("unrealizedPnl", Money.toDecimal(totalUnrealized));
+        pnl.put("realizedPnl", account.getRealizedPnl());
+        return ResponseEntity.ok(pnl);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.finovia.backend.controller;
+
+import com.finovia.backend.push.PushHub;
+import com.finovia.backend.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Live price, fill and portfolio updates as Server-Sent Events.
+// EventSource cannot send headers, so this endpoint also accepts the JWT as ?token=.
+@RestController
+@RequestMapping("/api/stream")
+public class PushController {
+
+    @Autowired
+    private PushHub pushHub;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> openStream(@RequestParam(defaultValue = "") String symbols,
+                                        @RequestParam(defaultValue = "true") boolean portfolio) {
+        try {
+            List<String> symbolList = Arrays.asList(symbols.split(","));
+            SseEmitter emitter = pushHub.open(CurrentUser.id(), symbolList, portfolio).getEmitter();
+            return ResponseEntity.ok(emitter);
+        } catch (IllegalStateException e) {
+            // Too many open streams for this user
+            return ResponseEntity.status(429).build();
+        }
+    }
+
+    // Replaces the symbols an open stream is subscribed to (the id comes from its "connected" event)
+    @PutMapping("/{connectionId}/symbols")
+    public ResponseEntity<?> updateSymbols(@PathVariable String connectionId, @RequestBody List<String> symbols) {
+        if (!pushHub.updateSymbols(CurrentUser.id(), connectionId, symbols)) {
+            return ResponseEntity.status(404).body("Open stream not found: " + connectionId);
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
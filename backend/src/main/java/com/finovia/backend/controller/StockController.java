@@ -1,206 +1,232 @@
 package com.finovia.backend.controller;
 
-import com.finovia.backend.dto.FinnhubQuote;
-import com.finovia.backend.entity.Holding;
-import com.finovia.backend.entity.Transaction;
-import com.finovia.backend.entity.User;
-import com.finovia.backend.repository.HoldingRepository;
-import com.finovia.backend.repository.TransactionRepository;
-import com.finovia.backend.repository.UserRepository;
+import com.finovia.backend.candles.CandleStore;
+import com.finovia.backend.candles.Resolution;
+import com.finovia.backend.dto.BatchOrderLeg;
+import com.finovia.backend.dto.BatchOrderRequest;
+import com.finovia.backend.dto.BatchOrderResult;
+import com.finovia.backend.dto.TradeResult;
+import com.finovia.backend.finnhub.FinnhubClient;
+import com.finovia.backend.finnhub.FinnhubUnavailableException;
+import com.finovia.backend.marketdata.MarketDataEngine;
+import com.finovia.backend.marketdata.PriceTick;
+import com.finovia.backend.persistence.TradeNotSavedException;
+import com.finovia.backend.security.CurrentUser;
+import com.finovia.backend.service.QuoteService;
+import com.finovia.backend.service.RecommendationService;
+import com.finovia.backend.service.TradeSequencer;
+import com.finovia.backend.service.TradeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/stocks")
 public class StockController {
 
-    @Value("${finnhub.api.key}")
-    private String finnhubApiKey;
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private QuoteService quoteService;
 
     @Autowired
-    private UserRepository userRepository;
+    private MarketDataEngine marketDataEngine;
 
     @Autowired
-    private HoldingRepository holdingRepository;
+    private FinnhubClient finnhubClient;
 
     @Autowired
-    private TransactionRepository transactionRepository;
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private CandleStore candleStore;
+
+    @Value("${trade.batch.max-legs:100}")
+    private int maxBatchLegs;
+
+    @Value("${trade.batch.price-timeout-ms:3000}")
+    private long priceTimeoutMillis;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${trade.persistence.ack-timeout-ms:10000}")
+    private long ackTimeoutMillis;
 
     @GetMapping("/quote/{symbol}")
     public ResponseEntity<?> getStockQuote(@PathVariable String symbol) {
         try {
-            String url = "https://finnhub.io/api/v1/quote?symbol=" + symbol.toUpperCase() + "&token=" + finnhubApiKey;
-            // Fetch the data and map it to our helper class
-            FinnhubQuote responseFromFinnhub = restTemplate.getForObject(url, FinnhubQuote.class);
+            // Served from the in-memory price table; the symbol is watched from now on
+            PriceTick tick = marketDataEngine.getPriceTick(symbol);
 
             // Manually create the response object to send to the frontend
             // This forces the key to be "currentPrice"
             Map<String, Object> responseForFrontend = new HashMap<>();
-            responseForFrontend.put("currentPrice", responseFromFinnhub.getCurrentPrice());
+            responseForFrontend.put("currentPrice", tick != null ? tick.price() : null);
+            // A stale price is the last one received before Finnhub became unavailable; trades are refused on it
+            responseForFrontend.put("asOf", tick != null ? tick.timestamp() : null);
+            responseForFrontend.put("stale", tick != null && marketDataEngine.isStale(tick));
 
             return ResponseEntity.ok(responseForFrontend);
+        } catch (FinnhubUnavailableException e) {
+            return ResponseEntity.status(503).body("Quote is temporarily unavailable: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error fetching stock data: " + e.getMessage());
         }
     }
 
+    @GetMapping("/quote-cache/stats")
+    public ResponseEntity<?> getQuoteCacheStats() {
+        return ResponseEntity.ok(quoteService.getStats());
+    }
+
+    @GetMapping("/upstream/stats")
+    public ResponseEntity<?> getUpstreamStats() {
+        return ResponseEntity.ok(finnhubClient.getStats());
+    }
+
+    // Historical candles from the local candle store; defaults to the last day of 1m candles
+    @GetMapping("/candles/{symbol}")
+    public ResponseEntity<?> getCandles(@PathVariable String symbol,
+                                        @RequestParam(defaultValue = "1m") String resolution,
+                                        @RequestParam(required = false) Long from,
+                                        @RequestParam(required = false) Long to) {
+        try {
+            long end = to != null ? to : System.currentTimeMillis();
+            long start = from != null ? from : end - 86_400_000L;
+            return ResponseEntity.ok(candleStore.range(symbol, Resolution.fromCode(resolution), start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/buy")
     public ResponseEntity<?> buyStock(@RequestBody Map<String, Object> payload) {
-        // 1. Get the currently logged-in user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // 1. Get the currently logged-in user (from the token, no database lookup)
+        long userId = CurrentUser.id();
 
         String symbol = ((String) payload.get("symbol")).toUpperCase();
         int quantityToBuy = (Integer) payload.get("quantity");
 
-        // 2. Fetch the current stock price
-        FinnhubQuote quote = restTemplate.getForObject(
-                "https://finnhub.io/api/v1/quote?symbol=" + symbol + "&token=" + finnhubApiKey,
-                FinnhubQuote.class
-        );
+        // 2. Look up the current stock price
+        BigDecimal currentPrice = marketDataEngine.getPrice(symbol);
 
-        if (quote == null || quote.getCurrentPrice() == null || quote.getCurrentPrice().compareTo(BigDecimal.ZERO) == 0) {
+        if (currentPrice == null) {
             return ResponseEntity.badRequest().body("Could not fetch price for symbol: " + symbol);
         }
-        BigDecimal currentPrice = quote.getCurrentPrice();
-        BigDecimal totalCost = currentPrice.multiply(new BigDecimal(quantityToBuy));
 
-        // 3. Check if the user has enough money
-        if (user.getVirtualBalance().compareTo(totalCost) < 0) {
-            return ResponseEntity.badRequest().body("Insufficient funds.");
+        // 3. Apply the purchase on the account's sequencer lane
+        TradeResult result = tradeSequencer.execute(userId, () -> tradeService.buy(userId, symbol, quantityToBuy, currentPrice));
+        if (!result.success()) {
+            return ResponseEntity.badRequest().body(result.message());
         }
-
-        // 4. Update user's balance
-        user.setVirtualBalance(user.getVirtualBalance().subtract(totalCost));
-
-        // 5. Update user's holdings
-        Optional<Holding> existingHoldingOpt = holdingRepository.findByUserAndStockSymbol(user, symbol);
-        Holding holding;
-        if (existingHoldingOpt.isPresent()) {
-            // User already owns this stock, so update the existing holding
-            holding = existingHoldingOpt.get();
-            BigDecimal oldTotalValue = holding.getAveragePurchasePrice().multiply(new BigDecimal(holding.getQuantity()));
-            int newQuantity = holding.getQuantity() + quantityToBuy;
-            BigDecimal newTotalValue = oldTotalValue.add(totalCost);
-            holding.setAveragePurchasePrice(newTotalValue.divide(new BigDecimal(newQuantity), RoundingMode.HALF_UP).setScale(2, RoundingMode.HALF_UP));
-            holding.setQuantity(newQuantity);
-        } else {
-            // This is a new stock for the user
-            holding = new Holding();
-            holding.setUser(user);
-            holding.setStockSymbol(symbol);
-            holding.setQuantity(quantityToBuy);
-            holding.setAveragePurchasePrice(currentPrice);
+        // In DURABLE mode this waits for the batch holding our trade to commit
+        ResponseEntity<?> unsaved = awaitPersisted(result.persisted());
+        if (unsaved != null) {
+            return unsaved;
         }
 
-        // 6. Create a transaction record
-        Transaction transaction = new Transaction();
-        transaction.setUser(user);
-        transaction.setStockSymbol(symbol);
-        transaction.setTransactionType("BUY");
-        transaction.setQuantity(quantityToBuy);
-        transaction.setPricePerShare(currentPrice);
-        transaction.setTimestamp(LocalDateTime.now());
-
-        // 7. Save everything to the database
-        userRepository.save(user);
-        holdingRepository.save(holding);
-        transactionRepository.save(transaction);
-
-        return ResponseEntity.ok("Purchase successful!");
+        return ResponseEntity.ok(result.message());
     }
 
     // Add this new method inside your StockController class
 
     @PostMapping("/sell")
     public ResponseEntity<?> sellStock(@RequestBody Map<String, Object> payload) {
-        // 1. Get the currently logged-in user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // 1. Get the currently logged-in user (from the token, no database lookup)
+        long userId = CurrentUser.id();
 
         String symbol = ((String) payload.get("symbol")).toUpperCase();
         int quantityToSell = (Integer) payload.get("quantity");
 
-        // 2. Find the user's holding for this stock
-        Holding holding = holdingRepository.findByUserAndStockSymbol(user, symbol)
-                .orElseThrow(() -> new RuntimeException("Holding not found for symbol: " + symbol));
+        // 2. Look up the current stock price
+        BigDecimal currentPrice = marketDataEngine.getPrice(symbol);
+        if (currentPrice == null) {
+            return ResponseEntity.badRequest().body("Could not fetch price for symbol: " + symbol);
+        }
 
-        // 3. Check if they have enough shares to sell
-        if (holding.getQuantity() < quantityToSell) {
-            return ResponseEntity.badRequest().body("Insufficient shares to sell.");
+        // 3. Apply the sale on the account's sequencer lane
+        TradeResult result = tradeSequencer.execute(userId, () -> tradeService.sell(userId, symbol, quantityToSell, currentPrice));
+        if (!result.success()) {
+            return ResponseEntity.badRequest().body(result.message());
+        }
+        // In DURABLE mode this waits for the batch holding our trade to commit
+        ResponseEntity<?> unsaved = awaitPersisted(result.persisted());
+        if (unsaved != null) {
+            return unsaved;
         }
 
-        // 4. Fetch the current stock price
-        FinnhubQuote quote = restTemplate.getForObject(
-                "https://finnhub.io/api/v1/quote?symbol=" + symbol + "&token=" + finnhubApiKey,
-                FinnhubQuote.class
-        );
-        if (quote == null || quote.getCurrentPrice() == null || quote.getCurrentPrice().compareTo(BigDecimal.ZERO) == 0) {
-            return ResponseEntity.badRequest().body("Could not fetch price for symbol: " + symbol);
+        return ResponseEntity.ok(result.message());
+    }
+
+    // Executes a basket of market orders against one batch of prices; see TradeService.executeBatch
+    @PostMapping("/batch")
+    public ResponseEntity<?> batchOrder(@RequestBody BatchOrderRequest request) {
+        List<BatchOrderLeg> legs = request.getLegs();
+        if (legs == null || legs.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one order is required.");
+        }
+        if (legs.size() > maxBatchLegs) {
+            return ResponseEntity.badRequest().body("A batch can hold at most " + maxBatchLegs + " orders.");
         }
-        BigDecimal currentPrice = quote.getCurrentPrice();
-        BigDecimal totalProceeds = currentPrice.multiply(new BigDecimal(quantityToSell));
-
-        // 5. Update user's balance
-        user.setVirtualBalance(user.getVirtualBalance().add(totalProceeds));
-
-        // 6. Update the holding
-        holding.setQuantity(holding.getQuantity() - quantityToSell);
-
-        // 7. Create a transaction record
-        Transaction transaction = new Transaction();
-        transaction.setUser(user);
-        transaction.setStockSymbol(symbol);
-        transaction.setTransactionType("SELL");
-        transaction.setQuantity(quantityToSell);
-        transaction.setPricePerShare(currentPrice);
-        transaction.setTimestamp(LocalDateTime.now());
-
-        // 8. Save changes to the database
-        userRepository.save(user);
-        transactionRepository.save(transaction);
-        if (holding.getQuantity() == 0) {
-            // If user sold all shares, remove the holding record
-            holdingRepository.delete(holding);
-        } else {
-            holdingRepository.save(holding);
+        for (BatchOrderLeg leg : legs) {
+            if (leg.getSymbol() == null || leg.getSymbol().isBlank() || leg.getSide() == null || leg.getQuantity() <= 0) {
+                return ResponseEntity.badRequest().body("Every order needs a symbol, a side and a positive quantity.");
+            }
+            leg.setSymbol(leg.getSymbol().trim().toUpperCase());
+        }
+
+        // One concurrent price lookup for the whole basket
+        Map<String, BigDecimal> prices = marketDataEngine.resolvePrices(
+                legs.stream().map(BatchOrderLeg::getSymbol).toList(), priceTimeoutMillis);
+
+        long userId = CurrentUser.id();
+        BatchOrderResult result = tradeSequencer.execute(userId,
+                () -> tradeService.executeBatch(userId, legs, prices, request.isAtomic()));
+        // In DURABLE mode this waits for the transaction holding all executed legs to commit
+        ResponseEntity<?> unsaved = awaitPersisted(result.persisted());
+        if (unsaved != null) {
+            return unsaved;
         }
 
-        return ResponseEntity.ok("Sale successful!");
+        if (request.isAtomic() && !result.success()) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
     }
 
+    // Served from the recommendation cache; a symbol seen for the first time completes
+    // asynchronously, so no request thread waits on Finnhub
     @GetMapping("/recommendation")
-    public ResponseEntity<?> getRecommendationTrends(@RequestParam String symbol) {
+    public CompletableFuture<ResponseEntity<?>> getRecommendationTrends(@RequestParam String symbol) {
+        return recommendationService.getTrends(symbol)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof FinnhubUnavailableException) {
+                        return ResponseEntity.status(503).body("Recommendation data is temporarily unavailable: " + cause.getMessage());
+                    }
+                    return ResponseEntity.status(500).body("Error fetching recommendation data: " + cause.getMessage());
+                });
+    }
+
+    // Null once the trade is saved, otherwise the 503 to answer with: the commit failed (and the
+    // account was reloaded without the trade) or did not finish within the ack timeout
+    private ResponseEntity<?> awaitPersisted(CompletableFuture<Void> persisted) {
         try {
-            String url = "https://finnhub.io/api/v1/stock/recommendation?symbol=" + symbol.toUpperCase() + "&token=" + finnhubApiKey;
-            
-            // Fetch the data from Finnhub API
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> responseFromFinnhub = restTemplate.getForObject(url, List.class);
-            
-            if (responseFromFinnhub == null) {
-                return ResponseEntity.status(500).body("Error fetching recommendation data");
-            }
-            
-            return ResponseEntity.ok(responseFromFinnhub);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body("Error fetching recommendation data: " + e.getMessage());
+            TradeNotSavedException.await(persisted, ackTimeoutMillis);
+            return null;
+        } catch (TradeNotSavedException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
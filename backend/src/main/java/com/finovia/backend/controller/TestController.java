@@ -60,7 +60,8 @@ public class TestController {
                 new UsernamePasswordAuthenticationToken(loginRequest.get("username"), loginRequest.get("password")));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtil.generateToken(loginRequest.get("username"));
+        User user = (User) authentication.getPrincipal();
+        String jwt = jwtUtil.generateToken(user.getUsername(), user.getId());
 
         return ResponseEntity.ok(Map.of("token", jwt));
     }
@@ -1,19 +1,19 @@
 package com.finovia.backend.controller;
 
-import com.finovia.backend.entity.Transaction;
-import com.finovia.backend.entity.User;
-import com.finovia.backend.repository.TransactionRepository;
-import com.finovia.backend.repository.UserRepository;
+import com.finovia.backend.entity.DailySummary;
+import com.finovia.backend.entity.DailySummaryId;
+import com.finovia.backend.repository.DailySummaryRepository;
+import com.finovia.backend.security.CurrentUser;
+import com.finovia.backend.service.TransactionHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,22 +21,18 @@ import java.util.Map;
 public class TransactionController {
 
     @Autowired
-    private TransactionRepository transactionRepository;
+    private DailySummaryRepository dailySummaryRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private TransactionHistoryService transactionHistoryService;
 
     @GetMapping("/recent")
     public ResponseEntity<?> getRecentTransactions() {
         try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            long userId = CurrentUser.id();
 
-            // Get recent transactions (last 10)
-            List<Transaction> transactions = transactionRepository.findByUserOrderByTimestampDesc(user);
-
-            return ResponseEntity.ok(transactions);
+            // Get recent transactions (last 10), limited in the query itself
+            return ResponseEntity.ok(transactionHistoryService.getRecent(userId, 10));
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error fetching transactions: " + e.getMessage());
         }
@@ -45,39 +41,21 @@ public class TransactionController {
     @GetMapping("/daily-summary")
     public ResponseEntity<?> getDailySummary() {
         try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            LocalDate today = LocalDate.now();
-            LocalDateTime startOfDay = today.atStartOfDay();
-            LocalDateTime endOfDay = today.atTime(23, 59, 59);
-
-            List<Transaction> todayTransactions = transactionRepository.findByUserAndTimestampBetweenOrderByTimestampDesc(
-                    user, startOfDay, endOfDay);
+            long userId = CurrentUser.id();
 
-            // Calculate summary
-            int totalTrades = todayTransactions.size();
-            int totalVolume = todayTransactions.stream().mapToInt(Transaction::getQuantity).sum();
-            BigDecimal totalValue = todayTransactions.stream()
-                    .map(t -> t.getPricePerShare().multiply(new BigDecimal(t.getQuantity())))
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            // Maintained incrementally as trades are flushed, so this is a single primary-key lookup
+            DailySummary today = dailySummaryRepository.findById(new DailySummaryId(userId, LocalDate.now()))
+                    .orElse(null);
 
-            // Calculate P/L (simplified - you might want to enhance this)
-            BigDecimal profitLoss = BigDecimal.ZERO;
-            for (Transaction t : todayTransactions) {
-                if ("SELL".equals(t.getTransactionType())) {
-                    profitLoss = profitLoss.add(t.getPricePerShare().multiply(new BigDecimal(t.getQuantity())));
-                } else {
-                    profitLoss = profitLoss.subtract(t.getPricePerShare().multiply(new BigDecimal(t.getQuantity())));
-                }
-            }
+            BigDecimal buyValue = today == null ? BigDecimal.ZERO : today.getBuyValue();
+            BigDecimal sellValue = today == null ? BigDecimal.ZERO : today.getSellValue();
 
             Map<String, Object> summary = new HashMap<>();
-            summary.put("totalTrades", totalTrades);
-            summary.put("totalVolume", totalVolume);
-            summary.put("totalValue", totalValue);
-            summary.put("profitLoss", profitLoss);
+            summary.put("totalTrades", today == null ? 0 : today.getTotalTrades());
+            summary.put("totalVolume", today == null ? 0 : today.getTotalVolume());
+            summary.put("totalValue", buyValue.add(sellValue));
+            // Realized P/L of today's sells against their cost basis
+            summary.put("profitLoss", today == null ? BigDecimal.ZERO : today.getRealizedPnl());
 
             return ResponseEntity.ok(summary);
         } catch (Exception e) {
@@ -85,17 +63,33 @@ public class TransactionController {
         }
     }
 
-    @GetMapping("/all")
-    public ResponseEntity<?> getAllTransactions() {
+    // Keyset-paginated history: pass the previous page's nextCursor to continue
+    @GetMapping
+    public ResponseEntity<?> getTransactionPage(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "50") int size) {
         try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            List<Transaction> transactions = transactionRepository.findByUserOrderByTimestampDesc(user);
-            return ResponseEntity.ok(transactions);
+            long userId = CurrentUser.id();
+            return ResponseEntity.ok(transactionHistoryService.getPage(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error fetching transactions: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    // Full history as a JSON array, streamed from the database row by row
+    @GetMapping("/all")
+    public ResponseEntity<StreamingResponseBody> getAllTransactions() {
+        long userId = CurrentUser.id();
+        StreamingResponseBody body = out -> transactionHistoryService.exportJsonArray(userId, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Full history as newline-delimited JSON, one transaction per line
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportTransactions() {
+        long userId = CurrentUser.id();
+        StreamingResponseBody body = out -> transactionHistoryService.exportNdjson(userId, out);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+}
@@ -0,0 +1,13 @@
+package com.finovia.backend.dto;
+
+import java.util.List;
+
+// Response of /api/backtest: the history every run saw and one result per combination, in request order
+public record BacktestReport(
+        List<String> symbols,
+        long from,
+        long to,
+        int days,
+        long elapsedMillis,
+        List<BacktestResult> results) {
+}
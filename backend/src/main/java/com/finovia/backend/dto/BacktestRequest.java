@@ -0,0 +1,49 @@
+package com.finovia.backend.dto;
+
+import com.finovia.backend.account.CostBasisMethod;
+import com.finovia.backend.backtest.StrategyType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Payload for /api/backtest. source is "candles" (the local daily candles) or the name of a CSV
+// file in backtest.data-dir; no symbols means every symbol in the source. Each strategy lists the
+// values to try per parameter, and every combination of them is run.
+public class BacktestRequest {
+
+    private String source = "candles";
+    private List<String> symbols;
+    private LocalDate from;
+    private LocalDate to;
+    private BigDecimal initialCash = new BigDecimal("100000");
+    private CostBasisMethod costBasisMethod;
+    private List<StrategyGrid> strategies;
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    public List<String> getSymbols() { return symbols; }
+    public void setSymbols(List<String> symbols) { this.symbols = symbols; }
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public BigDecimal getInitialCash() { return initialCash; }
+    public void setInitialCash(BigDecimal initialCash) { this.initialCash = initialCash; }
+    public CostBasisMethod getCostBasisMethod() { return costBasisMethod; }
+    public void setCostBasisMethod(CostBasisMethod costBasisMethod) { this.costBasisMethod = costBasisMethod; }
+    public List<StrategyGrid> getStrategies() { return strategies; }
+    public void setStrategies(List<StrategyGrid> strategies) { this.strategies = strategies; }
+
+    public static class StrategyGrid {
+
+        private StrategyType type;
+        private Map<String, List<Integer>> params;
+
+        public StrategyType getType() { return type; }
+        public void setType(StrategyType type) { this.type = type; }
+        public Map<String, List<Integer>> getParams() { return params; }
+        public void setParams(Map<String, List<Integer>> params) { this.params = params; }
+    }
+}
@@ -0,0 +1,28 @@
+package com.finovia.backend.dto;
+
+import com.finovia.backend.backtest.StrategyType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+// One strategy/parameter combination. Percentages are in percent; volatility and Sharpe ratio are
+// annualised from daily returns (252 trading days, no risk-free rate). equityCurve is downsampled
+// to at most backtest.curve-points points and always ends on the last day.
+public record BacktestResult(
+        StrategyType strategy,
+        Map<String, Integer> params,
+        BigDecimal finalEquity,
+        BigDecimal totalReturnPct,
+        BigDecimal cagrPct,
+        BigDecimal maxDrawdownPct,
+        BigDecimal volatilityPct,
+        BigDecimal sharpe,
+        int trades,
+        int rejectedOrders,
+        BigDecimal realizedPnl,
+        List<EquityPoint> equityCurve) {
+
+    public record EquityPoint(long time, BigDecimal equity) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.finovia.backend.dto;
+
+import com.finovia.backend.matching.OrderSide;
+
+// One market order in a batch
+public class BatchOrderLeg {
+
+    private String symbol;
+    private OrderSide side;
+    private int quantity;
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    public OrderSide getSide() { return side; }
+    public void setSide(OrderSide side) { this.side = side; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+}
@@ -0,0 +1,16 @@
+package com.finovia.backend.dto;
+
+import java.util.List;
+
+// Payload for /api/stocks/batch. With atomic (the default) either every leg executes or none
+// does; otherwise each leg succeeds or fails on its own and the result reports each one.
+public class BatchOrderRequest {
+
+    private List<BatchOrderLeg> legs;
+    private boolean atomic = true;
+
+    public List<BatchOrderLeg> getLegs() { return legs; }
+    public void setLegs(List<BatchOrderLeg> legs) { this.legs = legs; }
+    public boolean isAtomic() { return atomic; }
+    public void setAtomic(boolean atomic) { this.atomic = atomic; }
+}
@@ -0,0 +1,17 @@
+package com.finovia.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.finovia.backend.matching.OrderSide;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Outcome of a batch, with one entry per leg in request order. persisted completes when all
+// executed legs are committed (see PersistenceMode); they are always written in one transaction.
+public record BatchOrderResult(boolean success, String message, List<LegResult> legs,
+                               @JsonIgnore CompletableFuture<Void> persisted) {
+
+    public record LegResult(String symbol, OrderSide side, int quantity, BigDecimal price, boolean success, String message) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.finovia.backend.dto;
+
+import java.math.BigDecimal;
+
+// One OHLCV bar; time is the bucket start in epoch millis
+public record Candle(
+        long time,
+        BigDecimal open,
+        BigDecimal high,
+        BigDecimal low,
+        BigDecimal close,
+        long volume) {
+}
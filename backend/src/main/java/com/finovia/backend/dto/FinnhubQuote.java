@@ -1,5 +1,6 @@
 package com.finovia.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
 
@@ -9,6 +10,14 @@ public class FinnhubQuote {
     @JsonProperty("c")
     private BigDecimal currentPrice;
 
+    // When the price was received from Finnhub (epoch millis), and whether it is a last-known
+    // price served while Finnhub is unavailable rather than a fresh response
+    @JsonIgnore
+    private long asOf;
+
+    @JsonIgnore
+    private boolean stale;
+
     // Getters and Setters
     public BigDecimal getCurrentPrice() {
         return currentPrice;
@@ -17,4 +26,20 @@ public class FinnhubQuote {
     public void setCurrentPrice(BigDecimal currentPrice) {
         this.currentPrice = currentPrice;
     }
-}
\ No newline at end of file
+
+    public long getAsOf() {
+        return asOf;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public FinnhubQuote withAsOf(long asOf, boolean stale) {
+        FinnhubQuote copy = new FinnhubQuote();
+        copy.currentPrice = currentPrice;
+        copy.asOf = asOf;
+        copy.stale = stale;
+        return copy;
+    }
+}
@@ -0,0 +1,17 @@
+package com.finovia.backend.dto;
+
+import java.math.BigDecimal;
+
+// One holding marked to market. price, marketValue, weight and unrealizedPnl are null when no
+// quote arrived before the deadline; stale is set when an older in-memory price was used instead.
+public record HoldingValuation(
+        String stockSymbol,
+        int quantity,
+        BigDecimal averagePurchasePrice,
+        BigDecimal costBasis,
+        BigDecimal price,
+        boolean stale,
+        BigDecimal marketValue,
+        BigDecimal weight,
+        BigDecimal unrealizedPnl) {
+}
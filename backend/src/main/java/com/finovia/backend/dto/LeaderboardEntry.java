@@ -0,0 +1,12 @@
+package com.finovia.backend.dto;
+
+import java.math.BigDecimal;
+
+// One row of the leaderboard; returnPct is equity against the starting capital, in percent
+public record LeaderboardEntry(
+        int rank,
+        long userId,
+        String username,
+        BigDecimal equity,
+        BigDecimal returnPct) {
+}
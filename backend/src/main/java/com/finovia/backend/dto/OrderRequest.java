@@ -0,0 +1,28 @@
+package com.finovia.backend.dto;
+
+import com.finovia.backend.matching.OrderSide;
+import com.finovia.backend.matching.OrderType;
+
+import java.math.BigDecimal;
+
+// Payload for placing or replacing an order. price is the limit price for LIMIT orders,
+// the trigger price for STOP orders, and ignored for MARKET orders.
+public class OrderRequest {
+
+    private String symbol;
+    private OrderSide side;
+    private OrderType type = OrderType.MARKET;
+    private int quantity;
+    private BigDecimal price;
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    public OrderSide getSide() { return side; }
+    public void setSide(OrderSide side) { this.side = side; }
+    public OrderType getType() { return type; }
+    public void setType(OrderType type) { this.type = type; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+}
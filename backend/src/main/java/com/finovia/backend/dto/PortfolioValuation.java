@@ -0,0 +1,18 @@
+package com.finovia.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Whole-portfolio valuation. Totals only cover holdings that have a price; partial is true and
+// unpricedSymbols lists the rest when some quotes did not resolve before the deadline.
+public record PortfolioValuation(
+        BigDecimal virtualBalance,
+        List<HoldingValuation> holdings,
+        BigDecimal totalMarketValue,
+        BigDecimal totalCostBasis,
+        BigDecimal unrealizedPnl,
+        BigDecimal realizedPnl,
+        BigDecimal totalEquity,
+        boolean partial,
+        List<String> unpricedSymbols) {
+}
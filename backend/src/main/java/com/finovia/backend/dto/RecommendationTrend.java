@@ -0,0 +1,15 @@
+package com.finovia.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+// One month of analyst recommendations from Finnhub's /stock/recommendation endpoint
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RecommendationTrend(
+        String symbol,
+        String period,
+        int strongBuy,
+        int buy,
+        int hold,
+        int sell,
+        int strongSell) {
+}
@@ -0,0 +1,16 @@
+package com.finovia.backend.dto;
+
+import java.util.concurrent.CompletableFuture;
+
+// Outcome of a single trade. On rejection, message holds the reason shown to the user.
+// persisted completes when the trade is safe to acknowledge (see PersistenceMode).
+public record TradeResult(boolean success, String message, CompletableFuture<Void> persisted) {
+
+    public static TradeResult filled(String message, CompletableFuture<Void> persisted) {
+        return new TradeResult(true, message, persisted);
+    }
+
+    public static TradeResult rejected(String message) {
+        return new TradeResult(false, message, CompletableFuture.completedFuture(null));
+    }
+}
@@ -0,0 +1,7 @@
+package com.finovia.backend.dto;
+
+import java.util.List;
+
+// One keyset page of history. nextCursor is null on the last page.
+public record TransactionPage(List<TransactionView> items, String nextCursor) {
+}
@@ -0,0 +1,16 @@
+package com.finovia.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// What the API returns for a transaction. Queries project straight into this so the
+// owning User (and its password hash) is never loaded or serialized.
+public record TransactionView(
+        Long id,
+        String stockSymbol,
+        String transactionType,
+        int quantity,
+        BigDecimal pricePerShare,
+        LocalDateTime timestamp,
+        BigDecimal realizedPnl) {
+}
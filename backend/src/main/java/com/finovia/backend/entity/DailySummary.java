@@ -0,0 +1,91 @@
+package com.finovia.backend.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Rollup of one user's trades on one day. Written only with SQL (incremental upserts from the
+// write-behind flush and the backfill job); the entity is for reads.
+@Entity
+@Table(name = "daily_summaries")
+@IdClass(DailySummaryId.class)
+public class DailySummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    private LocalDate tradeDate;
+
+    private int totalTrades;
+
+    private long totalVolume;
+
+    @Column(precision = 19, scale = 6)
+    private BigDecimal buyValue;
+
+    @Column(precision = 19, scale = 6)
+    private BigDecimal sellValue;
+
+    @Column(precision = 19, scale = 6)
+    private BigDecimal realizedPnl;
+
+    // --- Getters and Setters ---
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    public void setTradeDate(LocalDate tradeDate) {
+        this.tradeDate = tradeDate;
+    }
+
+    public int getTotalTrades() {
+        return totalTrades;
+    }
+
+    public void setTotalTrades(int totalTrades) {
+        this.totalTrades = totalTrades;
+    }
+
+    public long getTotalVolume() {
+        return totalVolume;
+    }
+
+    public void setTotalVolume(long totalVolume) {
+        this.totalVolume = totalVolume;
+    }
+
+    public BigDecimal getBuyValue() {
+        return buyValue;
+    }
+
+    public void setBuyValue(BigDecimal buyValue) {
+        this.buyValue = buyValue;
+    }
+
+    public BigDecimal getSellValue() {
+        return sellValue;
+    }
+
+    public void setSellValue(BigDecimal sellValue) {
+        this.sellValue = sellValue;
+    }
+
+    public BigDecimal getRealizedPnl() {
+        return realizedPnl;
+    }
+
+    public void setRealizedPnl(BigDecimal realizedPnl) {
+        this.realizedPnl = realizedPnl;
+    }
+}
@@ -0,0 +1,31 @@
+package com.finovia.backend.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class DailySummaryId implements Serializable {
+
+    private Long userId;
+    private LocalDate tradeDate;
+
+    public DailySummaryId() {
+    }
+
+    public DailySummaryId(Long userId, LocalDate tradeDate) {
+        this.userId = userId;
+        this.tradeDate = tradeDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailySummaryId other)) return false;
+        return Objects.equals(userId, other.userId) && Objects.equals(tradeDate, other.tradeDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, tradeDate);
+    }
+}
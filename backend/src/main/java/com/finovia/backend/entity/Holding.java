@@ -4,7 +4,7 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "holdings")
+@Table(name = "holdings", uniqueConstraints = @UniqueConstraint(name = "ux_holdings_user_symbol", columnNames = {"user_id", "stock_symbol"}))
 public class Holding {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,8 +19,13 @@ public class Holding {
 
     private int quantity;
 
+    @Column(precision = 19, scale = 6)
     private BigDecimal averagePurchasePrice;
 
+    // Exact total cost of the shares still held; averagePurchasePrice is derived from it
+    @Column(precision = 19, scale = 6, nullable = false)
+    private BigDecimal costBasis;
+
     // --- Getters and Setters ---
 
     public Long getId() {
@@ -62,4 +67,12 @@ public class Holding {
     public void setAveragePurchasePrice(BigDecimal averagePurchasePrice) {
         this.averagePurchasePrice = averagePurchasePrice;
     }
-}
\ No newline at end of file
+
+    public BigDecimal getCostBasis() {
+        return costBasis;
+    }
+
+    public void setCostBasis(BigDecimal costBasis) {
+        this.costBasis = costBasis;
+    }
+}
@@ -0,0 +1,91 @@
+package com.finovia.backend.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One open tax lot: shares bought together at one price. Written by the write-behind flush,
+// read when an account is loaded into memory.
+@Entity
+@Table(name = "holding_lots", uniqueConstraints = @UniqueConstraint(name = "ux_holding_lots_user_symbol_seq", columnNames = {"user_id", "stock_symbol", "lot_seq"}))
+public class HoldingLot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String stockSymbol;
+
+    // Position within the holding's FIFO queue; increases with every buy
+    @Column(nullable = false)
+    private long lotSeq;
+
+    private int quantity;
+
+    @Column(precision = 19, scale = 6, nullable = false)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private LocalDateTime openedAt;
+
+    // --- Getters and Setters ---
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    public void setStockSymbol(String stockSymbol) {
+        this.stockSymbol = stockSymbol;
+    }
+
+    public long getLotSeq() {
+        return lotSeq;
+    }
+
+    public void setLotSeq(long lotSeq) {
+        this.lotSeq = lotSeq;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public LocalDateTime getOpenedAt() {
+        return openedAt;
+    }
+
+    public void setOpenedAt(LocalDateTime openedAt) {
+        this.openedAt = openedAt;
+    }
+}
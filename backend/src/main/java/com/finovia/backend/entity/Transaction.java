@@ -5,10 +5,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = @Index(name = "ix_transactions_user_ts_id", columnList = "user_id, timestamp DESC, id DESC"))
 public class Transaction {
+    // Sequence ids (allocated in blocks of 50) let Hibernate and TradeWriteBehind batch inserts;
+    // IDENTITY would force one round-trip per row to read the generated key
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -23,10 +26,16 @@ public class Transaction {
 
     private int quantity;
 
+    @Column(precision = 19, scale = 6)
     private BigDecimal pricePerShare;
 
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 
+    // Set on sells only: proceeds minus the cost basis of the shares sold
+    @Column(precision = 19, scale = 6)
+    private BigDecimal realizedPnl;
+
     // --- Getters and Setters ---
 
     public Long getId() {
@@ -84,4 +93,12 @@ public class Transaction {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
-}
\ No newline at end of file
+
+    public BigDecimal getRealizedPnl() {
+        return realizedPnl;
+    }
+
+    public void setRealizedPnl(BigDecimal realizedPnl) {
+        this.realizedPnl = realizedPnl;
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Collections;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 public class User implements UserDetails { // <-- IMPLEMENTS USERDETAILS
 
     @Id
@@ -25,8 +26,12 @@ public class User implements UserDetails { // <-- IMPLEMENTS USERDETAILS
     @Column(nullable = false)
     private String password;
 
+    @Column(precision = 19, scale = 6)
     private BigDecimal virtualBalance;
 
+    @Column(precision = 19, scale = 6, nullable = false)
+    private BigDecimal realizedPnl = BigDecimal.ZERO;
+
     // Getters and Setters ...
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -38,6 +43,8 @@ public class User implements UserDetails { // <-- IMPLEMENTS USERDETAILS
     public void setPassword(String password) { this.password = password; }
     public BigDecimal getVirtualBalance() { return virtualBalance; }
     public void setVirtualBalance(BigDecimal virtualBalance) { this.virtualBalance = virtualBalance; }
+    public BigDecimal getRealizedPnl() { return realizedPnl; }
+    public void setRealizedPnl(BigDecimal realizedPnl) { this.realizedPnl = realizedPnl; }
 
 
     // ---- METHODS REQUIRED BY USERDETAILS ----
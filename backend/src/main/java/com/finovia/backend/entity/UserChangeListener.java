@@ -0,0 +1,22 @@
+package com.finovia.backend.entity;
+
+import com.finovia.backend.security.PrincipalCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Drops cached principals when a user row is changed or removed through JPA.
+// Instantiated by Hibernate through Spring's bean container, so field injection works here.
+public class UserChangeListener {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        if (user.getId() != null) {
+            principalCache.invalidate(user.getId());
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.finovia.backend.filter;
 
+import com.finovia.backend.entity.User;
+import com.finovia.backend.security.AuthenticatedUser;
+import com.finovia.backend.security.PrincipalCache;
 import com.finovia.backend.service.UserDetailsServiceImpl;
 import com.finovia.backend.util.JwtUtil;
 import jakarta.servlet.FilterChain;
@@ -9,47 +12,74 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/api/stream";
+
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
-        final String authorizationHeader = request.getHeader("Authorization");
+        final String jwt = extractToken(request);
 
-        String username = null;
-        String jwt = null;
+        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser principal = resolve(jwt);
+            if (principal != null) {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        principal, null, List.of());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+        }
+        chain.doFilter(request, response);
+    }
 
+    // Bearer header everywhere; the push stream also takes ?token= because EventSource cannot set headers
+    private String extractToken(HttpServletRequest request) {
+        String authorizationHeader = request.getHeader("Authorization");
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
+            return authorizationHeader.substring(7);
         }
+        if ("GET".equals(request.getMethod()) && STREAM_PATH.equals(request.getServletPath())) {
+            return request.getParameter("token");
+        }
+        return null;
+    }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-            }
+    // Signature and expiry are checked once per distinct token (JwtUtil caches verified tokens);
+    // the principal then comes from the cache by uid. Tokens issued before the uid claim fall
+    // back to a lookup by username.
+    private AuthenticatedUser resolve(String jwt) {
+        JwtUtil.VerifiedToken token = jwtUtil.verify(jwt);
+        if (token == null) {
+            return null;
+        }
+        if (token.userId() != null) {
+            return principalCache.get(token.userId(), token.username());
+        }
+        try {
+            User user = (User) userDetailsService.loadUserByUsername(token.username());
+            return new AuthenticatedUser(user.getId(), user.getUsername());
+        } catch (UsernameNotFoundException e) {
+            return null;
         }
-        chain.doFilter(request, response);
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.finovia.backend.finnhub;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Consecutive-failure circuit breaker. After failureThreshold failures in a row it opens and
+// rejects calls for openMillis, then lets a single probe through (half-open); the probe's
+// outcome closes it again or re-opens it for another period.
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    private final AtomicLong openedCount = new AtomicLong();
+    private final AtomicLong halfOpenedCount = new AtomicLong();
+    private final AtomicLong closedCount = new AtomicLong();
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            halfOpenedCount.incrementAndGet();
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            closedCount.incrementAndGet();
+        }
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            openedCount.incrementAndGet();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getOpenedCount() {
+        return openedCount.get();
+    }
+
+    public long getHalfOpenedCount() {
+        return halfOpenedCount.get();
+    }
+
+    public long getClosedCount() {
+        return closedCount.get();
+    }
+}
@@ -0,0 +1,340 @@
+package com.finovia.backend.finnhub;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finovia.backend.dto.FinnhubQuote;
+import com.finovia.backend.dto.RecommendationTrend;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The only way the backend talks to Finnhub.
+// One shared HTTP/2 client (a single multiplexed connection per host, reused across calls) with
+// connect and request timeouts, a bulkhead capping concurrent upstream calls, retries with full
+// jitter for timeouts, 429 and 5xx, and a circuit breaker. While the breaker is open, or the
+// bulkhead is full, the last good response for the same request is served instead.
+@Component
+public class FinnhubClient {
+
+    private static final Logger log = LoggerFactory.getLogger(FinnhubClient.class);
+
+    @Value("${finnhub.api.key}")
+    private String apiKey;
+
+    @Value("${finnhub.base-url:https://finnhub.io/api/v1}")
+    private String baseUrl;
+
+    @Value("${finnhub.connect-timeout-ms:2000}")
+    private long connectTimeoutMillis;
+
+    @Value("${finnhub.request-timeout-ms:3000}")
+    private long requestTimeoutMillis;
+
+    @Value("${finnhub.bulkhead.max-concurrent:32}")
+    private int maxConcurrent;
+
+    // 0 rejects as soon as the bulkhead is full; worth raising only where callers are virtual threads
+    @Value("${finnhub.bulkhead.max-wait-ms:0}")
+    private long bulkheadMaxWaitMillis;
+
+    @Value("${finnhub.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${finnhub.retry.base-delay-ms:100}")
+    private long retryBaseDelayMillis;
+
+    @Value("${finnhub.retry.max-delay-ms:1000}")
+    private long retryMaxDelayMillis;
+
+    @Value("${finnhub.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${finnhub.breaker.open-ms:30000}")
+    private long openMillis;
+
+    @Value("${finnhub.stale-cache.max-entries:5000}")
+    private int maxStaleEntries;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+    private HttpClient httpClient;
+    private Semaphore bulkhead;
+    private CircuitBreaker breaker;
+
+    // Last successful response per request path, served while Finnhub is unavailable
+    private final Map<String, LastGood> lastGood = new ConcurrentHashMap<>();
+
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong bulkheadRejected = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(executor)
+                .build();
+        bulkhead = new Semaphore(maxConcurrent);
+        breaker = new CircuitBreaker(failureThreshold, openMillis);
+        registerMetrics();
+    }
+
+    // finnhub.requests (timer) is tagged per endpoint and outcome; finnhub.errors counts failed
+    // attempts by kind, including those that were retried
+    private void registerMetrics() {
+        Gauge.builder("finnhub.breaker.state", breaker, b -> b.getState().ordinal())
+                .description("0 = closed, 1 = open, 2 = half-open")
+                .register(meterRegistry);
+        Gauge.builder("finnhub.bulkhead.available", bulkhead, Semaphore::availablePermits).register(meterRegistry);
+        FunctionCounter.builder("finnhub.breaker.transitions", breaker, CircuitBreaker::getOpenedCount).tag("to", "open").register(meterRegistry);
+        FunctionCounter.builder("finnhub.breaker.transitions", breaker, CircuitBreaker::getHalfOpenedCount).tag("to", "half_open").register(meterRegistry);
+        FunctionCounter.builder("finnhub.breaker.transitions", breaker, CircuitBreaker::getClosedCount).tag("to", "closed").register(meterRegistry);
+        FunctionCounter.builder("finnhub.retries", retries, AtomicLong::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // A quote served from the stale cache comes back flagged, carrying the time it was received
+    public CompletableFuture<FinnhubQuote> getQuoteAsync(String symbol) {
+        return this.<FinnhubQuote>get("quote", "/quote?symbol=" + encode(symbol), objectMapper.constructType(FinnhubQuote.class))
+                .thenApply(quote -> quote == null || quote.isStale() ? quote : quote.withAsOf(System.currentTimeMillis(), false));
+    }
+
+    public FinnhubQuote getQuote(String symbol) {
+        return await(getQuoteAsync(symbol));
+    }
+
+    public CompletableFuture<List<RecommendationTrend>> getRecommendationsAsync(String symbol) {
+        JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, RecommendationTrend.class);
+        return get("recommendation", "/stock/recommendation?symbol=" + encode(symbol), type);
+    }
+
+    public List<RecommendationTrend> getRecommendations(String symbol) {
+        return await(getRecommendationsAsync(symbol));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", breaker.getState().name());
+        stats.put("successes", successes.get());
+        stats.put("failures", failures.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("retries", retries.get());
+        stats.put("bulkheadRejected", bulkheadRejected.get());
+        stats.put("bulkheadAvailable", bulkhead.availablePermits());
+        stats.put("shortCircuited", shortCircuited.get());
+        stats.put("staleServed", staleServed.get());
+        stats.put("breakerOpened", breaker.getOpenedCount());
+        stats.put("breakerHalfOpened", breaker.getHalfOpenedCount());
+        stats.put("breakerClosed", breaker.getClosedCount());
+        return stats;
+    }
+
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    private boolean acquirePermit() {
+        if (bulkheadMaxWaitMillis <= 0) {
+            return bulkhead.tryAcquire();
+        }
+        try {
+            return bulkhead.tryAcquire(bulkheadMaxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> CompletableFuture<T> get(String endpoint, String path, JavaType type) {
+        long startedAt = System.nanoTime();
+        // Bulkhead first: a rejected call must not consume the breaker's half-open probe
+        if (!acquirePermit()) {
+            bulkheadRejected.incrementAndGet();
+            return record(endpoint, "bulkhead_rejected", startedAt, staleOr(path, "Finnhub bulkhead full"));
+        }
+        if (!breaker.allowRequest()) {
+            bulkhead.release();
+            shortCircuited.incrementAndGet();
+            return record(endpoint, "short_circuited", startedAt, staleOr(path, "Finnhub circuit open"));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMillis(requestTimeoutMillis))
+                .header("X-Finnhub-Token", apiKey)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(request, type, 1, result);
+        return result.handle((value, error) -> {
+            bulkhead.release();
+            if (error == null) {
+                if (value != null && (lastGood.size() < maxStaleEntries || lastGood.containsKey(path))) {
+                    lastGood.put(path, new LastGood(value, System.currentTimeMillis()));
+                }
+                timer(endpoint, "success").record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                return CompletableFuture.completedFuture(value);
+            }
+            return record(endpoint, "error", startedAt, this.<T>staleOr(path, "Finnhub request failed", unwrap(error)));
+        }).thenCompose(future -> future);
+    }
+
+    // Times a call that ended without a fresh response; served-stale is its own outcome
+    private <T> CompletableFuture<T> record(String endpoint, String outcome, long startedAt, CompletableFuture<T> future) {
+        String tag = future.isDone() && !future.isCompletedExceptionally() ? "stale" : outcome;
+        timer(endpoint, tag).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+    private Timer timer(String endpoint, String outcome) {
+        return Timer.builder("finnhub.requests").tag("endpoint", endpoint).tag("outcome", outcome).register(meterRegistry);
+    }
+
+    private void countError(String kind) {
+        Counter.builder("finnhub.errors").tag("kind", kind).register(meterRegistry).increment();
+    }
+
+    private <T> void attempt(HttpRequest request, JavaType type, int attempt, CompletableFuture<T> result) {
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+            Throwable failure = error != null ? unwrap(error) : null;
+            boolean retryable;
+            if (failure == null) {
+                int status = response.statusCode();
+                if (status == 200) {
+                    try {
+                        T value = objectMapper.readValue(response.body(), type);
+                        breaker.onSuccess();
+                        successes.incrementAndGet();
+                        result.complete(value);
+                    } catch (IOException e) {
+                        breaker.onFailure();
+                        failures.incrementAndGet();
+                        countError("parse");
+                        result.completeExceptionally(e);
+                    }
+                    return;
+                }
+                retryable = status == 429 || status >= 500;
+                countError(status == 429 ? "rate_limited" : status >= 500 ? "server" : "client");
+                failure = new FinnhubUnavailableException("Finnhub returned HTTP " + status + " for " + request.uri().getPath());
+                if (!retryable) {
+                    // Other 4xx: Finnhub itself is healthy, the request is wrong
+                    breaker.onSuccess();
+                    failures.incrementAndGet();
+                    result.completeExceptionally(failure);
+                    return;
+                }
+            } else {
+                retryable = failure instanceof IOException;
+                if (failure instanceof HttpTimeoutException) {
+                    timeouts.incrementAndGet();
+                    countError("timeout");
+                } else {
+                    countError("io");
+                }
+            }
+
+            breaker.onFailure();
+            failures.incrementAndGet();
+            // Stop retrying as soon as the breaker has opened; staleOr takes over from here
+            if (retryable && attempt < maxAttempts && breaker.getState() == CircuitBreaker.State.CLOSED) {
+                retries.incrementAndGet();
+                long cap = Math.min(retryMaxDelayMillis, retryBaseDelayMillis << (attempt - 1));
+                long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor)
+                        .execute(() -> attempt(request, type, attempt + 1, result));
+            } else {
+                result.completeExceptionally(failure);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> staleOr(String path, String reason) {
+        return staleOr(path, reason, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> staleOr(String path, String reason, Throwable cause) {
+        LastGood stale = lastGood.get(path);
+        if (stale != null) {
+            staleServed.incrementAndGet();
+            Object value = stale.value() instanceof FinnhubQuote quote ? quote.withAsOf(stale.receivedAt(), true) : stale.value();
+            return CompletableFuture.completedFuture((T) value);
+        }
+        if (cause != null) {
+            log.debug("{} for {}: {}", reason, path, cause.getMessage());
+        }
+        return CompletableFuture.failedFuture(cause instanceof FinnhubUnavailableException unavailable
+                ? unavailable
+                : new FinnhubUnavailableException(reason + " for " + path, cause));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new FinnhubUnavailableException("Finnhub request failed", e.getCause());
+        }
+    }
+
+    private record LastGood(Object value, long receivedAt) {
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value.toUpperCase(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,14 @@
+package com.finovia.backend.finnhub;
+
+// Finnhub could not answer (circuit open, bulkhead full, timeouts or errors after retries)
+// and there was no earlier response to fall back to.
+public class FinnhubUnavailableException extends RuntimeException {
+
+    public FinnhubUnavailableException(String message) {
+        super(message);
+    }
+
+    public FinnhubUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
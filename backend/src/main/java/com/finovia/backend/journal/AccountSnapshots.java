@@ -0,0 +1,251 @@
+package com.finovia.backend.journal;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.persistence.TradeWriteBehind;
+import com.finovia.backend.service.TradeSequencer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+// Periodic point-in-time copies of every in-memory account, so recovery replays only the journal
+// tail. Each account is captured on its own sequencer lane, between trades, and stamped with the
+// journal seq it reflects; replay skips that account's records up to its stamp. A snapshot is
+// written only once the write-behind pipeline has processed every effect it contains, which lets
+// recovery treat the database as caught up to it. Files are checksummed, written to a temp file
+// and moved into place; the newest journal.snapshot.retain are kept, and journal segments older
+// than the oldest kept snapshot are deleted.
+@Service
+public class AccountSnapshots {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSnapshots.class);
+
+    private static final int MAGIC = 0x464E5331; // "FNS1"
+    private static final int VERSION = 1;
+    private static final int CAPTURE_CHUNK = 1000;
+    private static final String SUFFIX = ".snapshot";
+
+    @Autowired
+    private Journal journal;
+
+    @Autowired
+    private AccountStore accountStore;
+
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private TradeWriteBehind tradeWriteBehind;
+
+    @Value("${journal.snapshot.retain:2}")
+    private int retain;
+
+    @Value("${journal.snapshot.max-wait-ms:30000}")
+    private long maxWaitMillis;
+
+    // Accounts as of a snapshot; replay continues after fromSeq, per account after its stamp
+    public record Snapshot(long fromSeq, Map<Long, AccountState> accounts, Map<Long, Long> stamps) {
+    }
+
+    private record Captured(long stamp, byte[] bytes) {
+    }
+
+    @Scheduled(fixedDelayString = "${journal.snapshot.interval-ms:300000}",
+            initialDelayString = "${journal.snapshot.interval-ms:300000}")
+    public void take() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        List<Long> ids = new ArrayList<>();
+        long fromSeq = journal.mark(() -> ids.addAll(accountStore.ids()));
+
+        List<Captured> captured = new ArrayList<>(ids.size());
+        try {
+            for (int i = 0; i < ids.size(); i += CAPTURE_CHUNK) {
+                List<CompletableFuture<Captured>> pending = new ArrayList<>(CAPTURE_CHUNK);
+                for (long userId : ids.subList(i, Math.min(i + CAPTURE_CHUNK, ids.size()))) {
+                    pending.add(tradeSequencer.submit(userId, () -> capture(userId)));
+                }
+                for (CompletableFuture<Captured> future : pending) {
+                    Captured account = future.join();
+                    if (account != null) {
+                        captured.add(account);
+                    }
+                }
+            }
+            if (!awaitWriteBehind(journal.lastEffectSeq())) {
+                log.warn("Skipping snapshot: write-behind did not catch up within {} ms", maxWaitMillis);
+                return;
+            }
+            Path file = write(fromSeq, captured);
+            log.info("Wrote snapshot {} of {} accounts in {} ms", file.getFileName(), captured.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        } catch (RuntimeException e) {
+            log.warn("Snapshot failed: {}", e.getMessage());
+            return;
+        }
+        prune();
+    }
+
+    // Newest readable snapshot, or null if there is none
+    public Snapshot loadLatest() {
+        List<Path> files = list();
+        for (int i = files.size() - 1; i >= 0; i--) {
+            try {
+                return read(files.get(i));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring unreadable snapshot {}: {}", files.get(i).getFileName(), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Runs on the account's lane, so no fill is half applied
+    private Captured capture(long userId) {
+        long stamp = journal.lastSeq();
+        AccountState account = accountStore.peek(userId);
+        if (account == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        while (true) {
+            try {
+                JournalCodec.encodeAccount(account, buffer);
+                byte[] bytes = new byte[buffer.flip().remaining()];
+                buffer.get(bytes);
+                return new Captured(stamp, bytes);
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    private boolean awaitWriteBehind(long seq) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (tradeWriteBehind.getProcessedSeq() < seq) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Layout: int magic | int version | long fromSeq | int count | count x (long stamp | int length | account)
+    // | long crc32c of everything before it
+    private Path write(long fromSeq, List<Captured> captured) {
+        Path file = journal.getDir().resolve(String.format("%020d%s", fromSeq, SUFFIX));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fromSeq);
+            out.writeInt(captured.size());
+            for (Captured account : captured) {
+                out.writeLong(account.stamp());
+                out.writeInt(account.bytes().length);
+                out.write(account.bytes());
+            }
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write snapshot " + temp, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not move snapshot into place " + file, e);
+        }
+        return file;
+    }
+
+    private Snapshot read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int end = buffer.capacity() - Long.BYTES;
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(0, end));
+            if (end < 20 || buffer.getLong(end) != crc.getValue() || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("checksum or header mismatch");
+            }
+            buffer.position(8);
+            long fromSeq = buffer.getLong();
+            int count = buffer.getInt();
+            JournalCodec codec = new JournalCodec();
+            Map<Long, AccountState> accounts = new HashMap<>(count * 2);
+            Map<Long, Long> stamps = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                long stamp = buffer.getLong();
+                int length = buffer.getInt();
+                AccountState account = codec.decodeAccount(buffer.slice(buffer.position(), length));
+                buffer.position(buffer.position() + length);
+                accounts.put(account.getUserId(), account);
+                stamps.put(account.getUserId(), stamp);
+            }
+            return new Snapshot(fromSeq, accounts, stamps);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read snapshot " + file, e);
+        }
+    }
+
+    private void prune() {
+        List<Path> files = list();
+        for (Path file : files.subList(0, Math.max(0, files.size() - retain))) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        List<Path> kept = files.subList(Math.max(0, files.size() - retain), files.size());
+        if (!kept.isEmpty()) {
+            // Replay from the oldest kept snapshot, and resubmission of uncommitted effects, both
+            // need everything after these seqs
+            long oldest = Long.parseLong(kept.get(0).getFileName().toString().replace(SUFFIX, ""));
+            journal.deleteThrough(Math.min(oldest, tradeWriteBehind.getProcessedSeq()));
+        }
+    }
+
+    private List<Path> list() {
+        try (Stream<Path> listing = Files.list(journal.getDir())) {
+            return listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list snapshots in " + journal.getDir(), e);
+        }
+    }
+}
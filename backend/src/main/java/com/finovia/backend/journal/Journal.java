@@ -0,0 +1,408 @@
+package com.finovia.backend.journal;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.persistence.TradeEffect;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Append-only, checksummed log of every change to in-memory account state, written sequentially
+// into memory-mapped segments of journal.segment-size-mb that roll over when full. Every record
+// gets the next seq under one lock; the write-behind queue is fed under the same lock, so the
+// database commits effects in seq order and one checkpoint seq says how far it has got.
+// Appends land in the page cache; a background thread forces them to disk every
+// journal.force-interval-ms. JournalRecovery opens the journal at startup and replays it on top of
+// the latest snapshot.
+@Service
+public class Journal {
+
+    private static final Logger log = LoggerFactory.getLogger(Journal.class);
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(long seq, JournalRecord record);
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${journal.dir:data/journal}")
+    private String dir;
+
+    @Value("${journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${journal.force-interval-ms:100}")
+    private long forceIntervalMillis;
+
+    // Everything below is guarded by lock, except lastSeq which is also read without it
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeMap<Long, Path> sealed = new TreeMap<>();
+    private JournalSegment active;
+    private long nextSeq;
+    private volatile long lastSeq;
+    private volatile long lastEffectSeq;
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private JournalSegment forcedSegment;
+    private int forcedPosition;
+    private volatile boolean open;
+    // Last valid seq found on disk, and the seq open() was told the database (or a snapshot) covers
+    private long recoveredSeq;
+    private long floorSeq;
+
+    private Path root;
+    private ScheduledExecutorService forcer;
+    private Counter records;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    Path getDir() {
+        return root;
+    }
+
+    @PostConstruct
+    public void init() {
+        root = Path.of(dir);
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal directory " + dir, e);
+        }
+    }
+
+    // Opens the segments on disk for appending. Seqs continue after the last valid record, and
+    // after floorSeq if that is higher: the database may have committed seqs whose records were
+    // lost with unforced pages, and a snapshot may already cover them.
+    public void open(long floorSeq) {
+        if (!enabled || open) {
+            return;
+        }
+        List<Path> files;
+        try {
+            try (Stream<Path> listing = Files.list(root)) {
+                files = listing.filter(path -> path.getFileName().toString().endsWith(".journal")).sorted().toList();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open journal directory " + dir, e);
+        }
+        lock.lock();
+        try {
+            for (Path file : files) {
+                sealed.put(JournalSegment.firstSeqOf(file), file);
+            }
+            Map.Entry<Long, Path> newest = sealed.pollLastEntry();
+            if (newest != null) {
+                active = JournalSegment.reopen(newest.getValue());
+            }
+            recoveredSeq = active != null ? active.lastSeq() : 0;
+            this.floorSeq = floorSeq;
+            long last = active != null ? active.lastSeq() : floorSeq;
+            nextSeq = Math.max(last, floorSeq) + 1;
+            lastSeq = nextSeq - 1;
+            if (active != null && active.lastSeq() != lastSeq) {
+                // The journal is behind the database: continue in a fresh segment after the gap
+                if (active.lastSeq() < active.firstSeq()) {
+                    deleteQuietly(active.file());
+                    active = null;
+                }
+                roll();
+            } else if (active == null) {
+                roll();
+            }
+            forcedSegment = active;
+            forcedPosition = active.position();
+        } finally {
+            lock.unlock();
+        }
+
+        records = Counter.builder("journal.records").register(meterRegistry);
+        Gauge.builder("journal.segments", this, journal -> journal.segmentCount()).register(meterRegistry);
+        forcer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-force");
+            thread.setDaemon(true);
+            return thread;
+        });
+        forcer.scheduleWithFixedDelay(this::forceAppended, forceIntervalMillis, forceIntervalMillis, TimeUnit.MILLISECONDS);
+        open = true;
+        log.info("Journal opened in {} with {} segments, next seq {}", root, segmentCount(), nextSeq);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!open) {
+            return;
+        }
+        forcer.shutdownNow();
+        lock.lock();
+        try {
+            active.force();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Seq of the last valid record found when the journal was opened (0 if there was none). Below
+    // the database checkpoint, the journal has lost records the database already committed.
+    public long recoveredSeq() {
+        return recoveredSeq;
+    }
+
+    // Seq of the newest record; every record up to it is visible to replay
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    // Seq of the newest effect record, i.e. the last one the write-behind pipeline has to process
+    public long lastEffectSeq() {
+        return lastEffectSeq;
+    }
+
+    // Journals a group of effects, then hands the group's last seq to then, still under the lock
+    public void appendEffects(List<TradeEffect> effects, LongConsumer then) {
+        if (!enabled) {
+            then.accept(0);
+            return;
+        }
+        lock.lock();
+        try {
+            long last = 0;
+            for (TradeEffect effect : effects) {
+                last = append(new JournalRecord.Effect(effect));
+            }
+            lastEffectSeq = last;
+            then.accept(last);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs putIfAbsent under the lock and, if it installed the freshly loaded account (returned
+    // null), journals that account as a baseline. Returns what putIfAbsent returned.
+    public AccountState register(AccountState loaded, Supplier<AccountState> putIfAbsent) {
+        if (!enabled) {
+            return putIfAbsent.get();
+        }
+        lock.lock();
+        try {
+            AccountState existing = putIfAbsent.get();
+            if (existing == null) {
+                append(new JournalRecord.Baseline(loaded));
+            }
+            return existing;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs evict under the lock and journals that the account is no longer held in memory
+    public void invalidate(long userId, Runnable evict) {
+        if (!enabled) {
+            evict.run();
+            return;
+        }
+        lock.lock();
+        try {
+            evict.run();
+            append(new JournalRecord.Invalidate(userId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs action with no append in progress and returns the seq it observed
+    public long mark(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+            return lastSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Replays every record with seq > afterSeq in order. Meant for startup, before appends begin.
+    // A gap between segments is only expected at or below the floor the journal was opened with,
+    // where open() continued after records lost in a crash; JournalRecovery deals with those.
+    public long replay(long afterSeq, RecordHandler handler) {
+        List<Map.Entry<Long, Path>> segments = new ArrayList<>();
+        lock.lock();
+        try {
+            segments.addAll(sealed.entrySet());
+        } finally {
+            lock.unlock();
+        }
+        JournalCodec codec = new JournalCodec();
+        long[] replayed = new long[1];
+        JournalSegment.Visitor visitor = (seq, type, payload) -> {
+            if (seq > afterSeq) {
+                handler.handle(seq, codec.decode(type, payload));
+                replayed[0]++;
+            }
+        };
+        for (int i = 0; i < segments.size(); i++) {
+            long firstSeq = segments.get(i).getKey();
+            long nextFirstSeq = i + 1 < segments.size() ? segments.get(i + 1).getKey() : active.firstSeq();
+            if (nextFirstSeq - 1 <= afterSeq) {
+                continue;
+            }
+            JournalSegment segment = JournalSegment.read(segments.get(i).getValue());
+            if (replayed[0] == 0 && firstSeq > afterSeq + 1) {
+                log.warn("Journal starts at seq {} but replay needs everything after {}", firstSeq, afterSeq);
+            }
+            segment.scan(visitor);
+            if (segment.lastSeq() != nextFirstSeq - 1) {
+                if (nextFirstSeq - 1 <= floorSeq) {
+                    log.warn("Journal has no records from seq {} to {}; the database or snapshot already covers them",
+                            segment.lastSeq() + 1, nextFirstSeq - 1);
+                    continue;
+                }
+                throw new IllegalStateException("Journal segment " + segment.file() + " ends at seq " + segment.lastSeq()
+                        + " but the next one starts at " + nextFirstSeq);
+            }
+        }
+        if (active.lastSeq() > afterSeq) {
+            JournalSegment.read(active.file()).scan(visitor);
+        }
+        return replayed[0];
+    }
+
+    // Deletes sealed segments holding nothing after seq
+    public void deleteThrough(long seq) {
+        List<Path> deleted = new ArrayList<>();
+        lock.lock();
+        try {
+            while (!sealed.isEmpty()) {
+                Map.Entry<Long, Path> oldest = sealed.firstEntry();
+                Long next = sealed.higherKey(oldest.getKey());
+                long nextFirstSeq = next != null ? next : active.firstSeq();
+                if (nextFirstSeq - 1 > seq) {
+                    break;
+                }
+                sealed.pollFirstEntry();
+                deleted.add(oldest.getValue());
+            }
+        } finally {
+            lock.unlock();
+        }
+        deleted.forEach(Journal::deleteQuietly);
+        if (!deleted.isEmpty()) {
+            log.info("Deleted {} journal segments up to seq {}", deleted.size(), seq);
+        }
+    }
+
+    private long append(JournalRecord record) {
+        if (!open) {
+            throw new IllegalStateException("Journal is not open yet");
+        }
+        ByteBuffer payload = encode(record);
+        long seq = nextSeq;
+        byte type = JournalCodec.type(record);
+        if (!active.append(seq, type, payload)) {
+            roll();
+            if (!active.append(seq, type, payload)) {
+                throw new IllegalStateException("Journal record of " + payload.remaining() + " bytes does not fit in a segment");
+            }
+        }
+        nextSeq = seq + 1;
+        lastSeq = seq;
+        records.increment();
+        return seq;
+    }
+
+    private ByteBuffer encode(JournalRecord record) {
+        while (true) {
+            scratch.clear();
+            try {
+                JournalCodec.encode(record, scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    private void roll() {
+        if (active != null) {
+            active.force();
+            sealed.put(active.firstSeq(), active.file());
+        }
+        Path file = root.resolve(String.format("segment-%020d.journal", nextSeq));
+        active = JournalSegment.create(file, nextSeq, segmentSizeMb * 1024 * 1024);
+    }
+
+    // Forces what was appended since the last run; the msync itself runs outside the lock
+    private void forceAppended() {
+        JournalSegment segment;
+        int from;
+        int to;
+        lock.lock();
+        try {
+            if (forcedSegment != active) {
+                // Rolled segments were forced as they were sealed
+                forcedSegment = active;
+                forcedPosition = JournalSegment.headerBytes();
+            }
+            segment = active;
+            from = forcedPosition;
+            to = active.position();
+            forcedPosition = to;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            segment.force(from, to);
+        } catch (RuntimeException e) {
+            log.warn("Forcing the journal failed: {}", e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete journal segment {}: {}", file, e.getMessage());
+        }
+    }
+
+    private int segmentCount() {
+        lock.lock();
+        try {
+            return sealed.size() + (active != null ? 1 : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.finovia.backend.journal;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.LotChange;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.account.TaxLot;
+import com.finovia.backend.persistence.TradeEffect;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Binary encoding of journal records and snapshot entries. Amounts stay in Money micro-units;
+// LocalDateTimes are written as UTC epoch seconds plus nanos, which round-trips them exactly.
+final class JournalCodec {
+
+    private static final byte BUY = 0;
+    private static final byte SELL = 1;
+
+    // Symbols repeat endlessly in a journal; decoding shares one String per symbol
+    private final Map<String, String> symbols = new HashMap<>();
+
+    static byte type(JournalRecord record) {
+        return switch (record) {
+            case JournalRecord.Baseline baseline -> JournalRecord.BASELINE;
+            case JournalRecord.Effect effect -> JournalRecord.EFFECT;
+            case JournalRecord.Invalidate invalidate -> JournalRecord.INVALIDATE;
+        };
+    }
+
+    // Throws BufferOverflowException if the buffer is too small; the caller grows it and retries
+    static void encode(JournalRecord record, ByteBuffer out) {
+        switch (record) {
+            case JournalRecord.Baseline baseline -> encodeAccount(baseline.account(), out);
+            case JournalRecord.Effect effect -> encodeEffect(effect.effect(), out);
+            case JournalRecord.Invalidate invalidate -> out.putLong(invalidate.userId());
+        }
+    }
+
+    JournalRecord decode(byte type, ByteBuffer in) {
+        return switch (type) {
+            case JournalRecord.BASELINE -> new JournalRecord.Baseline(decodeAccount(in));
+            case JournalRecord.EFFECT -> new JournalRecord.Effect(decodeEffect(in));
+            case JournalRecord.INVALIDATE -> new JournalRecord.Invalidate(in.getLong());
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        };
+    }
+
+    static void encodeAccount(AccountState account, ByteBuffer out) {
+        out.putLong(account.getUserId());
+        out.putLong(account.getBalanceMicros());
+        out.putLong(account.getRealizedPnlMicros());
+        out.putLong(account.peekNextLotSeq());
+        List<Position> positions = List.copyOf(account.getPositions());
+        out.putInt(positions.size());
+        for (Position position : positions) {
+            putString(out, position.getStockSymbol());
+            out.putLong(position.getCostBasisMicros());
+            out.putInt(position.getLots().size());
+            for (TaxLot lot : position.getLots()) {
+                putLot(out, lot);
+            }
+        }
+    }
+
+    AccountState decodeAccount(ByteBuffer in) {
+        AccountState account = new AccountState(in.getLong(), in.getLong(), in.getLong(), in.getLong());
+        int positions = in.getInt();
+        for (int i = 0; i < positions; i++) {
+            String symbol = getString(in);
+            long costBasis = in.getLong();
+            int count = in.getInt();
+            List<TaxLot> lots = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                lots.add(getLot(in));
+            }
+            account.putPosition(Position.restore(symbol, lots, costBasis));
+        }
+        return account;
+    }
+
+    private static void encodeEffect(TradeEffect effect, ByteBuffer out) {
+        out.putLong(effect.userId());
+        out.putLong(effect.balanceAfterMicros());
+        out.putLong(effect.accountRealizedPnlAfterMicros());
+        putString(out, effect.stockSymbol());
+        out.putInt(effect.holdingQuantityAfter());
+        out.putLong(effect.holdingCostBasisAfterMicros());
+        LotChange change = effect.lotChange();
+        out.put((byte) (change.added() != null ? 1 : 0));
+        if (change.added() != null) {
+            putLot(out, change.added());
+        }
+        out.putLong(change.consumedBeforeSeq());
+        out.putLong(change.partialSeq());
+        out.putInt(change.partialRemaining());
+        out.put(effect.isBuy() ? BUY : SELL);
+        out.putInt(effect.quantity());
+        out.putLong(effect.pricePerShareMicros());
+        out.putLong(effect.realizedPnlMicros());
+        putTime(out, effect.timestamp());
+    }
+
+    private TradeEffect decodeEffect(ByteBuffer in) {
+        long userId = in.getLong();
+        long balanceAfter = in.getLong();
+        long realizedPnlAfter = in.getLong();
+        String symbol = getString(in);
+        int quantityAfter = in.getInt();
+        long costBasisAfter = in.getLong();
+        TaxLot added = in.get() == 1 ? getLot(in) : null;
+        LotChange change = new LotChange(added, in.getLong(), in.getLong(), in.getInt());
+        String type = in.get() == BUY ? "BUY" : "SELL";
+        return new TradeEffect(userId, balanceAfter, realizedPnlAfter, symbol, quantityAfter, costBasisAfter, change,
+                type, in.getInt(), in.getLong(), in.getLong(), getTime(in), new CompletableFuture<>());
+    }
+
+    private static void putLot(ByteBuffer out, TaxLot lot) {
+        out.putLong(lot.seq());
+        out.putInt(lot.quantity());
+        out.putLong(lot.priceMicros());
+        putTime(out, lot.openedAt());
+    }
+
+    private TaxLot getLot(ByteBuffer in) {
+        return new TaxLot(in.getLong(), in.getInt(), in.getLong(), getTime(in));
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for the journal: " + bytes.length + " bytes");
+        }
+        if (out.remaining() < Short.BYTES + bytes.length) {
+            throw new BufferOverflowException();
+        }
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        return symbols.computeIfAbsent(value, key -> key);
+    }
+
+    private static void putTime(ByteBuffer out, LocalDateTime time) {
+        out.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.putInt(time.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer in) {
+        return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+    }
+}
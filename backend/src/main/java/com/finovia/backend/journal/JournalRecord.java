@@ -0,0 +1,35 @@
+package com.finovia.backend.journal;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.persistence.TradeEffect;
+
+// What the journal holds, per account: a baseline when the account is loaded into memory, the
+// effect of every fill applied to it, and an invalidation when memory is dropped in favour of
+// the database. Replaying them in order rebuilds the in-memory account state.
+public sealed interface JournalRecord {
+
+    byte BASELINE = 1;
+    byte EFFECT = 2;
+    byte INVALIDATE = 3;
+
+    long userId();
+
+    // Full account state as loaded from the database; replaces whatever was known before
+    record Baseline(AccountState account) implements JournalRecord {
+        @Override
+        public long userId() {
+            return account.getUserId();
+        }
+    }
+
+    record Effect(TradeEffect effect) implements JournalRecord {
+        @Override
+        public long userId() {
+            return effect.userId();
+        }
+    }
+
+    // The account was evicted from memory; it is reloaded from the database on next use
+    record Invalidate(long userId) implements JournalRecord {
+    }
+}
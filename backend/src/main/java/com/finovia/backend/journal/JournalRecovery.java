@@ -0,0 +1,137 @@
+package com.finovia.backend.journal;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.persistence.TradeEffect;
+import com.finovia.backend.persistence.TradeWriteBehind;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Rebuilds the in-memory accounts at startup from the newest snapshot plus the journal after it,
+// then opens the journal for appending. Effects above the database's journal checkpoint were
+// journaled but never committed; they are queued to the write-behind pipeline again, so the
+// database catches up without losing or repeating a trade. Accounts that appear in neither the
+// snapshot nor the tail are loaded from the database on first use, as before. If the journal lost
+// records the database had already committed (unforced pages in an OS crash), whatever it rebuilt
+// is older than the database, so those accounts are invalidated and load from the database too.
+@Service
+public class JournalRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalRecovery.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Journal journal;
+
+    @Autowired
+    private AccountSnapshots snapshots;
+
+    @Autowired
+    private AccountStore accountStore;
+
+    @Autowired
+    private TradeWriteBehind tradeWriteBehind;
+
+    private record Uncommitted(long seq, TradeEffect effect) {
+    }
+
+    @PostConstruct
+    public void recover() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        long committed = jdbcTemplate.queryForObject("SELECT committed_seq FROM journal_checkpoint WHERE id = 1", Long.class);
+
+        AccountSnapshots.Snapshot snapshot = snapshots.loadLatest();
+        Map<Long, AccountState> accounts = snapshot != null ? snapshot.accounts() : new HashMap<>();
+        Map<Long, Long> stamps = snapshot != null ? snapshot.stamps() : Map.of();
+        long fromSeq = snapshot != null ? snapshot.fromSeq() : 0;
+        // Never hand out a seq the database or the snapshot has already seen
+        journal.open(Math.max(committed, fromSeq));
+
+        Map<Long, List<Uncommitted>> uncommitted = new HashMap<>();
+        long[] orphaned = new long[1];
+        long replayed = journal.replay(fromSeq, (seq, record) -> {
+            long userId = record.userId();
+            if (seq <= stamps.getOrDefault(userId, 0L)) {
+                return;
+            }
+            switch (record) {
+                case JournalRecord.Baseline baseline -> {
+                    accounts.put(userId, baseline.account());
+                    uncommitted.remove(userId);
+                }
+                case JournalRecord.Effect effect -> {
+                    AccountState account = accounts.get(userId);
+                    if (account == null) {
+                        orphaned[0]++;
+                        return;
+                    }
+                    apply(account, effect.effect());
+                    if (seq > committed) {
+                        uncommitted.computeIfAbsent(userId, id -> new ArrayList<>()).add(new Uncommitted(seq, effect.effect()));
+                    }
+                }
+                case JournalRecord.Invalidate invalidate -> {
+                    // Memory was dropped in favour of the database, including any uncommitted effects
+                    accounts.remove(userId);
+                    uncommitted.remove(userId);
+                }
+            }
+        });
+
+        if (journal.recoveredSeq() < committed && fromSeq < committed) {
+            // Effects between the journal's end and the checkpoint are missing from what was rebuilt.
+            // Journal an Invalidate for each account so a later restart does not rebuild them either.
+            log.warn("Journal ends at seq {} but the database committed through {}; {} recovered accounts load from the database",
+                    journal.recoveredSeq(), committed, accounts.size());
+            for (long userId : accounts.keySet()) {
+                journal.invalidate(userId, () -> { });
+            }
+            accounts.clear();
+            uncommitted.clear();
+        }
+        accountStore.restore(accounts.values());
+
+        List<Uncommitted> resubmit = new ArrayList<>();
+        uncommitted.values().forEach(resubmit::addAll);
+        resubmit.sort(Comparator.comparingLong(Uncommitted::seq));
+        for (Uncommitted pending : resubmit) {
+            tradeWriteBehind.resubmit(List.of(pending.effect()), pending.seq());
+        }
+
+        if (orphaned[0] > 0) {
+            log.warn("{} journaled effects had no baseline to apply to; those accounts load from the database", orphaned[0]);
+        }
+        log.info("Recovered {} accounts from {} plus {} journal records in {} ms; resubmitted {} uncommitted effects",
+                accounts.size(), snapshot != null ? "the snapshot at seq " + fromSeq : "no snapshot", replayed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), resubmit.size());
+    }
+
+    // Sets the state the effect recorded rather than re-running the trade
+    static void apply(AccountState account, TradeEffect effect) {
+        account.setBalanceMicros(effect.balanceAfterMicros());
+        account.setRealizedPnlMicros(effect.accountRealizedPnlAfterMicros());
+        if (effect.lotChange().added() != null) {
+            account.reserveLotSeq(effect.lotChange().added().seq());
+        }
+        Position position = account.openPosition(effect.stockSymbol());
+        position.replay(effect.lotChange(), effect.holdingQuantityAfter(), effect.holdingCostBasisAfterMicros());
+        account.closeIfEmpty(position);
+    }
+}
@@ -0,0 +1,189 @@
+package com.finovia.backend.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// One fixed-size, memory-mapped journal file. Records follow a small header back to back:
+//   int length | int crc32c | long seq | byte type | payload
+// where length counts the bytes after the crc and the crc covers them. Seqs inside a segment are
+// consecutive from the header's firstSeq. The file is preallocated with zeros, so a zero length
+// marks the end; a record with a bad checksum or an out-of-order seq is a torn write and also ends it.
+// Not thread-safe: Journal serializes access.
+final class JournalSegment {
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(long seq, byte type, ByteBuffer payload);
+    }
+
+    private static final int MAGIC = 0x464E4A31; // "FNJ1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int FIRST_SEQ_AT = 8;
+    // length + crc, then seq + type
+    private static final int PREFIX_BYTES = 8;
+    private static final int FIXED_BYTES = Long.BYTES + 1;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final long firstSeq;
+    private final CRC32C crc = new CRC32C();
+    private int position = HEADER_BYTES;
+    private long lastSeq;
+
+    private JournalSegment(Path file, MappedByteBuffer buffer, long firstSeq) {
+        this.file = file;
+        this.buffer = buffer;
+        this.firstSeq = firstSeq;
+        this.lastSeq = firstSeq - 1;
+    }
+
+    static JournalSegment create(Path file, long firstSeq, int size) {
+        MappedByteBuffer buffer = map(file, FileChannel.MapMode.READ_WRITE, size);
+        buffer.putInt(MAGIC_AT, MAGIC);
+        buffer.putInt(VERSION_AT, VERSION);
+        buffer.putLong(FIRST_SEQ_AT, firstSeq);
+        buffer.force();
+        return new JournalSegment(file, buffer, firstSeq);
+    }
+
+    // Opens an existing segment read-only, for replay with scan
+    static JournalSegment read(Path file) {
+        return open(file, FileChannel.MapMode.READ_ONLY);
+    }
+
+    // Opens the newest segment for appending: finds its end and zeroes any torn tail
+    static JournalSegment reopen(Path file) {
+        JournalSegment segment = open(file, FileChannel.MapMode.READ_WRITE);
+        MappedByteBuffer buffer = segment.buffer;
+        segment.scan((seq, type, payload) -> {
+        });
+        // Whatever follows the last valid record is a torn write; clear it so that later appends
+        // never leave stale bytes behind them. Only chunks that are not already zero are written.
+        ByteBuffer zeros = ByteBuffer.allocate(64 * 1024);
+        for (int at = segment.position; at < buffer.capacity(); at += zeros.capacity()) {
+            int length = Math.min(zeros.capacity(), buffer.capacity() - at);
+            if (buffer.slice(at, length).mismatch(zeros.slice(0, length)) >= 0) {
+                buffer.put(at, zeros, 0, length);
+            }
+        }
+        return segment;
+    }
+
+    private static JournalSegment open(Path file, FileChannel.MapMode mode) {
+        MappedByteBuffer buffer = map(file, mode, -1);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(MAGIC_AT) != MAGIC || buffer.getInt(VERSION_AT) != VERSION) {
+            throw new IllegalStateException("Not a journal segment: " + file);
+        }
+        return new JournalSegment(file, buffer, buffer.getLong(FIRST_SEQ_AT));
+    }
+
+    // Reads the first seq from a segment's header without mapping the whole file
+    static long firstSeqOf(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+            }
+            if (header.position() < HEADER_BYTES || header.getInt(MAGIC_AT) != MAGIC) {
+                throw new IllegalStateException("Not a journal segment: " + file);
+            }
+            return header.getLong(FIRST_SEQ_AT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read journal segment " + file, e);
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long firstSeq() {
+        return firstSeq;
+    }
+
+    long lastSeq() {
+        return lastSeq;
+    }
+
+    int position() {
+        return position;
+    }
+
+    static int headerBytes() {
+        return HEADER_BYTES;
+    }
+
+    // Returns false if the record does not fit; the segment is then full
+    boolean append(long seq, byte type, ByteBuffer payload) {
+        int length = FIXED_BYTES + payload.remaining();
+        if ((long) position + PREFIX_BYTES + length > buffer.capacity()) {
+            return false;
+        }
+        int body = position + PREFIX_BYTES;
+        buffer.putLong(body, seq);
+        buffer.put(body + Long.BYTES, type);
+        buffer.put(body + FIXED_BYTES, payload, payload.position(), payload.remaining());
+        crc.reset();
+        crc.update(buffer.slice(body, length));
+        buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+        // The length goes last: until it is written the record does not exist
+        buffer.putInt(position, length);
+        position = body + length;
+        lastSeq = seq;
+        return true;
+    }
+
+    // Visits every valid record in order and leaves position just after the last one
+    void scan(Visitor visitor) {
+        int at = HEADER_BYTES;
+        long expected = firstSeq;
+        while (at + PREFIX_BYTES + FIXED_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(at);
+            if (length < FIXED_BYTES || (long) at + PREFIX_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            int body = at + PREFIX_BYTES;
+            crc.reset();
+            crc.update(buffer.slice(body, length));
+            if ((int) crc.getValue() != buffer.getInt(at + Integer.BYTES) || buffer.getLong(body) != expected) {
+                break;
+            }
+            visitor.visit(expected, buffer.get(body + Long.BYTES), buffer.slice(body + FIXED_BYTES, length - FIXED_BYTES).order(ByteOrder.BIG_ENDIAN));
+            expected++;
+            at = body + length;
+        }
+        position = at;
+        lastSeq = expected - 1;
+    }
+
+    // Writes [from, to) through to the storage device; safe while appends continue past to
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    private static MappedByteBuffer map(Path file, FileChannel.MapMode mode, long size) {
+        boolean write = mode == FileChannel.MapMode.READ_WRITE;
+        try (FileChannel channel = write
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(mode, 0, size >= 0 ? size : channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map journal segment " + file, e);
+        }
+    }
+}
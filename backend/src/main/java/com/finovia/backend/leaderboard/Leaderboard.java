@@ -0,0 +1,406 @@
+package com.finovia.backend.leaderboard;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.dto.LeaderboardEntry;
+import com.finovia.backend.marketdata.MarketDataEngine;
+import com.finovia.backend.marketdata.PriceTick;
+import com.finovia.backend.repository.UserRepository;
+import com.finovia.backend.service.TradeSequencer;
+import com.finovia.backend.service.TradeService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ranks every account by equity (cash plus holdings at the latest price) without revaluing
+// anyone on read. Each account's equity is kept in memory and adjusted incrementally: a fill
+// changes one account's cash and one holding, a price tick moves only the holders of that symbol.
+// Rankings live in a RankTree, so top-K and rank-of-user are O(log n).
+// Fills and ticks are queued by their producers and applied every apply-interval-ms under the
+// write lock; ticks for the same symbol are conflated in between. Return is equity against the
+// starting capital, so it ranks in the same order as equity.
+@Service
+@DependsOn("journalRecovery")
+public class Leaderboard {
+
+    private static final Logger log = LoggerFactory.getLogger(Leaderboard.class);
+    private static final int PERCENT_SCALE = 4;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MarketDataEngine marketDataEngine;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private AccountStore accountStore;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${leaderboard.apply-interval-ms:100}")
+    private long applyIntervalMillis;
+
+    @Value("${leaderboard.starting-capital:100000}")
+    private BigDecimal startingCapital;
+
+    @Value("${leaderboard.snapshot.size:100}")
+    private int snapshotSize;
+
+    // Everything below is guarded by lock; producers only touch the two pending collections
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RankTree ranks = new RankTree();
+    private final Map<Long, Account> accounts = new HashMap<>();
+    private final Map<String, Set<Account>> holders = new HashMap<>();
+    private final Map<String, Long> marks = new HashMap<>();
+
+    private final ConcurrentLinkedQueue<Fill> pendingFills = new ConcurrentLinkedQueue<>();
+    private final Map<String, Long> pendingMarks = new ConcurrentHashMap<>();
+    // Accounts the tree has seen, readable without the lock so lanes know when to send a full seed
+    private final Set<Long> known = ConcurrentHashMap.newKeySet();
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private Timer applyTimer;
+
+    @PostConstruct
+    public void start() {
+        // Listen first: anything traded while the table loads is queued and applied on top of it
+        marketDataEngine.addListener((symbol, price, timestamp) -> pendingMarks.put(symbol, Money.of(price)));
+        tradeService.addListener((userId, symbol, type, quantity, price, timestamp) -> onTrade(userId, symbol, price));
+        // A fill that failed to save was already counted here; reseed from the reloaded account
+        accountStore.addInvalidationListener(userId -> pendingFills.add(seed(accountStore.get(userId), null, 0)));
+
+        applyTimer = Timer.builder("leaderboard.apply").register(meterRegistry);
+        Gauge.builder("leaderboard.accounts", ranks, RankTree::size).register(meterRegistry);
+
+        load();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "leaderboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::applyPending, applyIntervalMillis, applyIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ranks.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LeaderboardEntry> top(int limit) {
+        List<long[]> rows = new ArrayList<>(Math.min(limit, 1024));
+        lock.readLock().lock();
+        try {
+            ranks.top(limit, (rank, id, equity) -> rows.add(new long[]{rank, id, equity}));
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<LeaderboardEntry> entries = new ArrayList<>(rows.size());
+        for (long[] row : rows) {
+            entries.add(entry((int) row[0], row[1], row[2]));
+        }
+        return entries;
+    }
+
+    // The account's current standing; an account the leaderboard has not seen yet is seeded first
+    public LeaderboardEntry rankOf(long userId) {
+        if (!known.contains(userId)) {
+            // Taken on the account's lane so it cannot overtake a fill that is already queued
+            tradeSequencer.execute(userId, () -> {
+                pendingFills.add(seed(accountStore.get(userId), null, 0));
+                return null;
+            });
+            applyPending();
+        }
+        int rank;
+        long equity;
+        lock.readLock().lock();
+        try {
+            Account account = accounts.get(userId);
+            if (account == null) {
+                return null;
+            }
+            equity = account.equity;
+            rank = ranks.rankOf(userId, equity);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return entry(rank, userId, equity);
+    }
+
+    // Persists the current top of the table; the rows share one taken_at
+    @Scheduled(fixedDelayString = "${leaderboard.snapshot.interval-ms:300000}",
+            initialDelayString = "${leaderboard.snapshot.interval-ms:300000}")
+    public void snapshot() {
+        List<LeaderboardEntry> entries = top(snapshotSize);
+        if (entries.isEmpty()) {
+            return;
+        }
+        Timestamp takenAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (LeaderboardEntry entry : entries) {
+            rows.add(new Object[]{takenAt, entry.rank(), entry.userId(), entry.equity(), entry.returnPct()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO leaderboard_snapshots (taken_at, rank, user_id, equity, return_pct) VALUES (?, ?, ?, ?, ?)", rows);
+        log.debug("Leaderboard snapshot of {} entries written", rows.size());
+    }
+
+    // Runs on the account's sequencer lane right after the fill was applied, so the account's
+    // balance and position are exactly the post-trade state
+    private void onTrade(long userId, String symbol, BigDecimal price) {
+        AccountState account = accountStore.get(userId);
+        long priceMicros = Money.of(price);
+        if (!known.contains(userId)) {
+            pendingFills.add(seed(account, symbol, priceMicros));
+            return;
+        }
+        Position position = account.getPosition(symbol);
+        pendingFills.add(new Fill(userId, account.getBalanceMicros(), symbol, position == null ? 0 : position.getQuantity(),
+                priceMicros, null));
+    }
+
+    private Fill seed(AccountState account, String symbol, long priceMicros) {
+        Map<String, long[]> positions = new HashMap<>();
+        for (Position position : account.getPositions()) {
+            positions.put(position.getStockSymbol(), new long[]{position.getQuantity(), position.getAveragePriceMicros()});
+        }
+        return new Fill(account.getUserId(), account.getBalanceMicros(), symbol, 0, priceMicros, positions);
+    }
+
+    void applyPending() {
+        if (pendingFills.isEmpty() && pendingMarks.isEmpty()) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Fill fill;
+            while ((fill = pendingFills.poll()) != null) {
+                apply(fill);
+            }
+            Iterator<Map.Entry<String, Long>> it = pendingMarks.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Long> entry = it.next();
+                it.remove();
+                mark(entry.getKey(), entry.getValue());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Applying leaderboard updates failed: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+            applyTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void apply(Fill fill) {
+        // A fill price is a real mark; the first one also revalues holders still carried at cost
+        if (fill.symbol() != null && fill.priceMicros() > 0 && !marks.containsKey(fill.symbol())) {
+            mark(fill.symbol(), fill.priceMicros());
+        }
+        Account account = accounts.get(fill.userId());
+        if (fill.positions() != null) {
+            // Full seed: replace whatever was known about the account
+            if (account != null) {
+                ranks.remove(account.userId, account.equity);
+                for (String symbol : account.quantities.keySet()) {
+                    unhold(symbol, account);
+                }
+            }
+            account = new Account(fill.userId());
+            accounts.put(account.userId, account);
+            account.cash = fill.cashAfter();
+            for (Map.Entry<String, long[]> position : fill.positions().entrySet()) {
+                String symbol = position.getKey();
+                int quantity = (int) position.getValue()[0];
+                Long mark = marks.get(symbol);
+                if (mark == null) {
+                    // No price seen for the symbol yet: value this holding at its own cost
+                    mark = position.getValue()[1];
+                    account.costMarks.put(symbol, mark);
+                }
+                account.quantities.put(symbol, quantity);
+                account.holdingsValue += Money.times(mark, quantity);
+                holders.computeIfAbsent(symbol, key -> new HashSet<>()).add(account);
+            }
+            account.equity = account.cash + account.holdingsValue;
+            ranks.insert(account.userId, account.equity);
+            known.add(account.userId);
+            return;
+        }
+        if (account == null) {
+            return;
+        }
+        int before = account.quantities.getOrDefault(fill.symbol(), 0);
+        account.holdingsValue += Money.times(marks.get(fill.symbol()), fill.quantityAfter() - before);
+        if (fill.quantityAfter() == 0) {
+            account.quantities.remove(fill.symbol());
+            unhold(fill.symbol(), account);
+        } else {
+            account.quantities.put(fill.symbol(), fill.quantityAfter());
+            holders.computeIfAbsent(fill.symbol(), key -> new HashSet<>()).add(account);
+        }
+        reposition(account, fill.cashAfter() + account.holdingsValue, fill.cashAfter());
+    }
+
+    // Revalues only the holders of the symbol. Before its first mark every holder was valued at
+    // its own cost, so that first mark moves each of them from a different price.
+    private void mark(String symbol, long priceMicros) {
+        Long previous = marks.put(symbol, priceMicros);
+        Set<Account> holding = holders.get(symbol);
+        if (holding == null || (previous != null && previous == priceMicros)) {
+            return;
+        }
+        for (Account account : holding) {
+            Long cost = account.costMarks.remove(symbol);
+            long from = previous != null ? previous : cost != null ? cost : priceMicros;
+            long change = Money.times(priceMicros - from, account.quantities.get(symbol));
+            account.holdingsValue += change;
+            reposition(account, account.equity + change, account.cash);
+        }
+    }
+
+    private void reposition(Account account, long equity, long cash) {
+        ranks.remove(account.userId, account.equity);
+        account.cash = cash;
+        account.equity = equity;
+        ranks.insert(account.userId, equity);
+    }
+
+    private void unhold(String symbol, Account account) {
+        Set<Account> holding = holders.get(symbol);
+        if (holding != null && holding.remove(account) && holding.isEmpty()) {
+            holders.remove(symbol);
+        }
+    }
+
+    // Seeds every account from the database in two scans (or from memory where the journal recovery
+    // restored it); later changes arrive as fills and ticks
+    private void load() {
+        long startedAt = System.nanoTime();
+        Map<Long, Map<String, long[]>> positions = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, stock_symbol, quantity, COALESCE(average_purchase_price, 0) FROM holdings WHERE quantity > 0", rs -> {
+            positions.computeIfAbsent(rs.getLong(1), id -> new HashMap<>())
+                    .put(rs.getString(2), new long[]{rs.getInt(3), Money.of(rs.getBigDecimal(4))});
+        });
+        // Holdings are valued at the latest in-memory price where there is one, else at cost
+        Map<String, Long> initialMarks = new HashMap<>();
+        for (Map<String, long[]> held : positions.values()) {
+            for (String symbol : held.keySet()) {
+                if (!initialMarks.containsKey(symbol)) {
+                    PriceTick tick = marketDataEngine.getLastTick(symbol);
+                    if (tick != null) {
+                        initialMarks.put(symbol, Money.of(tick.price()));
+                    }
+                }
+            }
+        }
+        List<Fill> seeds = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, username, virtual_balance FROM users", rs -> {
+            long userId = rs.getLong(1);
+            usernames.put(userId, rs.getString(2));
+            // Accounts recovered from the journal may be ahead of their rows
+            AccountState recovered = accountStore.peek(userId);
+            if (recovered != null) {
+                seeds.add(seed(recovered, null, 0));
+                return;
+            }
+            BigDecimal balance = rs.getBigDecimal(3);
+            seeds.add(new Fill(userId, balance == null ? 0 : Money.of(balance), null, 0, 0,
+                    positions.getOrDefault(userId, Map.of())));
+        });
+        lock.writeLock().lock();
+        try {
+            marks.putAll(initialMarks);
+            for (Fill seed : seeds) {
+                // A fill queued during the load already carries newer state than the database
+                if (!known.contains(seed.userId())) {
+                    apply(seed);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Leaderboard loaded {} accounts in {} ms", seeds.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    private LeaderboardEntry entry(int rank, long userId, long equityMicros) {
+        String username = usernames.computeIfAbsent(userId,
+                id -> userRepository.findById(id).map(user -> user.getUsername()).orElse(null));
+        BigDecimal equity = Money.toDecimal(equityMicros);
+        BigDecimal returnPct = startingCapital.signum() == 0 ? BigDecimal.ZERO
+                : equity.subtract(startingCapital).multiply(BigDecimal.valueOf(100))
+                        .divide(startingCapital, PERCENT_SCALE, RoundingMode.HALF_UP);
+        return new LeaderboardEntry(rank, userId, username, equity, returnPct);
+    }
+
+    // Mutable per-account totals, in Money micro-units; guarded by lock
+    private static final class Account {
+        private final long userId;
+        private final Map<String, Integer> quantities = new HashMap<>();
+        // Average cost per share of holdings whose symbol has no mark yet
+        private final Map<String, Long> costMarks = new HashMap<>();
+        private long cash;
+        private long holdingsValue;
+        private long equity;
+
+        Account(long userId) {
+            this.userId = userId;
+        }
+    }
+
+    // A fill's absolute post-trade state for one holding, or with positions set a full seed of the
+    // account (symbol then only carries the fill price as a first mark)
+    private record Fill(long userId, long cashAfter, String symbol, int quantityAfter, long priceMicros,
+                        Map<String, long[]> positions) {
+    }
+}
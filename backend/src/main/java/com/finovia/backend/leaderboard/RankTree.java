@@ -0,0 +1,154 @@
+package com.finovia.backend.leaderboard;
+
+import java.util.SplittableRandom;
+
+// Order-statistic treap of (id, score) entries, highest score first and ties by lower id.
+// Every node carries its subtree size, so inserts, removals, the rank of an entry and the
+// entry at a rank are all O(log n) expected; the top k are read in O(log n + k).
+// Not thread-safe: Leaderboard guards it with its read/write lock.
+public class RankTree {
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(int rank, long id, long score);
+    }
+
+    private final SplittableRandom priorities = new SplittableRandom(0x1eadb0a7dL);
+    private Node root;
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(long id, long score) {
+        Node[] parts = split(root, id, score);
+        root = merge(merge(parts[0], new Node(id, score, priorities.nextInt())), parts[1]);
+    }
+
+    // Returns false if no entry with exactly this id and score is present
+    public boolean remove(long id, long score) {
+        Node[] parts = split(root, id, score);
+        Node right = parts[1];
+        if (right == null || compare(id, score, first(right)) != 0) {
+            root = merge(parts[0], right);
+            return false;
+        }
+        root = merge(parts[0], removeFirst(right));
+        return true;
+    }
+
+    // 1-based rank of a present entry, or 0 if it is not in the tree
+    public int rankOf(long id, long score) {
+        int ahead = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(id, score, node);
+            if (cmp == 0) {
+                return ahead + size(node.left) + 1;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                ahead += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return 0;
+    }
+
+    // Visits the first limit entries in rank order
+    public void top(int limit, Visitor visitor) {
+        visit(root, 0, limit, visitor);
+    }
+
+    private int visit(Node node, int visited, int limit, Visitor visitor) {
+        if (node == null || visited >= limit) {
+            return visited;
+        }
+        visited = visit(node.left, visited, limit, visitor);
+        if (visited < limit) {
+            visitor.visit(++visited, node.id, node.score);
+            visited = visit(node.right, visited, limit, visitor);
+        }
+        return visited;
+    }
+
+    // Splits into entries ordered before (id, score) and the rest
+    private Node[] split(Node node, long id, long score) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(id, score, node) > 0) {
+            Node[] parts = split(node.right, id, score);
+            node.right = parts[0];
+            parts[0] = update(node);
+            return parts;
+        }
+        Node[] parts = split(node.left, id, score);
+        node.left = parts[1];
+        parts[1] = update(node);
+        return parts;
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static Node first(Node node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private static Node removeFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        return update(node);
+    }
+
+    // Negative if (id, score) ranks ahead of node
+    private static int compare(long id, long score, Node node) {
+        if (score != node.score) {
+            return score > node.score ? -1 : 1;
+        }
+        return Long.compare(id, node.id);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static final class Node {
+        private final long id;
+        private final long score;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        Node(long id, long score, int priority) {
+            this.id = id;
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.finovia.backend.marketdata;
+
+import com.finovia.backend.dto.FinnhubQuote;
+import com.finovia.backend.service.QuoteService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Polls Finnhub for every subscribed symbol on a fixed interval.
+// Goes through QuoteService so polling shares the cache and coalescing with request-time lookups.
+// A cycle fans out on virtual threads, at most maxConcurrent at a time so request-time lookups
+// keep their share of the Finnhub bulkhead, and makes at most the calls the per-minute budget
+// allows per interval. When more symbols are subscribed, cycles take turns over them.
+public class FinnhubPollingFeed implements MarketDataFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(FinnhubPollingFeed.class);
+
+    private final QuoteService quoteService;
+    private final long pollIntervalMillis;
+    private final int maxCallsPerCycle;
+    private final Semaphore permits;
+    private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+    private final ExecutorService pollers = Executors.newVirtualThreadPerTaskExecutor();
+
+    private ScheduledExecutorService scheduler;
+    private PriceListener listener;
+    // Where the next cycle starts in the sorted symbol list; only the scheduler thread touches it
+    private int cursor;
+
+    public FinnhubPollingFeed(QuoteService quoteService, long pollIntervalMillis, int maxConcurrent, int maxCallsPerMinute) {
+        this.quoteService = quoteService;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.maxCallsPerCycle = (int) Math.max(1, maxCallsPerMinute * pollIntervalMillis / TimeUnit.MINUTES.toMillis(1));
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    @Override
+    public void start(Set<String> initialSymbols, PriceListener listener) {
+        this.listener = listener;
+        this.symbols.addAll(initialSymbols);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "finnhub-poll-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollAll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void subscribe(String symbol) {
+        symbols.add(symbol);
+    }
+
+    @Override
+    public void unsubscribe(String symbol) {
+        symbols.remove(symbol);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        pollers.shutdownNow();
+    }
+
+    void pollAll() {
+        List<String> subscribed = new ArrayList<>(symbols);
+        if (subscribed.isEmpty()) {
+            return;
+        }
+        subscribed.sort(null);
+        int count = Math.min(subscribed.size(), maxCallsPerCycle);
+        int start = cursor % subscribed.size();
+        cursor = (start + count) % subscribed.size();
+        if (count < subscribed.size()) {
+            log.debug("Polling {} of {} symbols this cycle to stay within the upstream budget", count, subscribed.size());
+        }
+        List<CompletableFuture<Void>> polls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String symbol = subscribed.get((start + i) % subscribed.size());
+            polls.add(CompletableFuture.runAsync(() -> poll(symbol), pollers));
+        }
+        // The next cycle is scheduled after this one, so a slow cycle delays it instead of overlapping
+        CompletableFuture.allOf(polls.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void poll(String symbol) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            FinnhubQuote quote = quoteService.getQuote(symbol);
+            // A stale fallback is not a new price; publishing it would look like a fresh tick
+            if (quote != null && !quote.isStale() && quote.getCurrentPrice() != null && quote.getCurrentPrice().signum() > 0) {
+                listener.onPrice(symbol, quote.getCurrentPrice(), System.currentTimeMillis());
+            }
+        } catch (Exception e) {
+            log.warn("Polling quote for {} failed: {}", symbol, e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.finovia.backend.marketdata;
+
+import com.finovia.backend.dto.FinnhubQuote;
+import com.finovia.backend.repository.HoldingRepository;
+import com.finovia.backend.service.QuoteService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+// Keeps the last known price of every symbol that is held or watched.
+// Trades and portfolio reads look prices up here instead of calling Finnhub per request.
+// Only symbols with live interest are polled upstream: asked for within marketdata.poll-idle-ms,
+// subscribed to or with resting orders. Others stay in the table without being polled until the
+// next ask; a symbol nobody holds, subscribes to or has asked for within marketdata.watch-idle-ms
+// is dropped altogether, and the watched set is capped.
+@Service
+public class MarketDataEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketDataEngine.class);
+
+    @Autowired
+    private MarketDataFeed feed;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    // Prices older than this are treated as missing and refreshed through the quote service
+    @Value("${marketdata.max-age-ms:15000}")
+    private long maxAgeMillis;
+
+    @Value("${marketdata.max-watched:1000}")
+    private int maxWatched;
+
+    @Value("${marketdata.watch-idle-ms:600000}")
+    private long watchIdleMillis;
+
+    @Value("${marketdata.poll-idle-ms:60000}")
+    private long pollIdleMillis;
+
+    private final Map<String, PriceTick> lastPrices = new ConcurrentHashMap<>();
+    // Watched symbol -> when it was last asked for
+    private final Map<String, Long> watched = new ConcurrentHashMap<>();
+    // Watched symbols currently subscribed on the feed
+    private final Set<String> polled = ConcurrentHashMap.newKeySet();
+    private final List<PriceListener> listeners = new CopyOnWriteArrayList<>();
+    // Other components that keep a symbol watched while they need it (subscriptions, resting orders)
+    private final List<Predicate<String>> interests = new CopyOnWriteArrayList<>();
+
+    // Batch lookups are blocking calls behind the quote cache, so a virtual thread per lookup is cheap
+    private final ExecutorService lookupExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Set<String> symbols = new HashSet<>(holdingRepository.findDistinctStockSymbols());
+        long now = System.currentTimeMillis();
+        for (String symbol : symbols) {
+            watched.put(symbol, now);
+        }
+        // Held symbols are priced once someone asks; nothing is live before that
+        feed.start(Set.of(), this::publish);
+        log.info("Market data engine started with {} symbols using {}", symbols.size(), feed.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void stop() {
+        feed.stop();
+        lookupExecutor.shutdownNow();
+    }
+
+    public void addListener(PriceListener listener) {
+        listeners.add(listener);
+    }
+
+    public void addInterest(Predicate<String> interest) {
+        interests.add(interest);
+    }
+
+    // Adds the symbol to the feed, or refreshes it if already there. False if the watch list is full.
+    public boolean watch(String symbol) {
+        String key = symbol.toUpperCase();
+        long now = System.currentTimeMillis();
+        if (watched.replace(key, now) != null) {
+            poll(key);
+            return true;
+        }
+        synchronized (watched) {
+            if (watched.size() >= maxWatched && !watched.containsKey(key)) {
+                log.warn("Not watching {}: already watching the maximum of {} symbols", key, maxWatched);
+                return false;
+            }
+            watched.put(key, now);
+        }
+        poll(key);
+        return true;
+    }
+
+    private void poll(String symbol) {
+        if (polled.add(symbol)) {
+            feed.subscribe(symbol);
+        }
+    }
+
+    // Stops polling symbols nobody has asked for within pollIdleMillis and no other component has
+    // an interest in; they stay watched, and the next ask polls them again
+    @Scheduled(fixedDelayString = "${marketdata.poll-sweep-ms:10000}", initialDelayString = "${marketdata.poll-sweep-ms:10000}")
+    public void pauseIdlePolling() {
+        long cutoff = System.currentTimeMillis() - pollIdleMillis;
+        int paused = 0;
+        for (String symbol : polled) {
+            Long lastAsked = watched.get(symbol);
+            if (lastAsked != null && lastAsked >= cutoff || interests.stream().anyMatch(interest -> interest.test(symbol))) {
+                continue;
+            }
+            if (polled.remove(symbol)) {
+                feed.unsubscribe(symbol);
+                paused++;
+            }
+        }
+        if (paused > 0) {
+            log.debug("Stopped polling {} idle symbols ({} still polled)", paused, polled.size());
+        }
+    }
+
+    // Drops symbols that have been idle for watchIdleMillis unless they are held or another
+    // component still has an interest in them
+    @Scheduled(fixedDelayString = "${marketdata.watch-sweep-ms:60000}", initialDelayString = "${marketdata.watch-sweep-ms:60000}")
+    public void expireIdle() {
+        long cutoff = System.currentTimeMillis() - watchIdleMillis;
+        List<String> idle = watched.entrySet().stream()
+                .filter(entry -> entry.getValue() < cutoff)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (idle.isEmpty()) {
+            return;
+        }
+        Set<String> held = new HashSet<>(holdingRepository.findDistinctStockSymbols());
+        int dropped = 0;
+        for (String symbol : idle) {
+            if (held.contains(symbol) || interests.stream().anyMatch(interest -> interest.test(symbol))) {
+                watched.put(symbol, System.currentTimeMillis());
+                continue;
+            }
+            Long lastAsked = watched.get(symbol);
+            if (lastAsked != null && lastAsked < cutoff && watched.remove(symbol, lastAsked)) {
+                if (polled.remove(symbol)) {
+                    feed.unsubscribe(symbol);
+                }
+                lastPrices.remove(symbol);
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.info("Stopped watching {} idle symbols ({} still watched)", dropped, watched.size());
+        }
+    }
+
+    // Last price held in memory, or null if the symbol has never been seen
+    public PriceTick getLastTick(String symbol) {
+        return lastPrices.get(symbol.toUpperCase());
+    }
+
+    // In-memory price if it is within the max age, otherwise null. Never calls upstream.
+    public BigDecimal getFreshPrice(String symbol) {
+        String key = symbol.toUpperCase();
+        PriceTick tick = lastPrices.get(key);
+        long now = System.currentTimeMillis();
+        if (tick != null && !tick.isOlderThan(maxAgeMillis, now)) {
+            // Still being asked for, so keep it polled
+            watched.replace(key, now);
+            return tick.price();
+        }
+        return null;
+    }
+
+    // Current price for trading: served from memory when fresh, otherwise fetched once and,
+    // if the symbol has a price, added to the feed so the next lookup is a memory hit.
+    // Null when there is no price no older than the max age, so trades never fill at a
+    // last-known price served while Finnhub is unavailable.
+    public BigDecimal getPrice(String symbol) {
+        PriceTick tick = getPriceTick(symbol);
+        return tick == null || isStale(tick) ? null : tick.price();
+    }
+
+    // Like getPrice, but for display: while Finnhub is unavailable this is the last-known price
+    // with the time it was received, which isStale reports as too old to trade on
+    public PriceTick getPriceTick(String symbol) {
+        String key = symbol.toUpperCase();
+        PriceTick tick = lastPrices.get(key);
+        long now = System.currentTimeMillis();
+        if (tick != null && !tick.isOlderThan(maxAgeMillis, now)) {
+            watched.replace(key, now);
+            return tick;
+        }
+
+        FinnhubQuote quote = quoteService.getQuote(key);
+        if (quote == null || quote.getCurrentPrice() == null || quote.getCurrentPrice().signum() <= 0) {
+            return null;
+        }
+        if (quote.isStale()) {
+            return new PriceTick(key, quote.getCurrentPrice(), quote.getAsOf());
+        }
+        watch(key);
+        publish(key, quote.getCurrentPrice(), now);
+        return new PriceTick(key, quote.getCurrentPrice(), now);
+    }
+
+    public boolean isStale(PriceTick tick) {
+        return tick.isOlderThan(maxAgeMillis, System.currentTimeMillis());
+    }
+
+    // Snapshot of in-memory prices for the given symbols; symbols without a price are left out
+    public Map<String, BigDecimal> getLastPrices(Iterable<String> symbols) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        for (String symbol : symbols) {
+            PriceTick tick = lastPrices.get(symbol.toUpperCase());
+            if (tick != null) {
+                prices.put(tick.symbol(), tick.price());
+            }
+        }
+        return prices;
+    }
+
+    // Prices for a batch of symbols: fresh in-memory prices directly, the rest fetched concurrently
+    // on virtual threads. Waits at most timeoutMillis in total; symbols that did not resolve in
+    // time (or have no price) are missing from the result. Late lookups keep running and still
+    // warm the cache and the feed for the next request.
+    public Map<String, BigDecimal> resolvePrices(Collection<String> symbols, long timeoutMillis) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        Map<String, CompletableFuture<BigDecimal>> pending = new HashMap<>();
+        for (String symbol : symbols) {
+            String key = symbol.toUpperCase();
+            if (prices.containsKey(key) || pending.containsKey(key)) {
+                continue;
+            }
+            BigDecimal fresh = getFreshPrice(key);
+            if (fresh != null) {
+                prices.put(key, fresh);
+            } else {
+                pending.put(key, CompletableFuture.supplyAsync(() -> getPrice(key), lookupExecutor));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Map.Entry<String, CompletableFuture<BigDecimal>> entry : pending.entrySet()) {
+            long remaining = deadline - System.nanoTime();
+            CompletableFuture<BigDecimal> lookup = entry.getValue();
+            try {
+                // Past the deadline only lookups that already succeeded count; get() also
+                // reports one that already failed as an ExecutionException
+                BigDecimal price = remaining > 0 || lookup.isDone()
+                        ? lookup.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS)
+                        : null;
+                if (price != null) {
+                    prices.put(entry.getKey(), price);
+                }
+            } catch (TimeoutException e) {
+                log.debug("Price for {} missed the {} ms deadline", entry.getKey(), timeoutMillis);
+            } catch (ExecutionException e) {
+                log.warn("Price lookup for {} failed: {}", entry.getKey(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return prices;
+    }
+
+    private void publish(String symbol, BigDecimal price, long timestamp) {
+        lastPrices.put(symbol, new PriceTick(symbol, price, timestamp));
+        for (PriceListener listener : listeners) {
+            try {
+                listener.onPrice(symbol, price, timestamp);
+            } catch (Exception e) {
+                log.warn("Price listener failed for {}: {}", symbol, e.getMessage());
+            }
+        }
+    }
+}
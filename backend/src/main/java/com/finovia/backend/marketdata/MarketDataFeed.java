@@ -0,0 +1,16 @@
+package com.finovia.backend.marketdata;
+
+import java.util.Set;
+
+// A source of live prices. The engine tells the feed which symbols it cares about
+// and the feed pushes updates back through the listener from its own thread(s).
+public interface MarketDataFeed {
+
+    void start(Set<String> symbols, PriceListener listener);
+
+    void subscribe(String symbol);
+
+    void unsubscribe(String symbol);
+
+    void stop();
+}
@@ -0,0 +1,9 @@
+package com.finovia.backend.marketdata;
+
+import java.math.BigDecimal;
+
+// Callback invoked by a feed (and re-published by the engine) for every price update
+@FunctionalInterface
+public interface PriceListener {
+    void onPrice(String symbol, BigDecimal price, long timestamp);
+}
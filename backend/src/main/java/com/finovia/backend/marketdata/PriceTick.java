@@ -0,0 +1,10 @@
+package com.finovia.backend.marketdata;
+
+import java.math.BigDecimal;
+
+public record PriceTick(String symbol, BigDecimal price, long timestamp) {
+
+    public boolean isOlderThan(long maxAgeMillis, long now) {
+        return now - timestamp > maxAgeMillis;
+    }
+}
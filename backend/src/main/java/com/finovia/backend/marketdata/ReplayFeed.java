@@ -0,0 +1,103 @@
+package com.finovia.backend.marketdata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Replays prices from a local CSV file so the app can run without Finnhub (offline tests, demos).
+// Each line is "epochMillis,SYMBOL,price"; blank lines and lines starting with '#' are skipped.
+// Gaps between timestamps are replayed scaled by the speed factor; speed <= 0 replays as fast as possible.
+public class ReplayFeed implements MarketDataFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayFeed.class);
+
+    private final Path file;
+    private final double speed;
+    private final boolean loop;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public ReplayFeed(Path file, double speed, boolean loop) {
+        this.file = file;
+        this.speed = speed;
+        this.loop = loop;
+    }
+
+    @Override
+    public void start(Set<String> symbols, PriceListener listener) {
+        List<PriceTick> ticks = load();
+        running = true;
+        thread = new Thread(() -> replay(ticks, listener), "replay-feed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // The replay file decides which symbols exist, so there is nothing to do here
+    @Override
+    public void subscribe(String symbol) {
+    }
+
+    @Override
+    public void unsubscribe(String symbol) {
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void replay(List<PriceTick> ticks, PriceListener listener) {
+        try {
+            do {
+                long previous = -1;
+                for (PriceTick tick : ticks) {
+                    if (!running) {
+                        return;
+                    }
+                    if (previous >= 0 && speed > 0) {
+                        long gap = (long) ((tick.timestamp() - previous) / speed);
+                        if (gap > 0) {
+                            Thread.sleep(gap);
+                        }
+                    }
+                    previous = tick.timestamp();
+                    listener.onPrice(tick.symbol(), tick.price(), System.currentTimeMillis());
+                }
+            } while (loop && running);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<PriceTick> load() {
+        List<PriceTick> ticks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                ticks.add(new PriceTick(parts[1].trim().toUpperCase(), new BigDecimal(parts[2].trim()), Long.parseLong(parts[0].trim())));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read replay file " + file, e);
+        }
+        log.info("Loaded {} replay ticks from {}", ticks.size(), file);
+        return ticks;
+    }
+}
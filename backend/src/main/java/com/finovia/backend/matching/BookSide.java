@@ -0,0 +1,108 @@
+package com.finovia.backend.matching;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// One trigger side of a book: price levels kept in parallel long/level arrays, sorted so the
+// level closest to triggering sits at the end. Triggering pops from the end without shifting.
+final class BookSide {
+
+    // true: a level triggers once the market trades at or below its price (buy limits, sell stops)
+    // false: a level triggers once the market trades at or above its price (sell limits, buy stops)
+    private final boolean triggersAtOrBelow;
+
+    private long[] prices = new long[16];
+    private PriceLevel[] levels = new PriceLevel[16];
+    private int size;
+
+    BookSide(boolean triggersAtOrBelow) {
+        this.triggersAtOrBelow = triggersAtOrBelow;
+    }
+
+    boolean triggers(long levelTicks, long marketTicks) {
+        return triggersAtOrBelow ? marketTicks <= levelTicks : marketTicks >= levelTicks;
+    }
+
+    void add(Order order) {
+        int index = search(order.getPriceTicks());
+        PriceLevel level;
+        if (index >= 0) {
+            level = levels[index];
+        } else {
+            index = -index - 1;
+            level = new PriceLevel(order.getPriceTicks());
+            insertAt(index, level);
+        }
+        level.append(order);
+    }
+
+    void remove(Order order) {
+        PriceLevel level = order.level;
+        level.remove(order);
+        if (level.isEmpty()) {
+            int index = search(level.priceTicks);
+            removeAt(index);
+        }
+    }
+
+    // Removes every order whose level is crossed by the market price, best level first
+    void drainTriggered(long marketTicks, Consumer<Order> sink) {
+        while (size > 0 && triggers(prices[size - 1], marketTicks)) {
+            PriceLevel level = levels[--size];
+            levels[size] = null;
+            Order order = level.head;
+            while (order != null) {
+                Order next = order.next;
+                order.prev = null;
+                order.next = null;
+                order.level = null;
+                sink.accept(order);
+                order = next;
+            }
+        }
+    }
+
+    int levelCount() {
+        return size;
+    }
+
+    // Ascending by price when triggering at-or-below (highest price at the end), descending otherwise
+    private int search(long priceTicks) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(prices[mid], priceTicks);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int compare(long a, long b) {
+        return triggersAtOrBelow ? Long.compare(a, b) : Long.compare(b, a);
+    }
+
+    private void insertAt(int index, PriceLevel level) {
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size << 1);
+            levels = Arrays.copyOf(levels, size << 1);
+        }
+        System.arraycopy(prices, index, prices, index + 1, size - index);
+        System.arraycopy(levels, index, levels, index + 1, size - index);
+        prices[index] = level.priceTicks;
+        levels[index] = level;
+        size++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+        System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+        levels[--size] = null;
+    }
+}
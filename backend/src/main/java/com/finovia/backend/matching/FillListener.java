@@ -0,0 +1,7 @@
+package com.finovia.backend.matching;
+
+// Receives orders taken off the book because the market price crossed them
+@FunctionalInterface
+public interface FillListener {
+    void onFill(Order order, long fillPriceTicks);
+}
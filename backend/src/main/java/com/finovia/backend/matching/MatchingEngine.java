@@ -0,0 +1,193 @@
+package com.finovia.backend.matching;
+
+import com.finovia.backend.marketdata.MarketDataEngine;
+import com.finovia.backend.dto.TradeResult;
+import com.finovia.backend.marketdata.PriceTick;
+import com.finovia.backend.persistence.TradeNotSavedException;
+import com.finovia.backend.service.TradeSequencer;
+import com.finovia.backend.service.TradeService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Holds a book per symbol and fills resting orders as market-data prices cross them.
+// Book mutations are serialized per symbol; fills are handed to the account's TradeSequencer
+// lane so a price tick never waits on the database.
+@Service
+public class MatchingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchingEngine.class);
+
+    @Autowired
+    private MarketDataEngine marketDataEngine;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Value("${trade.persistence.ack-timeout-ms:10000}")
+    private long ackTimeoutMillis;
+
+    private final Map<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final Map<Long, Order> openOrders = new ConcurrentHashMap<>();
+    private final AtomicLong nextOrderId = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        marketDataEngine.addListener((symbol, price, timestamp) -> onPrice(symbol, price));
+        marketDataEngine.addInterest(symbol -> openOrders.values().stream().anyMatch(order -> order.getSymbol().equals(symbol)));
+    }
+
+    public Order submit(long userId, String symbol, OrderSide side, OrderType type, int quantity, BigDecimal price) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive.");
+        }
+        if (type != OrderType.MARKET && (price == null || price.signum() <= 0)) {
+            throw new IllegalArgumentException("A positive price is required for " + type + " orders.");
+        }
+        String key = symbol.toUpperCase();
+        marketDataEngine.watch(key);
+
+        long priceTicks = type == OrderType.MARKET ? 0 : Prices.toTicks(price);
+        Order order = new Order(nextOrderId.incrementAndGet(), userId, key, side, type, priceTicks, quantity);
+
+        if (type == OrderType.MARKET) {
+            BigDecimal marketPrice = marketDataEngine.getPrice(key);
+            if (marketPrice == null) {
+                order.setStatus(OrderStatus.REJECTED, "Could not fetch price for symbol: " + key);
+                return order;
+            }
+            TradeResult result;
+            try {
+                result = tradeSequencer.execute(userId, () -> trade(order, marketPrice));
+            } catch (RuntimeException e) {
+                settle(order, null, e);
+                return order;
+            }
+            // Settles whenever the save completes, also after the caller was answered with a timeout
+            result.persisted().whenComplete((saved, error) -> settle(order, result, error));
+            TradeNotSavedException.await(result.persisted(), ackTimeoutMillis);
+            settle(order, result, null);
+            return order;
+        }
+
+        OrderBook book = books.computeIfAbsent(key, OrderBook::new);
+        List<Fill> fills = new ArrayList<>(1);
+        synchronized (book) {
+            openOrders.put(order.getId(), order);
+            book.add(order, currentTicks(key), (filled, ticks) -> fills.add(new Fill(filled, ticks)));
+        }
+        dispatch(fills);
+        return order;
+    }
+
+    public Order cancel(long userId, long orderId) {
+        Order order = openOrders.get(orderId);
+        if (order == null || order.getUserId() != userId) {
+            return null;
+        }
+        OrderBook book = books.get(order.getSymbol());
+        synchronized (book) {
+            if (book.cancel(orderId) == null) {
+                return null;
+            }
+            openOrders.remove(orderId);
+        }
+        order.setStatus(OrderStatus.CANCELLED, null);
+        return order;
+    }
+
+    public Order replace(long userId, long orderId, BigDecimal price, int quantity) {
+        if (quantity <= 0 || price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("A positive price and quantity are required.");
+        }
+        Order order = openOrders.get(orderId);
+        if (order == null || order.getUserId() != userId) {
+            return null;
+        }
+        OrderBook book = books.get(order.getSymbol());
+        List<Fill> fills = new ArrayList<>(1);
+        Order replaced;
+        synchronized (book) {
+            replaced = book.replace(orderId, Prices.toTicks(price), quantity, currentTicks(order.getSymbol()),
+                    (filled, ticks) -> fills.add(new Fill(filled, ticks)));
+        }
+        dispatch(fills);
+        return replaced;
+    }
+
+    public List<Order> getOpenOrders(long userId) {
+        return openOrders.values().stream()
+                .filter(order -> order.getUserId() == userId)
+                .toList();
+    }
+
+    void onPrice(String symbol, BigDecimal price) {
+        OrderBook book = books.get(symbol);
+        if (book == null) {
+            return;
+        }
+        long ticks = Prices.toTicks(price);
+        List<Fill> fills = new ArrayList<>();
+        synchronized (book) {
+            book.onPrice(ticks, (order, fillTicks) -> fills.add(new Fill(order, fillTicks)));
+        }
+        dispatch(fills);
+    }
+
+    private long currentTicks(String symbol) {
+        PriceTick tick = marketDataEngine.getLastTick(symbol);
+        return tick == null ? 0 : Prices.toTicks(tick.price());
+    }
+
+    private void dispatch(List<Fill> fills) {
+        for (Fill fill : fills) {
+            executeFill(fill.order(), Prices.fromTicks(fill.priceTicks()));
+        }
+    }
+
+    private CompletableFuture<Void> executeFill(Order order, BigDecimal price) {
+        return tradeSequencer.submit(order.getUserId(), () -> trade(order, price))
+                .thenCompose(result -> result.persisted().thenApply(persisted -> result))
+                .handle((result, error) -> {
+                    settle(order, result, error);
+                    return null;
+                });
+    }
+
+    // Runs on the account's lane
+    private TradeResult trade(Order order, BigDecimal price) {
+        long userId = order.getUserId();
+        return order.getSide() == OrderSide.BUY
+                ? tradeService.buy(userId, order.getSymbol(), order.getQuantity(), price)
+                : tradeService.sell(userId, order.getSymbol(), order.getQuantity(), price);
+    }
+
+    private void settle(Order order, TradeResult result, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            log.warn("Fill for order {} failed: {}", order.getId(), cause.getMessage());
+            order.setStatus(OrderStatus.REJECTED, cause.getMessage());
+        } else {
+            order.setStatus(result.success() ? OrderStatus.FILLED : OrderStatus.REJECTED, result.message());
+        }
+        openOrders.remove(order.getId());
+    }
+
+    private record Fill(Order order, long priceTicks) {
+    }
+}
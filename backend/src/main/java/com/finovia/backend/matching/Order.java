@@ -0,0 +1,65 @@
+package com.finovia.backend.matching;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+// A resting (or just-submitted) order. The prev/next/level links make the order its own
+// node in the price level queue so cancels are O(1) once the order is found by id.
+public class Order {
+
+    private final long id;
+    private final long userId;
+    private final String symbol;
+    private final OrderSide side;
+    private final OrderType type;
+    private long priceTicks;
+    private int quantity;
+    private volatile OrderStatus status = OrderStatus.OPEN;
+    private volatile String statusMessage;
+
+    Order prev;
+    Order next;
+    PriceLevel level;
+
+    public Order(long id, long userId, String symbol, OrderSide side, OrderType type, long priceTicks, int quantity) {
+        this.id = id;
+        this.userId = userId;
+        this.symbol = symbol;
+        this.side = side;
+        this.type = type;
+        this.priceTicks = priceTicks;
+        this.quantity = quantity;
+    }
+
+    public long getId() { return id; }
+    public long getUserId() { return userId; }
+    public String getSymbol() { return symbol; }
+    public OrderSide getSide() { return side; }
+    public OrderType getType() { return type; }
+    public int getQuantity() { return quantity; }
+    public OrderStatus getStatus() { return status; }
+    public String getStatusMessage() { return statusMessage; }
+
+    // Limit price for LIMIT orders, trigger price for STOP orders, null for MARKET
+    public BigDecimal getPrice() {
+        return type == OrderType.MARKET ? null : Prices.fromTicks(priceTicks);
+    }
+
+    @JsonIgnore
+    public long getPriceTicks() { return priceTicks; }
+
+    void amend(long priceTicks, int quantity) {
+        this.priceTicks = priceTicks;
+        this.quantity = quantity;
+    }
+
+    public void setStatus(OrderStatus status, String message) {
+        this.status = status;
+        this.statusMessage = message;
+    }
+
+    boolean isResting() {
+        return level != null;
+    }
+}
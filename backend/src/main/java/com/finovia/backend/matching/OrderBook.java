@@ -0,0 +1,95 @@
+package com.finovia.backend.matching;
+
+import com.finovia.backend.util.LongObjectMap;
+
+import java.util.function.Consumer;
+
+// Resting limit and stop orders for one symbol. Orders here never match each other: the
+// simulator fills against the market, so an order leaves the book when the price crosses it.
+// Not thread-safe; MatchingEngine serializes access per book.
+public final class OrderBook {
+
+    private final String symbol;
+
+    private final BookSide buyLimits = new BookSide(true);
+    private final BookSide sellLimits = new BookSide(false);
+    private final BookSide buyStops = new BookSide(false);
+    private final BookSide sellStops = new BookSide(true);
+
+    private final LongObjectMap<Order> orders = new LongObjectMap<>(64);
+
+    // Reused across onPrice calls so draining the book doesn't allocate a lambda per tick
+    private final Consumer<Order> trigger = this::emit;
+    private long drainTicks;
+    private FillListener drainListener;
+
+    public OrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    // Rests the order, or fills it right away when the current market price already crosses it
+    public void add(Order order, long marketTicks, FillListener listener) {
+        BookSide side = sideFor(order);
+        if (marketTicks > 0 && side.triggers(order.getPriceTicks(), marketTicks)) {
+            order.setStatus(OrderStatus.TRIGGERED, null);
+            listener.onFill(order, marketTicks);
+            return;
+        }
+        side.add(order);
+        orders.put(order.getId(), order);
+    }
+
+    public Order cancel(long orderId) {
+        Order order = orders.remove(orderId);
+        if (order == null) {
+            return null;
+        }
+        sideFor(order).remove(order);
+        return order;
+    }
+
+    // Cancel/replace: the order keeps its id but loses its place in the queue
+    public Order replace(long orderId, long priceTicks, int quantity, long marketTicks, FillListener listener) {
+        Order order = cancel(orderId);
+        if (order == null) {
+            return null;
+        }
+        order.amend(priceTicks, quantity);
+        add(order, marketTicks, listener);
+        return order;
+    }
+
+    public void onPrice(long marketTicks, FillListener listener) {
+        drainTicks = marketTicks;
+        drainListener = listener;
+        buyLimits.drainTriggered(marketTicks, trigger);
+        sellLimits.drainTriggered(marketTicks, trigger);
+        buyStops.drainTriggered(marketTicks, trigger);
+        sellStops.drainTriggered(marketTicks, trigger);
+        drainListener = null;
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    private void emit(Order order) {
+        orders.remove(order.getId());
+        order.setStatus(OrderStatus.TRIGGERED, null);
+        drainListener.onFill(order, drainTicks);
+    }
+
+    private BookSide sideFor(Order order) {
+        if (order.getType() == OrderType.LIMIT) {
+            return order.getSide() == OrderSide.BUY ? buyLimits : sellLimits;
+        }
+        if (order.getType() == OrderType.STOP) {
+            return order.getSide() == OrderSide.BUY ? buyStops : sellStops;
+        }
+        throw new IllegalArgumentException("Market orders do not rest on the book");
+    }
+}
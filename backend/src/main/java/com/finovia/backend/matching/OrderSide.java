@@ -0,0 +1,6 @@
+package com.finovia.backend.matching;
+
+public enum OrderSide {
+    BUY,
+    SELL
+}
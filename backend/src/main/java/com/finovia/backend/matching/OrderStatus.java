@@ -0,0 +1,9 @@
+package com.finovia.backend.matching;
+
+public enum OrderStatus {
+    OPEN,
+    TRIGGERED,
+    FILLED,
+    CANCELLED,
+    REJECTED
+}
@@ -0,0 +1,7 @@
+package com.finovia.backend.matching;
+
+public enum OrderType {
+    MARKET,
+    LIMIT,
+    STOP
+}
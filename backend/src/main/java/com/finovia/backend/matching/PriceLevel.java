@@ -0,0 +1,48 @@
+package com.finovia.backend.matching;
+
+// FIFO queue of orders at one price, linked through the orders themselves
+final class PriceLevel {
+
+    final long priceTicks;
+    Order head;
+    Order tail;
+    int orderCount;
+
+    PriceLevel(long priceTicks) {
+        this.priceTicks = priceTicks;
+    }
+
+    void append(Order order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        orderCount++;
+    }
+
+    void remove(Order order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        order.prev = null;
+        order.next = null;
+        order.level = null;
+        orderCount--;
+    }
+
+    boolean isEmpty() {
+        return orderCount == 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.finovia.backend.matching;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Order book prices are kept as long ticks of 1/10000 so the book never compares BigDecimals
+public final class Prices {
+
+    public static final int SCALE = 4;
+
+    private Prices() {
+    }
+
+    public static long toTicks(BigDecimal price) {
+        return price.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromTicks(long ticks) {
+        return BigDecimal.valueOf(ticks, SCALE);
+    }
+}
@@ -0,0 +1,63 @@
+package com.finovia.backend.persistence;
+
+import com.finovia.backend.account.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Folds a batch of trade effects into one increment per user and day, which the flush then
+// upserts into daily_summaries. This is all the work the daily summary costs per trade.
+public final class DailyRollup {
+
+    private DailyRollup() {
+    }
+
+    public static Collection<Delta> aggregate(List<TradeEffect> batch) {
+        Map<Key, Delta> deltas = new LinkedHashMap<>();
+        for (TradeEffect effect : batch) {
+            Delta delta = deltas.computeIfAbsent(new Key(effect.userId(), effect.timestamp().toLocalDate()),
+                    key -> new Delta(key.userId(), key.day()));
+            long value = Money.times(effect.pricePerShareMicros(), effect.quantity());
+            delta.trades++;
+            delta.volume += effect.quantity();
+            if (effect.isBuy()) {
+                delta.buyValue += value;
+            } else {
+                delta.sellValue += value;
+                delta.realizedPnl += effect.realizedPnlMicros();
+            }
+        }
+        return deltas.values();
+    }
+
+    private record Key(long userId, LocalDate day) {
+    }
+
+    public static final class Delta {
+        private final long userId;
+        private final LocalDate day;
+        private int trades;
+        private long volume;
+        // Money micro-units, converted by the getters for the upsert
+        private long buyValue;
+        private long sellValue;
+        private long realizedPnl;
+
+        private Delta(long userId, LocalDate day) {
+            this.userId = userId;
+            this.day = day;
+        }
+
+        public long getUserId() { return userId; }
+        public LocalDate getDay() { return day; }
+        public int getTrades() { return trades; }
+        public long getVolume() { return volume; }
+        public BigDecimal getBuyValue() { return Money.toDecimal(buyValue); }
+        public BigDecimal getSellValue() { return Money.toDecimal(sellValue); }
+        public BigDecimal getRealizedPnl() { return Money.toDecimal(realizedPnl); }
+    }
+}
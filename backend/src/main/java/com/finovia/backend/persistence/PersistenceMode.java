@@ -0,0 +1,8 @@
+package com.finovia.backend.persistence;
+
+public enum PersistenceMode {
+    // The order is acknowledged only after its batch has committed
+    DURABLE,
+    // The order is acknowledged as soon as it is queued; the batch commits shortly after
+    WRITE_BEHIND
+}
@@ -0,0 +1,57 @@
+package com.finovia.backend.persistence;
+
+import com.finovia.backend.account.LotChange;
+import com.finovia.backend.account.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+// Everything one trade changed, captured after the fact: the account's new balance and realized
+// P&L, the new state of the traded holding (quantity 0 means delete) and its lots, and the
+// transaction row to insert. Amounts are Money micro-units; the BigDecimal accessors convert them
+// for JDBC on the write-behind thread, off the sequencer lane. realizedPnl() is null for buys.
+public record TradeEffect(
+        long userId,
+        long balanceAfterMicros,
+        long accountRealizedPnlAfterMicros,
+        String stockSymbol,
+        int holdingQuantityAfter,
+        long holdingCostBasisAfterMicros,
+        LotChange lotChange,
+        String transactionType,
+        int quantity,
+        long pricePerShareMicros,
+        long realizedPnlMicros,
+        LocalDateTime timestamp,
+        CompletableFuture<Void> flushed) {
+
+    public boolean isBuy() {
+        return "BUY".equals(transactionType);
+    }
+
+    public BigDecimal balanceAfter() {
+        return Money.toDecimal(balanceAfterMicros);
+    }
+
+    public BigDecimal accountRealizedPnlAfter() {
+        return Money.toDecimal(accountRealizedPnlAfterMicros);
+    }
+
+    public BigDecimal holdingAveragePriceAfter() {
+        return holdingQuantityAfter == 0 ? BigDecimal.ZERO
+                : Money.toDecimal(Money.divide(holdingCostBasisAfterMicros, holdingQuantityAfter));
+    }
+
+    public BigDecimal holdingCostBasisAfter() {
+        return Money.toDecimal(holdingCostBasisAfterMicros);
+    }
+
+    public BigDecimal pricePerShare() {
+        return Money.toDecimal(pricePerShareMicros);
+    }
+
+    public BigDecimal realizedPnl() {
+        return isBuy() ? null : Money.toDecimal(realizedPnlMicros);
+    }
+}
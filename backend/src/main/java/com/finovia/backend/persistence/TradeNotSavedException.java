@@ -0,0 +1,29 @@
+package com.finovia.backend.persistence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// A trade was applied in memory but is not confirmed as saved: the write-behind flush failed, or
+// did not finish within trade.persistence.ack-timeout-ms. Endpoints answer it with a 503.
+public class TradeNotSavedException extends RuntimeException {
+
+    public TradeNotSavedException(String message) {
+        super(message);
+    }
+
+    // Waits for a trade's persisted future for at most timeoutMillis
+    public static void await(CompletableFuture<Void> persisted, long timeoutMillis) {
+        try {
+            persisted.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TradeNotSavedException("The trade was executed but is not confirmed as saved yet; check your transactions before retrying.");
+        } catch (ExecutionException e) {
+            throw new TradeNotSavedException("The trade could not be saved: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TradeNotSavedException("Interrupted while saving the trade.");
+        }
+    }
+}
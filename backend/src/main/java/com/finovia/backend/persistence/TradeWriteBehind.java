@@ -0,0 +1,469 @@
+package com.finovia.backend.persistence;
+
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.account.LotChange;
+import com.finovia.backend.account.TaxLot;
+import com.finovia.backend.journal.Journal;
+import com.finovia.backend.service.TradeSequencer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Groups trade effects from all sequencer lanes into JDBC batches. One flush is one database
+// transaction: balances and holdings are coalesced to their latest value per key, transaction
+// rows are batch-inserted, and ids come from transactions_seq in the same blocks Hibernate uses.
+// Daily rollups are incremented in the same transaction, so they never disagree with the rows.
+// Effects are journaled as they are queued, in the same order, and each flush also records the
+// highest journal seq it committed, so recovery knows exactly which journaled effects to resubmit.
+// A failing batch is retried group by group, so one bad effect only fails its own group. Its user
+// is then fenced: later effects were made on memory that still holds the failed trade, so they are
+// failed without being written until the account's lane has invalidated it and queued a release.
+// It stops in the lifecycle phase after TradeSequencer, so the lanes have drained into the queue
+// before the last flush; anything submitted after that fails instead of being dropped.
+@Service
+public class TradeWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeWriteBehind.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    // Must match the allocationSize of the Transaction entity's sequence generator
+    private static final int ID_BLOCK_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AccountStore accountStore;
+
+    @Autowired
+    private TradeSequencer tradeSequencer;
+
+    @Autowired
+    private Journal journal;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${trade.persistence.mode:DURABLE}")
+    private PersistenceMode mode;
+
+    @Value("${trade.persistence.batch-size:500}")
+    private int batchSize;
+
+    @Value("${trade.persistence.flush-interval-ms:5}")
+    private long flushIntervalMillis;
+
+    @Value("${trade.persistence.queue-capacity:50000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Group> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread flusher;
+    private volatile boolean running;
+    private volatile boolean closed;
+
+    private Timer flushTimer;
+    private Timer commitLagTimer;
+    private DistributionSummary batchSizes;
+    private Counter failedEffects;
+
+    private long nextTransactionId;
+    private long lastTransactionId = -1;
+    private boolean sequenceAligned;
+
+    // Highest journal seq whose effect has been committed or given up on
+    private volatile long processedSeq;
+
+    // Users with a failed group whose invalidation has not come through the queue yet
+    private final Set<Long> fenced = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flushTimer = Timer.builder("trade.persistence.flush").register(meterRegistry);
+        // From the trade being applied in memory to its batch committing
+        commitLagTimer = Timer.builder("trade.persistence.commit.lag").register(meterRegistry);
+        batchSizes = DistributionSummary.builder("trade.persistence.batch.size").register(meterRegistry);
+        failedEffects = Counter.builder("trade.persistence.failures").register(meterRegistry);
+        Gauge.builder("trade.persistence.queued", this, writeBehind -> writeBehind.queue.size()).register(meterRegistry);
+        running = true;
+        flusher = new Thread(this::run, "trade-write-behind");
+        flusher.start();
+    }
+
+    // Drains whatever is still queued before the datasource goes away
+    @Override
+    public void stop() {
+        closed = true;
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Stopped with {} trade groups still queued; they are left to journal recovery", queue.size());
+        }
+    }
+
+    // The flusher already runs from @PostConstruct, so recovery can resubmit before the context starts
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return TradeSequencer.PHASE - 1024;
+    }
+
+    // Queues the effect, blocking the caller's lane when the queue is full (backpressure).
+    // The returned future completes once the effect is committed in DURABLE mode, immediately otherwise.
+    public CompletableFuture<Void> submit(TradeEffect effect) {
+        return submitAll(List.of(effect));
+    }
+
+    // Queues effects that must commit together: a group is never split across flushes
+    public CompletableFuture<Void> submitAll(List<TradeEffect> effects) {
+        if (effects.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Trade persistence is shut down."));
+        }
+        journal.appendEffects(effects, seq -> enqueue(new Group(effects, seq, null)));
+        if (mode != PersistenceMode.DURABLE) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return effects.size() == 1
+                ? effects.get(0).flushed()
+                : CompletableFuture.allOf(effects.stream().map(TradeEffect::flushed).toArray(CompletableFuture[]::new));
+    }
+
+    // Recovery: queues effects that are already journaled (as seq) but were never committed
+    public void resubmit(List<TradeEffect> effects, long seq) {
+        enqueue(new Group(effects, seq, null));
+    }
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    public long getProcessedSeq() {
+        return processedSeq;
+    }
+
+    private void enqueue(Group group) {
+        try {
+            queue.put(group);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing trade for persistence");
+        }
+    }
+
+    private void run() {
+        List<Group> batch = new ArrayList<>();
+        int batchEffects = 0;
+        long batchSeq = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                Group first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                batchEffects += first.effects().size();
+                batchSeq = first.seq();
+                // Linger up to the flush interval so concurrent trades share one commit.
+                // Groups are taken whole, so a batch can exceed batchSize by part of one group.
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batchEffects < batchSize) {
+                    Group next = queue.poll();
+                    if (next == null) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                    }
+                    batch.add(next);
+                    batchEffects += next.effects().size();
+                    batchSeq = Math.max(batchSeq, next.seq());
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts us; keep looping until the queue is drained
+                Group next;
+                while (batchEffects < batchSize && (next = queue.poll()) != null) {
+                    batch.add(next);
+                    batchEffects += next.effects().size();
+                    batchSeq = Math.max(batchSeq, next.seq());
+                }
+            }
+            if (!batch.isEmpty()) {
+                flush(batch, batchSeq);
+                batch.clear();
+                batchEffects = 0;
+                batchSeq = 0;
+            }
+        }
+    }
+
+    private void flush(List<Group> batch, long batchSeq) {
+        try {
+            List<Group> writable = unfenced(batch);
+            if (!writable.isEmpty() && commit(writable, batchSeq, 1) != null) {
+                // Something in the batch is bad: retry each group on its own so only it fails
+                for (Group group : writable) {
+                    if (fenced.contains(group.userId())) {
+                        drop(group);
+                        continue;
+                    }
+                    RuntimeException failure = commit(List.of(group), group.seq(), MAX_ATTEMPTS);
+                    if (failure != null) {
+                        fail(group, failure);
+                    }
+                }
+            }
+        } finally {
+            processedSeq = Math.max(processedSeq, batchSeq);
+        }
+    }
+
+    // Applies releases and drops groups of fenced users, in queue order
+    private List<Group> unfenced(List<Group> batch) {
+        List<Group> writable = new ArrayList<>(batch.size());
+        for (Group group : batch) {
+            if (group.released() != null) {
+                fenced.remove(group.released());
+            } else if (fenced.contains(group.userId())) {
+                drop(group);
+            } else {
+                writable.add(group);
+            }
+        }
+        return writable;
+    }
+
+    // Returns null once committed, or the last failure after the given number of attempts
+    private RuntimeException commit(List<Group> groups, long batchSeq, int attempts) {
+        List<TradeEffect> batch = new ArrayList<>();
+        for (Group group : groups) {
+            batch.addAll(group.effects());
+        }
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            try {
+                flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> write(batch, batchSeq)));
+                batchSizes.record(batch.size());
+                LocalDateTime committedAt = LocalDateTime.now();
+                for (TradeEffect effect : batch) {
+                    commitLagTimer.record(Duration.between(effect.timestamp(), committedAt));
+                    effect.flushed().complete(null);
+                }
+                return null;
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("Flushing {} trade effects failed (attempt {}/{}): {}", batch.size(), attempt, attempts, e.getMessage());
+            }
+        }
+        return failure;
+    }
+
+    private void fail(Group group, RuntimeException failure) {
+        long userId = group.userId();
+        log.error("Giving up on {} trade effects of user {}; the account will be reloaded from the database",
+                group.effects().size(), userId, failure);
+        // Fence before anything else is written: the lane may already have traded on top of this group
+        fenced.add(userId);
+        failedEffects.increment(group.effects().size());
+        // Memory is now ahead of the database, so force a reload on the account's own lane, ahead of
+        // anything the caller does after seeing the failure. The invalidation is journaled, so recovery
+        // does not resubmit these effects either, and the release it queues comes after every effect
+        // the lane made from the stale state.
+        tradeSequencer.submit(userId, () -> {
+            accountStore.invalidate(userId);
+            enqueue(new Group(List.of(), 0, userId));
+            return null;
+        });
+        group.effects().forEach(effect -> effect.flushed().completeExceptionally(failure));
+    }
+
+    private void drop(Group group) {
+        failedEffects.increment(group.effects().size());
+        IllegalStateException failure = new IllegalStateException("Trade could not be saved after an earlier trade failed.");
+        group.effects().forEach(effect -> effect.flushed().completeExceptionally(failure));
+    }
+
+    private void write(List<TradeEffect> batch, long batchSeq) {
+        Map<Long, TradeEffect> latestBalance = new LinkedHashMap<>();
+        Map<String, TradeEffect> latestHolding = new LinkedHashMap<>();
+        for (TradeEffect effect : batch) {
+            latestBalance.put(effect.userId(), effect);
+            latestHolding.put(effect.userId() + ":" + effect.stockSymbol(), effect);
+        }
+
+        List<Object[]> balanceRows = new ArrayList<>(latestBalance.size());
+        for (TradeEffect effect : latestBalance.values()) {
+            balanceRows.add(new Object[]{effect.balanceAfter(), effect.accountRealizedPnlAfter(), effect.userId()});
+        }
+        jdbcTemplate.batchUpdate("UPDATE users SET virtual_balance = ?, realized_pnl = ? WHERE id = ?", balanceRows);
+
+        List<TradeEffect> upserts = new ArrayList<>();
+        List<Object[]> deleteRows = new ArrayList<>();
+        for (TradeEffect effect : latestHolding.values()) {
+            if (effect.holdingQuantityAfter() == 0) {
+                deleteRows.add(new Object[]{effect.userId(), effect.stockSymbol()});
+            } else {
+                upserts.add(effect);
+            }
+        }
+        if (!deleteRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM holdings WHERE user_id = ? AND stock_symbol = ?", deleteRows);
+        }
+        if (!upserts.isEmpty()) {
+            List<Object[]> upsertRows = new ArrayList<>(upserts.size());
+            for (TradeEffect effect : upserts) {
+                upsertRows.add(new Object[]{effect.userId(), effect.stockSymbol(), effect.holdingQuantityAfter(),
+                        effect.holdingAveragePriceAfter(), effect.holdingCostBasisAfter()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO holdings (user_id, stock_symbol, quantity, average_purchase_price, cost_basis) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (user_id, stock_symbol) DO UPDATE SET quantity = EXCLUDED.quantity, "
+                    + "average_purchase_price = EXCLUDED.average_purchase_price, cost_basis = EXCLUDED.cost_basis", upsertRows);
+        }
+
+        writeLots(batch);
+
+        List<Object[]> transactionRows = new ArrayList<>(batch.size());
+        for (TradeEffect effect : batch) {
+            transactionRows.add(new Object[]{nextTransactionId(), effect.userId(), effect.stockSymbol(), effect.transactionType(),
+                    effect.quantity(), effect.pricePerShare(), Timestamp.valueOf(effect.timestamp()), effect.realizedPnl()});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transactions (id, user_id, stock_symbol, transaction_type, quantity, price_per_share, timestamp, realized_pnl) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                transactionRows);
+
+        writeDailySummaries(batch);
+
+        if (batchSeq > 0) {
+            jdbcTemplate.update("UPDATE journal_checkpoint SET committed_seq = ? WHERE id = 1 AND committed_seq < ?", batchSeq, batchSeq);
+        }
+    }
+
+    // Lot changes are replayed rather than coalesced. Running all inserts, then all cut-off deletes,
+    // then all partial updates gives the same end state as applying the effects one by one:
+    // cut-offs only grow, later partial updates win, and inserted seqs are above earlier cut-offs.
+    private void writeLots(List<TradeEffect> batch) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (TradeEffect effect : batch) {
+            LotChange change = effect.lotChange();
+            if (change.added() != null) {
+                TaxLot lot = change.added();
+                inserts.add(new Object[]{effect.userId(), effect.stockSymbol(), lot.seq(), lot.quantity(), lot.price(), Timestamp.valueOf(lot.openedAt())});
+            }
+            if (change.consumedBeforeSeq() > 0) {
+                deletes.add(new Object[]{effect.userId(), effect.stockSymbol(), change.consumedBeforeSeq()});
+            }
+            if (change.partialSeq() > 0) {
+                updates.add(new Object[]{change.partialRemaining(), effect.userId(), effect.stockSymbol(), change.partialSeq()});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO holding_lots (user_id, stock_symbol, lot_seq, quantity, price, opened_at) VALUES (?, ?, ?, ?, ?, ?)", inserts);
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM holding_lots WHERE user_id = ? AND stock_symbol = ? AND lot_seq < ?", deletes);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE holding_lots SET quantity = ? WHERE user_id = ? AND stock_symbol = ? AND lot_seq = ?", updates);
+        }
+    }
+
+    private void writeDailySummaries(List<TradeEffect> batch) {
+        Collection<DailyRollup.Delta> deltas = DailyRollup.aggregate(batch);
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (DailyRollup.Delta delta : deltas) {
+            rows.add(new Object[]{delta.getUserId(), delta.getDay(), delta.getTrades(), delta.getVolume(),
+                    delta.getBuyValue(), delta.getSellValue(), delta.getRealizedPnl()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO daily_summaries (user_id, trade_date, total_trades, total_volume, buy_value, sell_value, realized_pnl) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (user_id, trade_date) DO UPDATE SET "
+                + "total_trades = daily_summaries.total_trades + EXCLUDED.total_trades, "
+                + "total_volume = daily_summaries.total_volume + EXCLUDED.total_volume, "
+                + "buy_value = daily_summaries.buy_value + EXCLUDED.buy_value, "
+                + "sell_value = daily_summaries.sell_value + EXCLUDED.sell_value, "
+                + "realized_pnl = daily_summaries.realized_pnl + EXCLUDED.realized_pnl", rows);
+    }
+
+    // Effects of one user queued together, and the journal seq of the last one (0 with the journal
+    // disabled). A group with released set carries no effects and lifts that user's fence.
+    private record Group(List<TradeEffect> effects, long seq, Long released) {
+
+        long userId() {
+            return effects.get(0).userId();
+        }
+    }
+
+    // Same pooled scheme as Hibernate: nextval returns the top of a block of ID_BLOCK_SIZE ids
+    private long nextTransactionId() {
+        if (nextTransactionId > lastTransactionId) {
+            if (!sequenceAligned) {
+                alignSequence();
+            }
+            long hi = jdbcTemplate.queryForObject("SELECT nextval('transactions_seq')", Long.class);
+            nextTransactionId = Math.max(1, hi - ID_BLOCK_SIZE + 1);
+            lastTransactionId = hi;
+        }
+        return nextTransactionId++;
+    }
+
+    // Rows inserted while ids were IDENTITY-generated may sit above the sequence; move it past them
+    private void alignSequence() {
+        jdbcTemplate.execute("SELECT setval('transactions_seq', (SELECT COALESCE(MAX(id), 0) + " + ID_BLOCK_SIZE + " FROM transactions)) "
+                + "WHERE (SELECT last_value FROM transactions_seq) <= (SELECT COALESCE(MAX(id), 0) FROM transactions)");
+        sequenceAligned = true;
+    }
+}
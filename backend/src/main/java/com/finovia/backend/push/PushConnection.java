@@ -0,0 +1,108 @@
+package com.finovia.backend.push;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// One open SSE stream. Events are conflated by key (one per symbol's price, one portfolio
+// snapshot, one fill per symbol): offering a new value replaces the unsent one, so a slow client
+// only ever has the latest state pending and never builds a backlog.
+public class PushConnection {
+
+    private final String id;
+    private final long userId;
+    private final SseEmitter emitter;
+    private final boolean portfolio;
+    private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+
+    // Insertion-ordered so events go out in roughly the order they first became pending
+    private final Map<String, PendingEvent> pending = new LinkedHashMap<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile boolean closed;
+
+    public PushConnection(String id, long userId, SseEmitter emitter, boolean portfolio) {
+        this.id = id;
+        this.userId = userId;
+        this.emitter = emitter;
+        this.portfolio = portfolio;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    // Whether this stream receives the owner's portfolio snapshots and fills
+    public boolean wantsPortfolio() {
+        return portfolio;
+    }
+
+    public Set<String> getSymbols() {
+        return symbols;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    // Returns true when an unsent value for the same key was overwritten. A Supplier as data is
+    // evaluated only when the event is actually sent.
+    public synchronized boolean offer(String key, String eventName, Object data) {
+        return pending.put(key, new PendingEvent(eventName, data)) != null;
+    }
+
+    public synchronized boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    // Sends everything pending. Only one send runs per connection at a time; if a previous send
+    // is still blocked on a slow client this returns 0 and the values keep conflating.
+    public int drain() throws IOException {
+        if (closed || !sending.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int sent = 0;
+            PendingEvent event;
+            while ((event = next()) != null) {
+                Object data = event.data() instanceof Supplier<?> supplier ? supplier.get() : event.data();
+                emitter.send(SseEmitter.event().name(event.name()).data(data));
+                sent++;
+            }
+            return sent;
+        } finally {
+            sending.set(false);
+        }
+    }
+
+    private synchronized PendingEvent next() {
+        Iterator<PendingEvent> iterator = pending.values().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        PendingEvent event = iterator.next();
+        iterator.remove();
+        return event;
+    }
+
+    private record PendingEvent(String name, Object data) {
+    }
+}
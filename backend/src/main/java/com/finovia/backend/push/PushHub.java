@@ -0,0 +1,281 @@
+package com.finovia.backend.push;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.marketdata.MarketDataEngine;
+import com.finovia.backend.marketdata.PriceTick;
+import com.finovia.backend.service.TradeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Fans price ticks, fills and portfolio snapshots out to open SSE streams.
+// Producers (the market data engine and trade lanes) only mark values pending on each interested
+// connection; a flusher sends whatever is pending every flush interval, one virtual thread per
+// connection, so a slow client delays only itself and receives just the latest values.
+@Service
+public class PushHub {
+
+    private static final Logger log = LoggerFactory.getLogger(PushHub.class);
+
+    @Autowired
+    private MarketDataEngine marketDataEngine;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private AccountStore accountStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${push.flush-interval-ms:250}")
+    private long flushIntervalMillis;
+
+    @Value("${push.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+
+    // Clients reconnect when a stream times out; EventSource does this on its own
+    @Value("${push.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${push.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${push.max-symbols-per-connection:50}")
+    private int maxSymbolsPerConnection;
+
+    private final Map<String, PushConnection> connections = new ConcurrentHashMap<>();
+    private final Map<String, Set<PushConnection>> bySymbol = new ConcurrentHashMap<>();
+    private final Map<Long, Set<PushConnection>> byUser = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private Counter sentEvents;
+    private Counter conflatedEvents;
+
+    @PostConstruct
+    public void start() {
+        sentEvents = Counter.builder("push.events.sent").register(meterRegistry);
+        conflatedEvents = Counter.builder("push.events.conflated").register(meterRegistry);
+        Gauge.builder("push.connections", connections, Map::size).register(meterRegistry);
+
+        marketDataEngine.addListener(this::onPrice);
+        marketDataEngine.addInterest(bySymbol::containsKey);
+        tradeService.addListener(this::onTrade);
+        accountStore.addInvalidationListener(this::onInvalidated);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "push-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        connections.values().forEach(connection -> connection.getEmitter().complete());
+    }
+
+    public PushConnection open(long userId, Collection<String> symbols, boolean portfolio) {
+        PushConnection connection = new PushConnection(UUID.randomUUID().toString(), userId, new SseEmitter(timeoutMillis), portfolio);
+        // Check and add in one step on the user's entry, so concurrent opens cannot pass the cap
+        // and a concurrent close cannot drop the entry this connection is being added to
+        byUser.compute(userId, (id, own) -> {
+            Set<PushConnection> current = own != null ? own : ConcurrentHashMap.newKeySet();
+            if (current.size() >= maxConnectionsPerUser) {
+                throw new IllegalStateException("Too many open streams for this user.");
+            }
+            current.add(connection);
+            return current;
+        });
+
+        connection.getEmitter().onCompletion(() -> close(connection));
+        connection.getEmitter().onTimeout(() -> close(connection));
+        connection.getEmitter().onError(error -> close(connection));
+        connections.put(connection.getId(), connection);
+
+        connection.offer("connected", "connected", Map.of("connectionId", connection.getId()));
+        subscribe(connection, symbols);
+        if (portfolio) {
+            connection.offer("portfolio", "portfolio", portfolioSnapshot(userId));
+        }
+        return connection;
+    }
+
+    // Replaces the connection's symbol subscriptions; false if it is not this user's open stream
+    public boolean updateSymbols(long userId, String connectionId, Collection<String> symbols) {
+        PushConnection connection = connections.get(connectionId);
+        if (connection == null || connection.getUserId() != userId) {
+            return false;
+        }
+        for (String symbol : Set.copyOf(connection.getSymbols())) {
+            unsubscribe(connection, symbol);
+        }
+        subscribe(connection, symbols);
+        return true;
+    }
+
+    private void subscribe(PushConnection connection, Collection<String> symbols) {
+        List<String> normalized = symbols.stream()
+                .map(String::trim)
+                .filter(symbol -> !symbol.isEmpty())
+                .map(String::toUpperCase)
+                .distinct()
+                .limit(maxSymbolsPerConnection)
+                .toList();
+        for (String symbol : normalized) {
+            connection.getSymbols().add(symbol);
+            bySymbol.computeIfAbsent(symbol, key -> ConcurrentHashMap.newKeySet()).add(connection);
+            marketDataEngine.watch(symbol);
+            // Start the client from the last known price rather than waiting for the next tick
+            PriceTick tick = marketDataEngine.getLastTick(symbol);
+            if (tick != null) {
+                connection.offer("price:" + symbol, "price", tick);
+            }
+        }
+    }
+
+    private void unsubscribe(PushConnection connection, String symbol) {
+        connection.getSymbols().remove(symbol);
+        bySymbol.computeIfPresent(symbol, (key, subscribers) -> {
+            subscribers.remove(connection);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void close(PushConnection connection) {
+        if (connection.isClosed()) {
+            return;
+        }
+        connection.close();
+        connections.remove(connection.getId());
+        byUser.computeIfPresent(connection.getUserId(), (key, own) -> {
+            own.remove(connection);
+            return own.isEmpty() ? null : own;
+        });
+        for (String symbol : Set.copyOf(connection.getSymbols())) {
+            unsubscribe(connection, symbol);
+        }
+    }
+
+    private void onPrice(String symbol, BigDecimal price, long timestamp) {
+        Set<PushConnection> subscribers = bySymbol.get(symbol);
+        if (subscribers == null) {
+            return;
+        }
+        PriceTick tick = new PriceTick(symbol, price, timestamp);
+        for (PushConnection connection : subscribers) {
+            if (connection.offer("price:" + symbol, "price", tick)) {
+                conflatedEvents.increment();
+            }
+        }
+    }
+
+    private void onTrade(long userId, String symbol, String transactionType, int quantity, BigDecimal price, long timestamp) {
+        Set<PushConnection> own = byUser.get(userId);
+        if (own == null) {
+            return;
+        }
+        FillEvent fill = new FillEvent(symbol, transactionType, quantity, price, timestamp);
+        Supplier<Map<String, Object>> snapshot = () -> portfolioSnapshot(userId);
+        for (PushConnection connection : own) {
+            if (!connection.wantsPortfolio()) {
+                continue;
+            }
+            if (connection.offer("fill:" + symbol, "fill", fill)) {
+                conflatedEvents.increment();
+            }
+            // Built when sent, so several trades in one interval cost one snapshot
+            if (connection.offer("portfolio", "portfolio", snapshot)) {
+                conflatedEvents.increment();
+            }
+        }
+    }
+
+    // Fills are pushed when applied, before they are saved; if one failed to save, the account was
+    // reloaded and the client gets the corrected portfolio
+    private void onInvalidated(long userId) {
+        Set<PushConnection> own = byUser.get(userId);
+        if (own == null) {
+            return;
+        }
+        Supplier<Map<String, Object>> snapshot = () -> portfolioSnapshot(userId);
+        for (PushConnection connection : own) {
+            if (connection.wantsPortfolio() && connection.offer("portfolio", "portfolio", snapshot)) {
+                conflatedEvents.increment();
+            }
+        }
+    }
+
+    private void flushAll() {
+        for (PushConnection connection : connections.values()) {
+            if (connection.hasPending()) {
+                senders.execute(() -> send(connection));
+            }
+        }
+    }
+
+    private void send(PushConnection connection) {
+        try {
+            int sent = connection.drain();
+            if (sent > 0) {
+                sentEvents.increment(sent);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks may not fire for a broken pipe, so clean up here
+            log.debug("Closing push stream {}: {}", connection.getId(), e.getMessage());
+            close(connection);
+            connection.getEmitter().completeWithError(e);
+        }
+    }
+
+    // Keeps idle streams alive through proxies and surfaces dead connections as send failures
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (PushConnection connection : connections.values()) {
+            connection.offer("heartbeat", "heartbeat", now);
+        }
+    }
+
+    private Map<String, Object> portfolioSnapshot(long userId) {
+        AccountState account = accountStore.get(userId);
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("virtualBalance", account.getBalance());
+        snapshot.put("realizedPnl", account.getRealizedPnl());
+        snapshot.put("holdings", List.copyOf(account.getPositions()));
+        return snapshot;
+    }
+
+    public record FillEvent(String symbol, String transactionType, int quantity, BigDecimal price, long timestamp) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.finovia.backend.repository;
+
+import com.finovia.backend.entity.DailySummary;
+import com.finovia.backend.entity.DailySummaryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DailySummaryRepository extends JpaRepository<DailySummary, DailySummaryId> {
+}
@@ -0,0 +1,10 @@
+package com.finovia.backend.repository;
+
+import com.finovia.backend.entity.HoldingLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface HoldingLotRepository extends JpaRepository<HoldingLot, Long> {
+    List<HoldingLot> findByUserIdOrderByStockSymbolAscLotSeqAsc(Long userId);
+}
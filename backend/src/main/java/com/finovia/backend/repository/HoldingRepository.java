@@ -3,10 +3,15 @@ package com.finovia.backend.repository;
 import com.finovia.backend.entity.Holding;
 import com.finovia.backend.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
 import java.util.Optional;
 import java.util.List;
 
 public interface HoldingRepository extends JpaRepository<Holding, Long> {
     Optional<Holding> findByUserAndStockSymbol(User user, String stockSymbol);
     List<Holding> findByUser(User user);
-}
\ No newline at end of file
+
+    @Query("SELECT DISTINCT h.stockSymbol FROM Holding h")
+    List<String> findDistinctStockSymbols();
+}
@@ -1,15 +1,43 @@
 package com.finovia.backend.repository;
 
+import com.finovia.backend.dto.TransactionView;
 import com.finovia.backend.entity.Transaction;
 import com.finovia.backend.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByUserOrderByTimestampDesc(User user);
     List<Transaction> findByUserAndTimestampBetweenOrderByTimestampDesc(User user, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    // Newest-first history ordered by (timestamp, id) so pages are stable even when timestamps tie.
+    // Only the page size is passed through the Pageable; keyset queries never use an offset.
+    @Query("SELECT new com.finovia.backend.dto.TransactionView(t.id, t.stockSymbol, t.transactionType, t.quantity, t.pricePerShare, t.timestamp, t.realizedPnl) "
+            + "FROM Transaction t WHERE t.user.id = :userId ORDER BY t.timestamp DESC, t.id DESC")
+    List<TransactionView> findLatest(@Param("userId") Long userId, Pageable limit);
+
+    @Query("SELECT new com.finovia.backend.dto.TransactionView(t.id, t.stockSymbol, t.transactionType, t.quantity, t.pricePerShare, t.timestamp, t.realizedPnl) "
+            + "FROM Transaction t WHERE t.user.id = :userId "
+            + "AND (t.timestamp < :timestamp OR (t.timestamp = :timestamp AND t.id < :id)) "
+            + "ORDER BY t.timestamp DESC, t.id DESC")
+    List<TransactionView> findPageBefore(@Param("userId") Long userId, @Param("timestamp") LocalDateTime timestamp,
+                                         @Param("id") Long id, Pageable limit);
+
+    // Must be consumed inside a read-only transaction; rows arrive from the driver in fetch-size chunks
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT new com.finovia.backend.dto.TransactionView(t.id, t.stockSymbol, t.transactionType, t.quantity, t.pricePerShare, t.timestamp, t.realizedPnl) "
+            + "FROM Transaction t WHERE t.user.id = :userId ORDER BY t.timestamp DESC, t.id DESC")
+    Stream<TransactionView> streamByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,13 @@
+package com.finovia.backend.security;
+
+import java.security.Principal;
+
+// What the security context holds for a JWT-authenticated request: enough to address the
+// account without loading the User entity. getName() keeps Authentication.getName() working.
+public record AuthenticatedUser(long id, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
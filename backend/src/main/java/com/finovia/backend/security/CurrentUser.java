@@ -0,0 +1,23 @@
+package com.finovia.backend.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+// Resolves the calling user from the security context, no database access
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    public static AuthenticatedUser get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new IllegalStateException("No authenticated user");
+    }
+
+    public static long id() {
+        return get().id();
+    }
+}
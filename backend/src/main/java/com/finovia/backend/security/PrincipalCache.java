@@ -0,0 +1,63 @@
+package com.finovia.backend.security;
+
+import com.finovia.backend.entity.User;
+import com.finovia.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Users that have presented a valid token, keyed by the uid claim. Only the first request of a
+// user after startup (or after invalidation) loads the row; later requests resolve from memory.
+// Entries are dropped whenever the User entity changes, so a renamed or deleted user's old
+// tokens stop resolving.
+@Component
+public class PrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${auth.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<Long, AuthenticatedUser> principals = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // The principal for a token's uid and subject, or null when no such user exists any more
+    public AuthenticatedUser get(long userId, String username) {
+        AuthenticatedUser cached = principals.get(userId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached.username().equals(username) ? cached : null;
+        }
+        misses.incrementAndGet();
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null || !user.getUsername().equals(username)) {
+            return null;
+        }
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getUsername());
+        if (principals.size() >= maxSize) {
+            // Rare and cheap to rebuild: every entry is one primary-key lookup away
+            principals.clear();
+        }
+        principals.put(userId, principal);
+        return principal;
+    }
+
+    public void invalidate(long userId) {
+        principals.remove(userId);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,103 @@
+package com.finovia.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Rebuilds daily_summaries from the transactions table. The user id range is cut into chunks
+// that are recomputed in parallel, each in its own transaction, so the job never holds one
+// giant transaction and live trades keep flowing while it runs.
+@Service
+public class DailySummaryBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DailySummaryBackfillJob.class);
+
+    // Rows are replaced rather than incremented so a chunk that overlaps a live flush stays correct
+    private static final String REBUILD_CHUNK = """
+            INSERT INTO daily_summaries (user_id, trade_date, total_trades, total_volume, buy_value, sell_value, realized_pnl)
+            SELECT user_id,
+                   CAST(timestamp AS DATE),
+                   COUNT(*),
+                   SUM(quantity),
+                   COALESCE(SUM(CASE WHEN transaction_type = 'BUY' THEN quantity * price_per_share END), 0),
+                   COALESCE(SUM(CASE WHEN transaction_type = 'SELL' THEN quantity * price_per_share END), 0),
+                   COALESCE(SUM(realized_pnl), 0)
+            FROM transactions
+            WHERE user_id BETWEEN ? AND ?
+            GROUP BY user_id, CAST(timestamp AS DATE)
+            ON CONFLICT (user_id, trade_date) DO UPDATE SET
+                total_trades = EXCLUDED.total_trades,
+                total_volume = EXCLUDED.total_volume,
+                buy_value = EXCLUDED.buy_value,
+                sell_value = EXCLUDED.sell_value,
+                realized_pnl = EXCLUDED.realized_pnl
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${rollup.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Value("${rollup.backfill.chunk-users:500}")
+    private int chunkUsers;
+
+    @Value("${rollup.backfill.threads:4}")
+    private int threads;
+
+    // Runs when asked to, or on first start after the rollup table was introduced
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfNeeded() {
+        boolean empty = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM daily_summaries) AND EXISTS (SELECT 1 FROM transactions)", Boolean.class));
+        if (backfillOnStartup || empty) {
+            CompletableFuture.runAsync(this::rebuildAll);
+        }
+    }
+
+    public void rebuildAll() {
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(user_id) AS low, MAX(user_id) AS high FROM transactions");
+        if (range.get("low") == null) {
+            return;
+        }
+        long low = ((Number) range.get("low")).longValue();
+        long high = ((Number) range.get("high")).longValue();
+        long started = System.currentTimeMillis();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (long from = low; from <= high; from += chunkUsers) {
+                long to = Math.min(high, from + chunkUsers - 1);
+                long chunkFrom = from;
+                chunks.add(CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("DELETE FROM daily_summaries WHERE user_id BETWEEN ? AND ?", chunkFrom, to);
+                    jdbcTemplate.update(REBUILD_CHUNK, chunkFrom, to);
+                }), pool));
+            }
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+            log.info("Rebuilt daily summaries for users {}..{} in {} chunks ({} ms)",
+                    low, high, chunks.size(), System.currentTimeMillis() - started);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.finovia.backend.service;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.dto.HoldingValuation;
+import com.finovia.backend.dto.PortfolioValuation;
+import com.finovia.backend.marketdata.MarketDataEngine;
+import com.finovia.backend.marketdata.PriceTick;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Values a whole portfolio in one request. Prices are resolved as one concurrent batch (see
+// MarketDataEngine.resolvePrices) and the request waits at most deadline-ms for them. Quotes
+// that miss the deadline fall back to the last known price (flagged stale) or are reported as
+// unpriced, and the valuation is marked partial.
+@Service
+public class PortfolioValuationService {
+
+    @Autowired
+    private MarketDataEngine marketDataEngine;
+
+    @Value("${valuation.deadline-ms:1500}")
+    private long deadlineMillis;
+
+    public PortfolioValuation value(AccountState account) {
+        List<Position> positions = List.copyOf(account.getPositions());
+        Map<String, BigDecimal> prices = marketDataEngine.resolvePrices(
+                positions.stream().map(Position::getStockSymbol).toList(), deadlineMillis);
+
+        Map<String, Boolean> staleBySymbol = new HashMap<>();
+        List<String> unpriced = new ArrayList<>();
+        // Totals are summed in Money micro-units and converted once for the response
+        long totalMarketValue = 0;
+        long totalCost = 0;
+        for (Position position : positions) {
+            String symbol = position.getStockSymbol();
+            BigDecimal price = prices.get(symbol);
+            if (price == null) {
+                // Missed the deadline: use whatever we last saw rather than nothing
+                PriceTick tick = marketDataEngine.getLastTick(symbol);
+                if (tick != null) {
+                    price = tick.price();
+                    prices.put(symbol, price);
+                    staleBySymbol.put(symbol, true);
+                }
+            }
+            if (price == null) {
+                unpriced.add(symbol);
+                continue;
+            }
+            totalMarketValue = Math.addExact(totalMarketValue, Money.times(Money.of(price), position.getQuantity()));
+            totalCost = Math.addExact(totalCost, position.getCostBasisMicros());
+        }
+
+        List<HoldingValuation> holdings = new ArrayList<>(positions.size());
+        for (Position position : positions) {
+            String symbol = position.getStockSymbol();
+            BigDecimal price = prices.get(symbol);
+            if (price == null) {
+                holdings.add(new HoldingValuation(symbol, position.getQuantity(), position.getAveragePurchasePrice(),
+                        position.getCostBasis(), null, false, null, null, null));
+                continue;
+            }
+            long priceMicros = Money.of(price);
+            long marketValue = Money.times(priceMicros, position.getQuantity());
+            // Weights are fractions at the same 6-place scale as Money
+            long weight = totalMarketValue == 0 ? 0 : Money.mulDiv(marketValue, Money.ONE, totalMarketValue);
+            holdings.add(new HoldingValuation(symbol, position.getQuantity(), position.getAveragePurchasePrice(),
+                    position.getCostBasis(), price, staleBySymbol.getOrDefault(symbol, false), Money.toDecimal(marketValue),
+                    Money.toDecimal(weight), Money.toDecimal(position.unrealizedPnlMicros(priceMicros))));
+        }
+
+        long balance = account.getBalanceMicros();
+        boolean partial = !unpriced.isEmpty() || !staleBySymbol.isEmpty();
+        return new PortfolioValuation(Money.toDecimal(balance), holdings, Money.toDecimal(totalMarketValue), Money.toDecimal(totalCost),
+                Money.toDecimal(totalMarketValue - totalCost), account.getRealizedPnl(), Money.toDecimal(balance + totalMarketValue),
+                partial, unpriced);
+    }
+}
@@ -0,0 +1,172 @@
+package com.finovia.backend.service;
+
+import com.finovia.backend.dto.FinnhubQuote;
+import com.finovia.backend.finnhub.FinnhubClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shared per-symbol quote cache in front of Finnhub.
+// Concurrent misses for the same symbol wait on a single in-flight upstream call.
+@Service
+public class QuoteService {
+
+    @Autowired
+    private FinnhubClient finnhubClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${quote.cache.ttl-ms:5000}")
+    private long ttlMillis;
+
+    @Value("${quote.cache.max-size:2000}")
+    private int maxSize;
+
+    private final ConcurrentHashMap<String, CachedQuote> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<FinnhubQuote>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("quote.cache.requests", hits, AtomicLong::get).tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("quote.cache.requests", misses, AtomicLong::get).tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("quote.cache.requests", coalesced, AtomicLong::get).tag("result", "coalesced").register(meterRegistry);
+        FunctionCounter.builder("quote.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("quote.cache.size", cache, Map::size).register(meterRegistry);
+    }
+
+    public FinnhubQuote getQuote(String symbol) {
+        String key = symbol.toUpperCase();
+
+        CachedQuote cached = cache.get(key);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis(), ttlMillis)) {
+            hits.incrementAndGet();
+            return cached.quote;
+        }
+
+        CompletableFuture<FinnhubQuote> ours = new CompletableFuture<>();
+        CompletableFuture<FinnhubQuote> existing = inFlight.putIfAbsent(key, ours);
+        if (existing != null) {
+            // Someone else is already fetching this symbol, wait for their result
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            // A previous leader may have filled the cache between our miss and winning the slot
+            cached = cache.get(key);
+            if (cached != null && !cached.isExpired(System.currentTimeMillis(), ttlMillis)) {
+                hits.incrementAndGet();
+                ours.complete(cached.quote);
+                return cached.quote;
+            }
+            misses.incrementAndGet();
+            FinnhubQuote quote = fetch(key);
+            if (isUsable(quote)) {
+                put(key, quote);
+            }
+            ours.complete(quote);
+            return quote;
+        } catch (RuntimeException e) {
+            ours.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, ours);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("evictions", evictions.get());
+        stats.put("size", cache.size());
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    private FinnhubQuote fetch(String symbol) {
+        return finnhubClient.getQuote(symbol);
+    }
+
+    private void put(String symbol, FinnhubQuote quote) {
+        cache.put(symbol, new CachedQuote(quote, System.currentTimeMillis()));
+        if (cache.size() > maxSize) {
+            evict();
+        }
+    }
+
+    // Drops expired entries first, then the oldest tenth of the cache if we are still over the limit
+    private synchronized void evict() {
+        long now = System.currentTimeMillis();
+        cache.entrySet().removeIf(entry -> {
+            boolean expired = entry.getValue().isExpired(now, ttlMillis);
+            if (expired) {
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+        int excess = cache.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+        int toRemove = Math.max(excess, maxSize / 10);
+        cache.entrySet().stream()
+                .sorted((a, b) -> Long.compare(a.getValue().fetchedAt, b.getValue().fetchedAt))
+                .limit(toRemove)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(symbol -> {
+                    if (cache.remove(symbol) != null) {
+                        evictions.incrementAndGet();
+                    }
+                });
+    }
+
+    // Stale fallbacks are passed through but never cached as if they were fresh
+    private static boolean isUsable(FinnhubQuote quote) {
+        return quote != null && !quote.isStale() && quote.getCurrentPrice() != null && quote.getCurrentPrice().signum() != 0;
+    }
+
+    private static FinnhubQuote await(CompletableFuture<FinnhubQuote> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class CachedQuote {
+        private final FinnhubQuote quote;
+        private final long fetchedAt;
+
+        private CachedQuote(FinnhubQuote quote, long fetchedAt) {
+            this.quote = quote;
+            this.fetchedAt = fetchedAt;
+        }
+
+        private boolean isExpired(long now, long ttlMillis) {
+            return now - fetchedAt > ttlMillis;
+        }
+    }
+}
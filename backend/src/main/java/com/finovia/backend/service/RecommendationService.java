@@ -0,0 +1,149 @@
+package com.finovia.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finovia.backend.dto.RecommendationTrend;
+import com.finovia.backend.finnhub.FinnhubClient;
+import com.finovia.backend.repository.HoldingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Recommendation trends change monthly, so they are cached for a long time, prefetched for every
+// held symbol in the background and snapshotted to disk so a restart starts warm.
+// Reads never wait on Finnhub when anything is cached; expired entries are served as-is while a
+// refresh runs, and only a symbol never seen before waits for its first fetch.
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    @Autowired
+    private FinnhubClient finnhubClient;
+
+    @Autowired
+    private HoldingRepository holdingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${recommendation.cache.ttl-ms:86400000}")
+    private long ttlMillis;
+
+    @Value("${recommendation.snapshot.file:data/recommendation-trends.json}")
+    private String snapshotFile;
+
+    private final Map<String, CachedTrends> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<List<RecommendationTrend>>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    @PostConstruct
+    public void loadSnapshot() {
+        Path path = Path.of(snapshotFile);
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        try {
+            Map<String, CachedTrends> snapshot = objectMapper.readValue(path.toFile(), new TypeReference<Map<String, CachedTrends>>() { });
+            cache.putAll(snapshot);
+            log.info("Loaded recommendation trends for {} symbols from {}", snapshot.size(), path);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable recommendation snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    // Completes immediately from the cache when possible; otherwise completes when the first fetch does
+    public CompletableFuture<List<RecommendationTrend>> getTrends(String symbol) {
+        String key = symbol.toUpperCase();
+        CachedTrends cached = cache.get(key);
+        if (cached != null) {
+            if (cached.isExpired(System.currentTimeMillis(), ttlMillis)) {
+                refresh(key);
+            }
+            return CompletableFuture.completedFuture(cached.trends());
+        }
+        return refresh(key);
+    }
+
+    @Scheduled(fixedDelayString = "${recommendation.prefetch.interval-ms:21600000}",
+            initialDelayString = "${recommendation.prefetch.initial-delay-ms:10000}")
+    public void prefetch() {
+        long now = System.currentTimeMillis();
+        List<CompletableFuture<List<RecommendationTrend>>> refreshes = holdingRepository.findDistinctStockSymbols().stream()
+                .map(String::toUpperCase)
+                .filter(symbol -> {
+                    CachedTrends cached = cache.get(symbol);
+                    return cached == null || cached.isExpired(now, ttlMillis);
+                })
+                .map(this::refresh)
+                .toList();
+        if (refreshes.isEmpty()) {
+            return;
+        }
+        // Failures are logged per symbol in refresh(); the snapshot is written with whatever succeeded
+        CompletableFuture.allOf(refreshes.toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> null)
+                .join();
+        writeSnapshot();
+        log.info("Prefetched recommendation trends for {} symbols", refreshes.size());
+    }
+
+    private CompletableFuture<List<RecommendationTrend>> refresh(String symbol) {
+        CompletableFuture<List<RecommendationTrend>> ours = new CompletableFuture<>();
+        CompletableFuture<List<RecommendationTrend>> existing = inFlight.putIfAbsent(symbol, ours);
+        if (existing != null) {
+            return existing;
+        }
+        finnhubClient.getRecommendationsAsync(symbol).whenComplete((trends, error) -> {
+            inFlight.remove(symbol, ours);
+            if (error != null) {
+                log.warn("Refreshing recommendation trends for {} failed: {}", symbol, error.getMessage());
+                ours.completeExceptionally(error);
+                return;
+            }
+            List<RecommendationTrend> value = trends == null ? List.of() : List.copyOf(trends);
+            cache.put(symbol, new CachedTrends(value, System.currentTimeMillis()));
+            ours.complete(value);
+        });
+        return ours;
+    }
+
+    // Written to a temp file and moved into place so a crash never leaves a torn snapshot.
+    // A lock rather than synchronized: the file IO would otherwise pin a virtual carrier thread.
+    private void writeSnapshot() {
+        Path path = Path.of(snapshotFile).toAbsolutePath();
+        snapshotLock.lock();
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), new HashMap<>(cache));
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Writing recommendation snapshot {} failed: {}", path, e.getMessage());
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    public record CachedTrends(List<RecommendationTrend> trends, long fetchedAt) {
+
+        boolean isExpired(long now, long ttlMillis) {
+            return now - fetchedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.finovia.backend.service;
+
+import java.math.BigDecimal;
+
+// Notified on the account's sequencer lane after every applied buy or sell; must not block.
+// This is before the trade is saved: if saving fails, the account is reloaded and
+// AccountStore's invalidation listeners are told, so they can correct what they derived.
+@FunctionalInterface
+public interface TradeListener {
+    void onTrade(long userId, String symbol, String transactionType, int quantity, BigDecimal price, long timestamp);
+}
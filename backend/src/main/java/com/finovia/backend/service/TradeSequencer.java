@@ -0,0 +1,145 @@
+package com.finovia.backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Serializes every account mutation for a given user onto one writer thread.
+// Accounts are striped by user id across single-threaded lanes, so two orders from the same
+// account never interleave while different accounts run in parallel without sharing a lock.
+// Lanes are drained in the lifecycle stop phase, after the web server and before TradeWriteBehind,
+// so every effect a lane produces on the way out is still flushed.
+@Service
+public class TradeSequencer implements SmartLifecycle {
+
+    // Stops after the web server (DEFAULT_PHASE - 2048) has stopped taking requests
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    // 0 means one lane per available core
+    @Value("${trade.sequencer.stripes:0}")
+    private int configuredStripes;
+
+    @Value("${trade.sequencer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor[] lanes;
+    private volatile boolean running;
+
+    // Time a task waits behind others on its lane, and the time it then runs
+    private Timer waitTimer;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void init() {
+        int count = configuredStripes > 0 ? configuredStripes : Runtime.getRuntime().availableProcessors();
+        lanes = new ThreadPoolExecutor[count];
+        for (int i = 0; i < count; i++) {
+            String name = "trade-seq-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    r -> {
+                        Thread thread = new Thread(r, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        waitTimer = Timer.builder("trade.sequencer.wait").register(meterRegistry);
+        runTimer = Timer.builder("trade.sequencer.run").register(meterRegistry);
+        Gauge.builder("trade.sequencer.queued", this, TradeSequencer::queuedTasks).register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Lets every lane finish its backlog; tasks submitted from now on are rejected
+    @Override
+    public void stop() {
+        running = false;
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                lane.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    // Queues the task on the account's lane. Fails fast if the lane's backlog is full.
+    public <T> CompletableFuture<T> submit(long userId, Supplier<T> task) {
+        try {
+            long queuedAt = System.nanoTime();
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    runTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }, laneFor(userId));
+        } catch (RejectedExecutionException e) {
+            String message = running ? "Too many pending orders, try again." : "Trading is shutting down.";
+            return CompletableFuture.failedFuture(new IllegalStateException(message));
+        }
+    }
+
+    // Runs the task on the account's lane and waits for its result
+    public <T> T execute(long userId, Supplier<T> task) {
+        try {
+            return submit(userId, task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public int getStripeCount() {
+        return lanes.length;
+    }
+
+    private int queuedTasks() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    private ThreadPoolExecutor laneFor(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return lanes[(int) Long.remainderUnsigned(h ^ (h >>> 32), lanes.length)];
+    }
+}
@@ -0,0 +1,274 @@
+package com.finovia.backend.service;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.account.CostBasisMethod;
+import com.finovia.backend.account.LotChange;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.dto.BatchOrderLeg;
+import com.finovia.backend.dto.BatchOrderResult;
+import com.finovia.backend.dto.TradeResult;
+import com.finovia.backend.matching.OrderSide;
+import com.finovia.backend.persistence.TradeEffect;
+import com.finovia.backend.persistence.TradeWriteBehind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Applies a buy or sell at a known price to the account: balance, holding and transaction record.
+// Used by the immediate buy/sell endpoints and by the matching engine when a resting order fills.
+// Callers run these on the account's TradeSequencer lane, which is the only writer of the
+// in-memory AccountState; the resulting effect is persisted by TradeWriteBehind.
+@Service
+public class TradeService {
+
+    private static final Logger log = LoggerFactory.getLogger(TradeService.class);
+
+    @Autowired
+    private AccountStore accountStore;
+
+    @Autowired
+    private TradeWriteBehind tradeWriteBehind;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pnl.cost-basis-method:FIFO}")
+    private CostBasisMethod costBasisMethod;
+
+    private final List<TradeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private Counter buyFills;
+    private Counter sellFills;
+    private Counter insufficientFunds;
+    private Counter insufficientShares;
+
+    @PostConstruct
+    public void registerMetrics() {
+        buyFills = Counter.builder("trade.fills").tag("side", "buy").register(meterRegistry);
+        sellFills = Counter.builder("trade.fills").tag("side", "sell").register(meterRegistry);
+        insufficientFunds = Counter.builder("trade.rejects").tag("reason", "insufficient_funds").register(meterRegistry);
+        insufficientShares = Counter.builder("trade.rejects").tag("reason", "insufficient_shares").register(meterRegistry);
+    }
+
+    public void addListener(TradeListener listener) {
+        listeners.add(listener);
+    }
+
+    public TradeResult buy(long userId, String symbol, int quantityToBuy, BigDecimal currentPrice) {
+        Applied applied = applyBuy(accountStore.get(userId), symbol, quantityToBuy, currentPrice);
+        if (applied.rejection() != null) {
+            return TradeResult.rejected(applied.rejection());
+        }
+        return TradeResult.filled("Purchase successful!", tradeWriteBehind.submit(applied.effect()));
+    }
+
+    public TradeResult sell(long userId, String symbol, int quantityToSell, BigDecimal currentPrice) {
+        AccountState account = accountStore.get(userId);
+        if (account.getPosition(symbol) == null) {
+            throw new RuntimeException("Holding not found for symbol: " + symbol);
+        }
+        Applied applied = applySell(account, symbol, quantityToSell, currentPrice);
+        if (applied.rejection() != null) {
+            return TradeResult.rejected(applied.rejection());
+        }
+        return TradeResult.filled("Sale successful!", tradeWriteBehind.submit(applied.effect()));
+    }
+
+    // Executes a basket of market orders at the given prices. Sells are applied before buys so
+    // that sale proceeds fund the basket's purchases. In atomic mode the whole basket is checked
+    // against the balance and holdings first and is rejected as a unit; otherwise each leg stands
+    // alone. All executed legs are persisted as one group, i.e. in a single database transaction.
+    public BatchOrderResult executeBatch(long userId, List<BatchOrderLeg> legs, Map<String, BigDecimal> prices, boolean atomic) {
+        AccountState account = accountStore.get(userId);
+        int count = legs.size();
+        String[] messages = new String[count];
+        boolean[] filled = new boolean[count];
+
+        boolean missingPrice = false;
+        for (int i = 0; i < count; i++) {
+            if (prices.get(legs.get(i).getSymbol()) == null) {
+                messages[i] = "Could not fetch price for symbol: " + legs.get(i).getSymbol();
+                missingPrice = true;
+            }
+        }
+        if (atomic) {
+            String problem = missingPrice ? "Some prices could not be fetched." : validateBasket(account, legs, prices);
+            if (problem != null) {
+                if (problem.startsWith("Insufficient funds")) {
+                    insufficientFunds.increment();
+                } else if (problem.startsWith("Insufficient shares")) {
+                    insufficientShares.increment();
+                }
+                for (int i = 0; i < count; i++) {
+                    if (messages[i] == null) {
+                        messages[i] = "Not executed: " + problem;
+                    }
+                }
+                return batchResult(false, problem, legs, prices, filled, messages, CompletableFuture.completedFuture(null));
+            }
+        }
+
+        List<TradeEffect> effects = new ArrayList<>(count);
+        for (OrderSide pass : new OrderSide[]{OrderSide.SELL, OrderSide.BUY}) {
+            for (int i = 0; i < count; i++) {
+                BatchOrderLeg leg = legs.get(i);
+                if (leg.getSide() != pass || messages[i] != null) {
+                    continue;
+                }
+                BigDecimal price = prices.get(leg.getSymbol());
+                Applied applied;
+                if (pass == OrderSide.BUY) {
+                    applied = applyBuy(account, leg.getSymbol(), leg.getQuantity(), price);
+                } else if (account.getPosition(leg.getSymbol()) == null) {
+                    applied = Applied.rejected("Holding not found for symbol: " + leg.getSymbol());
+                } else {
+                    applied = applySell(account, leg.getSymbol(), leg.getQuantity(), price);
+                }
+                if (applied.rejection() != null) {
+                    messages[i] = applied.rejection();
+                } else {
+                    effects.add(applied.effect());
+                    filled[i] = true;
+                    messages[i] = pass == OrderSide.BUY ? "Purchase successful!" : "Sale successful!";
+                }
+            }
+        }
+
+        int executed = effects.size();
+        boolean success = executed == count;
+        String message = success ? "Batch executed." : executed + " of " + count + " orders executed.";
+        return batchResult(success, message, legs, prices, filled, messages, tradeWriteBehind.submitAll(effects));
+    }
+
+    // Checks the basket as a whole with sells applied first; returns the first problem or null
+    private String validateBasket(AccountState account, List<BatchOrderLeg> legs, Map<String, BigDecimal> prices) {
+        Map<String, Integer> sold = new HashMap<>();
+        long cash = account.getBalanceMicros();
+        for (BatchOrderLeg leg : legs) {
+            long value = Money.times(Money.of(prices.get(leg.getSymbol())), leg.getQuantity());
+            if (leg.getSide() == OrderSide.SELL) {
+                sold.merge(leg.getSymbol(), leg.getQuantity(), Integer::sum);
+                cash = Math.addExact(cash, value);
+            } else {
+                cash = Math.subtractExact(cash, value);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : sold.entrySet()) {
+            Position holding = account.getPosition(entry.getKey());
+            if (holding == null) {
+                return "Holding not found for symbol: " + entry.getKey();
+            }
+            if (holding.getQuantity() < entry.getValue()) {
+                return "Insufficient shares to sell " + entry.getKey() + ".";
+            }
+        }
+        if (cash < 0) {
+            return "Insufficient funds.";
+        }
+        return null;
+    }
+
+    private static BatchOrderResult batchResult(boolean success, String message, List<BatchOrderLeg> legs, Map<String, BigDecimal> prices,
+                                                boolean[] filled, String[] messages, CompletableFuture<Void> persisted) {
+        List<BatchOrderResult.LegResult> results = new ArrayList<>(legs.size());
+        for (int i = 0; i < legs.size(); i++) {
+            BatchOrderLeg leg = legs.get(i);
+            results.add(new BatchOrderResult.LegResult(leg.getSymbol(), leg.getSide(), leg.getQuantity(),
+                    prices.get(leg.getSymbol()), filled[i], messages[i]));
+        }
+        return new BatchOrderResult(success, message, results, persisted);
+    }
+
+    private Applied applyBuy(AccountState account, String symbol, int quantityToBuy, BigDecimal currentPrice) {
+        // The price is converted once; everything below is long arithmetic in micro-units
+        long priceMicros = Money.of(currentPrice);
+        long totalCost = Money.times(priceMicros, quantityToBuy);
+
+        // 1. Check if the user has enough money
+        if (account.getBalanceMicros() < totalCost) {
+            insufficientFunds.increment();
+            return Applied.rejected("Insufficient funds.");
+        }
+
+        // 2. Update user's balance
+        account.setBalanceMicros(account.getBalanceMicros() - totalCost);
+
+        // 3. Add a lot to the holding (opening it if this is a new stock for the user)
+        LocalDateTime now = LocalDateTime.now();
+        Position holding = account.openPosition(symbol);
+        LotChange lotChange = holding.buy(account.allocateLotSeq(), quantityToBuy, priceMicros, now);
+
+        // 4. Record the transaction for the write-behind pipeline
+        buyFills.increment();
+        return Applied.of(effect(account, holding, lotChange, "BUY", quantityToBuy, currentPrice, priceMicros, 0, now));
+    }
+
+    // The caller has checked that the holding exists
+    private Applied applySell(AccountState account, String symbol, int quantityToSell, BigDecimal currentPrice) {
+        Position holding = account.getPosition(symbol);
+
+        // 1. Check if they have enough shares to sell
+        if (holding.getQuantity() < quantityToSell) {
+            insufficientShares.increment();
+            return Applied.rejected("Insufficient shares to sell.");
+        }
+        long priceMicros = Money.of(currentPrice);
+        long totalProceeds = Money.times(priceMicros, quantityToSell);
+
+        // 2. Update user's balance
+        account.setBalanceMicros(Math.addExact(account.getBalanceMicros(), totalProceeds));
+
+        // 3. Relieve lots and book the realized P&L; a holding sold down to zero is removed
+        Position.SellOutcome outcome = holding.sell(quantityToSell, priceMicros, costBasisMethod, account.peekNextLotSeq());
+        account.addRealizedPnlMicros(outcome.realizedPnlMicros());
+        account.closeIfEmpty(holding);
+
+        // 4. Record the transaction for the write-behind pipeline
+        sellFills.increment();
+        return Applied.of(effect(account, holding, outcome.lotChange(), "SELL", quantityToSell, currentPrice, priceMicros,
+                outcome.realizedPnlMicros(), LocalDateTime.now()));
+    }
+
+    // price is passed as given for listeners (push payloads); the effect carries micro-units only
+    private TradeEffect effect(AccountState account, Position holding, LotChange lotChange, String type, int quantity,
+                               BigDecimal price, long priceMicros, long realizedPnlMicros, LocalDateTime timestamp) {
+        for (TradeListener listener : listeners) {
+            try {
+                listener.onTrade(account.getUserId(), holding.getStockSymbol(), type, quantity, price, System.currentTimeMillis());
+            } catch (Exception e) {
+                log.warn("Trade listener failed for user {}: {}", account.getUserId(), e.getMessage());
+            }
+        }
+        return new TradeEffect(account.getUserId(), account.getBalanceMicros(), account.getRealizedPnlMicros(),
+                holding.getStockSymbol(), holding.getQuantity(), holding.getCostBasisMicros(),
+                lotChange, type, quantity, priceMicros, realizedPnlMicros, timestamp, new CompletableFuture<>());
+    }
+
+    // Either the effect of an applied trade or the reason it was rejected
+    private record Applied(TradeEffect effect, String rejection) {
+
+        static Applied of(TradeEffect effect) {
+            return new Applied(effect, null);
+        }
+
+        static Applied rejected(String reason) {
+            return new Applied(null, reason);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.finovia.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.finovia.backend.dto.TransactionPage;
+import com.finovia.backend.dto.TransactionView;
+import com.finovia.backend.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Reads a user's transaction history without ever holding all of it in memory:
+// keyset pages for the UI and a JPA stream for full exports.
+@Service
+public class TransactionHistoryService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter rowWriter() {
+        // Let the servlet buffer decide when to hit the socket instead of flushing per row
+        return objectMapper.writerFor(TransactionView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public List<TransactionView> getRecent(long userId, int count) {
+        return transactionRepository.findLatest(userId, PageRequest.ofSize(count));
+    }
+
+    public TransactionPage getPage(long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<TransactionView> items;
+        if (cursor == null || cursor.isBlank()) {
+            items = transactionRepository.findLatest(userId, PageRequest.ofSize(pageSize));
+        } else {
+            Cursor position = decode(cursor);
+            items = transactionRepository.findPageBefore(userId, position.timestamp(), position.id(), PageRequest.ofSize(pageSize));
+        }
+        String nextCursor = items.size() < pageSize ? null : encode(items.get(items.size() - 1));
+        return new TransactionPage(items, nextCursor);
+    }
+
+    // One JSON object per line
+    public void exportNdjson(long userId, OutputStream out) {
+        ObjectWriter writer = rowWriter();
+        stream(userId, rows -> {
+            byte[] newline = {'\n'};
+            rows.forEach(view -> {
+                try {
+                    out.write(writer.writeValueAsBytes(view));
+                    out.write(newline);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        });
+    }
+
+    // The whole history as a single JSON array, written element by element
+    public void exportJsonArray(long userId, OutputStream out) {
+        ObjectWriter writer = rowWriter();
+        stream(userId, rows -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                rows.forEach(view -> {
+                    try {
+                        writer.writeValue(generator, view);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void stream(long userId, Consumer<Stream<TransactionView>> consumer) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.executeWithoutResult(status -> {
+            try (Stream<TransactionView> rows = transactionRepository.streamByUserId(userId)) {
+                consumer.accept(rows);
+            }
+        });
+    }
+
+    private static String encode(TransactionView last) {
+        String raw = last.timestamp() + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Cursor(LocalDateTime timestamp, long id) {
+    }
+}
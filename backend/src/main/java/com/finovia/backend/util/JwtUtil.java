@@ -1,14 +1,23 @@
 package com.finovia.backend.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 @Component
@@ -16,23 +25,79 @@ public class JwtUtil {
 
     private final String SECRET_KEY = "finovia-secret-key-for-paper-trading-project-must-be-long";
 
-    private Key getSigningKey() {
-        byte[] keyBytes = this.SECRET_KEY.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    public static final String USER_ID_CLAIM = "uid";
+
+    // Built once: the key and parser are immutable and safe to share between threads
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    // Tokens that already passed verification, keyed by a SHA-256 prefix of the token and kept
+    // until the token expires. Clients send the same token on every request, so steady-state
+    // requests skip the signature check and JSON parsing.
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize = 10000;
 
-    public String generateToken(String username) {
+    private final Map<TokenKey, VerifiedToken> verified = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // The uid claim lets requests address the account without looking the user up by name
+    public String generateToken(String username, long userId) {
         long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + 1000 * 60 * 60 * 24)) // Token is valid for 10 hours
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+    // The single verification entry point for requests: one parse per distinct token, then
+    // cache hits until expiry. Returns null for tokens that should not be trusted.
+    public VerifiedToken verify(String token) {
+        TokenKey key = TokenKey.of(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verified.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                cacheHits.incrementAndGet();
+                return cached;
+            }
+            verified.remove(key, cached);
+            return null;
+        }
+
+        cacheMisses.incrementAndGet();
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date expiration = claims.getExpiration();
+        VerifiedToken result = new VerifiedToken(claims.getSubject(), extractUserId(claims),
+                expiration == null ? Long.MAX_VALUE : expiration.getTime());
+        if (verified.size() >= cacheMaxSize) {
+            evictExpired(now);
+        }
+        if (verified.size() < cacheMaxSize) {
+            verified.put(key, result);
+        }
+        return result;
+    }
+
+    // Verifies signature and expiry; throws JwtException for any token that should not be trusted
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -44,16 +109,44 @@ public class JwtUtil {
         return extractClaim(token, Claims::getSubject);
     }
 
+    // Null for tokens issued before the uid claim existed
+    public Long extractUserId(Claims claims) {
+        return claims.get(USER_ID_CLAIM, Long.class);
+    }
+
     public Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Parses once; the parser has already rejected expired tokens
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        VerifiedToken verifiedToken = verify(token);
+        return verifiedToken != null && verifiedToken.username().equals(userDetails.getUsername());
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    private synchronized void evictExpired(long now) {
+        verified.values().removeIf(token -> token.expiresAt() <= now);
+    }
+
+    public record VerifiedToken(String username, Long userId, long expiresAt) {
+    }
+
+    // 128 bits of the token's SHA-256: collisions are not a practical concern and the cache
+    // does not have to retain the bearer tokens themselves
+    private record TokenKey(long high, long low) {
+
+        static TokenKey of(String token) {
+            byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            return new TokenKey(buffer.getLong(), buffer.getLong());
+        }
     }
-}
\ No newline at end of file
+}
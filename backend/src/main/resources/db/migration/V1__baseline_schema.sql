@@ -0,0 +1,30 @@
+-- Schema as previously created by Hibernate's ddl-auto. Idempotent so it can run
+-- against databases that already have these tables (see PersistenceConfig).
+
+CREATE TABLE IF NOT EXISTS users (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username        VARCHAR(255) NOT NULL UNIQUE,
+    email           VARCHAR(255) NOT NULL UNIQUE,
+    password        VARCHAR(255) NOT NULL,
+    virtual_balance NUMERIC(38, 2)
+);
+
+CREATE TABLE IF NOT EXISTS holdings (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id                BIGINT       NOT NULL REFERENCES users (id),
+    stock_symbol           VARCHAR(255) NOT NULL,
+    quantity               INTEGER      NOT NULL,
+    average_purchase_price NUMERIC(38, 2)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          BIGINT       NOT NULL REFERENCES users (id),
+    stock_symbol     VARCHAR(255) NOT NULL,
+    transaction_type VARCHAR(255) NOT NULL,
+    quantity         INTEGER      NOT NULL,
+    price_per_share  NUMERIC(38, 2),
+    timestamp        TIMESTAMP(6)
+);
+
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
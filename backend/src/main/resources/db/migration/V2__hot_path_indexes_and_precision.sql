@@ -0,0 +1,51 @@
+-- Indexes for the per-trade and per-dashboard queries, and money columns with enough scale
+-- that prices and average costs are no longer rounded to cents.
+
+DELETE FROM holdings WHERE quantity <= 0;
+
+-- Concurrent buys before the sequencer existed could leave duplicate holdings; fold them into
+-- the oldest row (quantity-weighted average cost) so the unique index can be built.
+WITH merged AS (
+    SELECT user_id,
+           stock_symbol,
+           MIN(id)                                                          AS keep_id,
+           SUM(quantity)                                                    AS quantity,
+           SUM(quantity * average_purchase_price) / NULLIF(SUM(quantity), 0) AS average_purchase_price
+    FROM holdings
+    GROUP BY user_id, stock_symbol
+    HAVING COUNT(*) > 1
+)
+UPDATE holdings h
+SET quantity               = m.quantity,
+    average_purchase_price = m.average_purchase_price
+FROM merged m
+WHERE h.id = m.keep_id;
+
+DELETE FROM holdings h
+USING holdings keep
+WHERE keep.user_id = h.user_id
+  AND keep.stock_symbol = h.stock_symbol
+  AND keep.id < h.id;
+
+-- findByUserAndStockSymbol on every trade, and the ON CONFLICT target for holding upserts
+CREATE UNIQUE INDEX IF NOT EXISTS ux_holdings_user_symbol ON holdings (user_id, stock_symbol);
+
+-- Dashboard range queries, top-N "recent" and keyset pagination all walk this index in order
+CREATE INDEX IF NOT EXISTS ix_transactions_user_ts_id ON transactions (user_id, timestamp DESC, id DESC);
+
+ALTER TABLE users
+    ALTER COLUMN virtual_balance TYPE NUMERIC(19, 4);
+
+ALTER TABLE holdings
+    ALTER COLUMN average_purchase_price TYPE NUMERIC(19, 6),
+    ADD CONSTRAINT ck_holdings_quantity_positive CHECK (quantity > 0);
+
+ALTER TABLE transactions
+    ALTER COLUMN price_per_share TYPE NUMERIC(19, 4),
+    ALTER COLUMN timestamp SET NOT NULL,
+    ADD CONSTRAINT ck_transactions_quantity_positive CHECK (quantity > 0),
+    ADD CONSTRAINT ck_transactions_type CHECK (transaction_type IN ('BUY', 'SELL'));
+
+-- Transaction ids moved from IDENTITY to transactions_seq; start the sequence above existing rows
+SELECT setval('transactions_seq', GREATEST((SELECT last_value FROM transactions_seq),
+                                          (SELECT COALESCE(MAX(id), 0) + 50 FROM transactions)));
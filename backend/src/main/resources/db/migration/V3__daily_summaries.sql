@@ -0,0 +1,12 @@
+-- Per-user, per-day trade rollups, incremented by the write-behind flush in the same
+-- transaction as the trades themselves. DailySummaryBackfillJob rebuilds them from transactions.
+
+CREATE TABLE IF NOT EXISTS daily_summaries (
+    user_id      BIGINT         NOT NULL REFERENCES users (id),
+    trade_date   DATE           NOT NULL,
+    total_trades INTEGER        NOT NULL DEFAULT 0,
+    total_volume BIGINT         NOT NULL DEFAULT 0,
+    buy_value    NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    sell_value   NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, trade_date)
+);
@@ -0,0 +1,38 @@
+-- Position accounting: open tax lots per holding, an exact cost basis per holding, and realized
+-- P&L recorded on every sell and accumulated per account and per day.
+
+CREATE TABLE IF NOT EXISTS holding_lots (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id      BIGINT         NOT NULL REFERENCES users (id),
+    stock_symbol VARCHAR(255)   NOT NULL,
+    lot_seq      BIGINT         NOT NULL,
+    quantity     INTEGER        NOT NULL CHECK (quantity > 0),
+    price        NUMERIC(19, 6) NOT NULL,
+    opened_at    TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT ux_holding_lots_user_symbol_seq UNIQUE (user_id, stock_symbol, lot_seq)
+);
+
+ALTER TABLE holdings
+    ADD COLUMN IF NOT EXISTS cost_basis NUMERIC(19, 6);
+
+ALTER TABLE users
+    ADD COLUMN IF NOT EXISTS realized_pnl NUMERIC(19, 6) NOT NULL DEFAULT 0;
+
+ALTER TABLE transactions
+    ADD COLUMN IF NOT EXISTS realized_pnl NUMERIC(19, 6);
+
+ALTER TABLE daily_summaries
+    ADD COLUMN IF NOT EXISTS realized_pnl NUMERIC(19, 6) NOT NULL DEFAULT 0;
+
+-- Existing holdings only know their average cost, so each becomes a single opening lot
+UPDATE holdings
+SET cost_basis = quantity * COALESCE(average_purchase_price, 0)
+WHERE cost_basis IS NULL;
+
+INSERT INTO holding_lots (user_id, stock_symbol, lot_seq, quantity, price, opened_at)
+SELECT h.user_id, h.stock_symbol, 1, h.quantity, COALESCE(h.average_purchase_price, 0), now()
+FROM holdings h
+WHERE NOT EXISTS (SELECT 1 FROM holding_lots l WHERE l.user_id = h.user_id AND l.stock_symbol = h.stock_symbol);
+
+ALTER TABLE holdings
+    ALTER COLUMN cost_basis SET NOT NULL;
@@ -0,0 +1,13 @@
+-- Periodic copies of the top of the in-memory leaderboard (see Leaderboard.snapshot).
+-- All rows of one snapshot share taken_at.
+
+CREATE TABLE IF NOT EXISTS leaderboard_snapshots (
+    taken_at   TIMESTAMP      NOT NULL,
+    rank       INTEGER        NOT NULL,
+    user_id    BIGINT         NOT NULL REFERENCES users (id),
+    equity     NUMERIC(19, 6) NOT NULL,
+    return_pct NUMERIC(12, 4) NOT NULL,
+    PRIMARY KEY (taken_at, rank)
+);
+
+CREATE INDEX IF NOT EXISTS idx_leaderboard_snapshots_user ON leaderboard_snapshots (user_id, taken_at);
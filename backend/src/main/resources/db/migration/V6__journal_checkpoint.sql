@@ -0,0 +1,10 @@
+-- Highest trade journal seq whose effect the write-behind pipeline has committed. It is updated
+-- in the same transaction as each batch, so journaled effects above it are exactly the ones the
+-- database is missing after a crash (see JournalRecovery).
+
+CREATE TABLE IF NOT EXISTS journal_checkpoint (
+    id            INTEGER PRIMARY KEY,
+    committed_seq BIGINT  NOT NULL
+);
+
+INSERT INTO journal_checkpoint (id, committed_seq) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,13 @@
+-- In memory every amount is a Money micro-unit (6 decimals) and the write-behind flush writes
+-- them at that scale; the remaining 4-decimal columns rounded them silently, so an account
+-- reloaded from the database could differ from the state it was saved from.
+
+ALTER TABLE users
+    ALTER COLUMN virtual_balance TYPE NUMERIC(19, 6);
+
+ALTER TABLE transactions
+    ALTER COLUMN price_per_share TYPE NUMERIC(19, 6);
+
+ALTER TABLE daily_summaries
+    ALTER COLUMN buy_value TYPE NUMERIC(19, 6),
+    ALTER COLUMN sell_value TYPE NUMERIC(19, 6);
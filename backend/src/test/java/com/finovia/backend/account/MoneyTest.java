@@ -0,0 +1,41 @@
+package com.finovia.backend.account;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+	@Test
+	void convertsAtSixPlacesRoundingHalfUp() {
+		assertEquals(189_230_000L, Money.of("189.23"));
+		assertEquals(1L, Money.of("0.0000005"));
+		assertEquals(-1L, Money.of("-0.0000005"));
+		assertEquals(new BigDecimal("189.230000"), Money.toDecimal(189_230_000L));
+	}
+
+	@Test
+	void divisionRoundsHalfAwayFromZero() {
+		assertEquals(3, Money.divide(5, 2));
+		assertEquals(-3, Money.divide(-5, 2));
+		assertEquals(1, Money.divide(4, 3));
+		assertEquals(333_333, Money.divide(Money.ONE, 3));
+	}
+
+	@Test
+	void mulDivMatchesBigDecimalPastTheLongRange() {
+		long cost = Money.of("9000000000");
+		// cost * 7 overflows a long; the result still fits
+		assertEquals(Money.of("4500000000"), Money.mulDiv(cost, 7, 14));
+		assertEquals(Money.of("366.666667"), Money.mulDiv(Money.of("1100"), 1, 3));
+	}
+
+	@Test
+	void overflowIsAnErrorNotAWrap() {
+		assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+		assertThrows(ArithmeticException.class, () -> Money.of("10000000000000"));
+	}
+}
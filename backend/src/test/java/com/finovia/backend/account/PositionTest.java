@@ -0,0 +1,57 @@
+package com.finovia.backend.account;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PositionTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 2, 10, 0);
+
+	@Test
+	void fifoSellRelievesOldestLotsFirst() {
+		Position position = new Position("AAPL");
+		position.buy(1, 10, Money.of("100"), NOW);
+		position.buy(2, 10, Money.of("120"), NOW);
+
+		Position.SellOutcome outcome = position.sell(15, Money.of("130"), CostBasisMethod.FIFO, 3);
+
+		// 10 @ 100 + 5 @ 120 = 1600 cost against 1950 proceeds
+		assertEquals(0, new BigDecimal("350").compareTo(outcome.realizedPnl()));
+		assertEquals(5, position.getQuantity());
+		assertEquals(0, new BigDecimal("600").compareTo(position.getCostBasis()));
+		assertEquals(2, outcome.lotChange().consumedBeforeSeq());
+		assertEquals(2, outcome.lotChange().partialSeq());
+		assertEquals(5, outcome.lotChange().partialRemaining());
+	}
+
+	@Test
+	void averageSellRelievesProportionalCost() {
+		Position position = new Position("AAPL");
+		position.buy(1, 10, Money.of("100"), NOW);
+		position.buy(2, 10, Money.of("120"), NOW);
+
+		Position.SellOutcome outcome = position.sell(10, Money.of("130"), CostBasisMethod.AVERAGE, 3);
+
+		assertEquals(0, new BigDecimal("200").compareTo(outcome.realizedPnl()));
+		assertEquals(0, new BigDecimal("1100").compareTo(position.getCostBasis()));
+		assertEquals(0, new BigDecimal("110").compareTo(position.getAveragePurchasePrice()));
+	}
+
+	@Test
+	void closingEveryLotCutsOffAtTheAccountsNextSeq() {
+		Position position = new Position("AAPL");
+		position.buy(4, 10, Money.of("100"), NOW);
+
+		Position.SellOutcome outcome = position.sell(10, Money.of("90"), CostBasisMethod.FIFO, 5);
+
+		assertEquals(0, new BigDecimal("-100").compareTo(outcome.realizedPnl()));
+		assertEquals(0, position.getQuantity());
+		assertEquals(5, outcome.lotChange().consumedBeforeSeq());
+		assertEquals(0, outcome.lotChange().partialSeq());
+		assertEquals(0, position.unrealizedPnlMicros(Money.of("95")));
+	}
+}
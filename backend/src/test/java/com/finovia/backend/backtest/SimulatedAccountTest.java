@@ -0,0 +1,62 @@
+package com.finovia.backend.backtest;
+
+import com.finovia.backend.account.CostBasisMethod;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.Position;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SimulatedAccountTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 2, 10, 0);
+
+	@Test
+	void matchesPositionForFifoAndAverage() {
+		for (CostBasisMethod method : CostBasisMethod.values()) {
+			Random random = new Random(42);
+			SimulatedAccount account = new SimulatedAccount(1, Money.of("100000000"), method);
+			Position position = new Position("AAPL");
+			long realized = 0;
+			long seq = 1;
+			for (int i = 0; i < 2000; i++) {
+				long price = Money.of("50") + random.nextInt(100_000_000);
+				int shares = 1 + random.nextInt(40);
+				if (random.nextBoolean()) {
+					account.buy(0, shares, price);
+					position.buy(seq++, shares, price, NOW);
+				} else if (position.getQuantity() >= shares) {
+					account.sell(0, shares, price);
+					realized += position.sell(shares, price, method, seq).realizedPnlMicros();
+				}
+				assertEquals(position.getQuantity(), account.quantity(0));
+				assertEquals(position.getCostBasisMicros(), account.costBasis(0));
+			}
+			assertEquals(realized, account.realizedPnl());
+		}
+	}
+
+	@Test
+	void rejectsLikeTheTradeService() {
+		SimulatedAccount account = new SimulatedAccount(1, Money.of("1000"), CostBasisMethod.FIFO);
+
+		assertFalse(account.buy(0, 11, Money.of("100")));
+		assertFalse(account.sell(0, 1, Money.of("100")));
+		assertEquals(2, account.rejected());
+
+		account.orderTarget(0, Money.of("5000"), Money.of("100"));
+
+		// Trimmed to what the cash buys
+		assertEquals(10, account.quantity(0));
+		assertEquals(0, account.cash());
+		assertEquals(Money.of("1100"), account.markToMarket(history(Money.of("110")), 0));
+	}
+
+	private static PriceHistory history(long close) {
+		return new PriceHistory.Builder().add("AAPL", 0, close).build();
+	}
+}
@@ -0,0 +1,79 @@
+package com.finovia.backend.candles;
+
+import com.finovia.backend.account.Money;
+import com.finovia.backend.dto.Candle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CandleSeriesTest {
+
+	private static final long MINUTE = 60_000L;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void aggregatesPricesIntoBucketsAndSurvivesAReopen() {
+		Path file = dir.resolve("1m.candles");
+		CandleSeries series = new CandleSeries(file, Resolution.MINUTE);
+		tick(series, 0, "10");
+		tick(series, 20_000, "12");
+		tick(series, 40_000, "9");
+		tick(series, MINUTE + 5_000, "11");
+		assertFalse(tick(series, 30_000, "50"));
+		series.flush();
+
+		CandleSeries reopened = new CandleSeries(file, Resolution.MINUTE);
+		// The open minute is picked up again and keeps aggregating
+		tick(reopened, MINUTE + 50_000, "13");
+		List<Candle> candles = range(reopened, 0, Long.MAX_VALUE, 100);
+
+		assertEquals(2, candles.size());
+		assertCandle(candles.get(0), 0, "10", "12", "9", "9");
+		assertCandle(candles.get(1), MINUTE, "11", "13", "11", "13");
+	}
+
+	@Test
+	void rangeUsesTheTimeIndexAcrossBlocksAndKeepsTheNewestPoints() {
+		CandleSeries series = new CandleSeries(dir.resolve("1m.candles"), Resolution.MINUTE);
+		int minutes = CandleColumns.BLOCK_ROWS * 3 + 10;
+		for (int i = 0; i < minutes; i++) {
+			tick(series, i * MINUTE, String.valueOf(i + 1));
+		}
+
+		List<Candle> window = range(series, 1500 * MINUTE, 1509 * MINUTE + 59_999, 100);
+		assertEquals(10, window.size());
+		assertEquals(1500 * MINUTE, window.get(0).time());
+
+		List<Candle> capped = range(series, 0, Long.MAX_VALUE, 5);
+		assertEquals(5, capped.size());
+		assertEquals((minutes - 1) * MINUTE, capped.get(4).time());
+	}
+
+	private static boolean tick(CandleSeries series, long timestamp, String price) {
+		long micros = Money.of(price);
+		return series.add(timestamp, micros, micros, micros, micros, 0);
+	}
+
+	private static List<Candle> range(CandleSeries series, long from, long to, int maxPoints) {
+		List<Candle> candles = new ArrayList<>();
+		series.range(from, to, maxPoints, candles);
+		return candles;
+	}
+
+	private static void assertCandle(Candle candle, long time, String open, String high, String low, String close) {
+		assertEquals(time, candle.time());
+		assertEquals(0, new BigDecimal(open).compareTo(candle.open()));
+		assertEquals(0, new BigDecimal(high).compareTo(candle.high()));
+		assertEquals(0, new BigDecimal(low).compareTo(candle.low()));
+		assertEquals(0, new BigDecimal(close).compareTo(candle.close()));
+	}
+}
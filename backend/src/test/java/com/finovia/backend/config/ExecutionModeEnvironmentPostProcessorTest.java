@@ -0,0 +1,42 @@
+package com.finovia.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.mock.env.MockPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExecutionModeEnvironmentPostProcessorTest {
+
+	private final ExecutionModeEnvironmentPostProcessor processor = new ExecutionModeEnvironmentPostProcessor();
+
+	@Test
+	void platformModeAddsNothing() {
+		StandardEnvironment environment = environment(new MockPropertySource());
+
+		processor.postProcessEnvironment(environment, new SpringApplication());
+
+		assertNull(environment.getProperty("spring.threads.virtual.enabled"));
+	}
+
+	@Test
+	void virtualModeAppliesDefaultsBelowExplicitSettings() {
+		StandardEnvironment environment = environment(new MockPropertySource()
+				.withProperty("execution.mode", "virtual")
+				.withProperty("spring.datasource.hikari.maximum-pool-size", "50"));
+
+		processor.postProcessEnvironment(environment, new SpringApplication());
+
+		assertEquals("true", environment.getProperty("spring.threads.virtual.enabled"));
+		assertEquals("250", environment.getProperty("finnhub.bulkhead.max-wait-ms"));
+		assertEquals("50", environment.getProperty("spring.datasource.hikari.maximum-pool-size"));
+	}
+
+	private static StandardEnvironment environment(MockPropertySource properties) {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(properties);
+		return environment;
+	}
+}
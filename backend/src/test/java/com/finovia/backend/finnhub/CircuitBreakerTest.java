@@ -0,0 +1,52 @@
+package com.finovia.backend.finnhub;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+	@Test
+	void opensAfterConsecutiveFailuresAndRejects() {
+		CircuitBreaker breaker = new CircuitBreaker(3, 60_000);
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess();
+		breaker.onFailure();
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+	}
+
+	@Test
+	void halfOpenLetsOneProbeThroughAndClosesOnSuccess() throws InterruptedException {
+		CircuitBreaker breaker = new CircuitBreaker(1, 10);
+		breaker.onFailure();
+		Thread.sleep(20);
+
+		assertTrue(breaker.allowRequest());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	void failedProbeReopens() throws InterruptedException {
+		CircuitBreaker breaker = new CircuitBreaker(1, 10);
+		breaker.onFailure();
+		Thread.sleep(20);
+
+		assertTrue(breaker.allowRequest());
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(2, breaker.getOpenedCount());
+	}
+}
@@ -0,0 +1,142 @@
+package com.finovia.backend.journal;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.account.LotChange;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.persistence.TradeEffect;
+import com.finovia.backend.persistence.TradeWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JournalRecoveryTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 2, 10, 0, 0, 123_000_000);
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void effectsAboveTheCheckpointAreResubmitted() {
+		AccountState live = new AccountState(7, Money.of("10000"), 0, 1);
+		Journal journal = journal();
+		journal.open(0);
+		journal.register(new AccountState(7, Money.of("10000"), 0, 1), () -> null);
+		journal.appendEffects(List.of(buy(live, "AAPL", 10, "100")), seq -> { });
+		TradeEffect uncommitted = buy(live, "AAPL", 5, "110");
+		journal.appendEffects(List.of(uncommitted), seq -> { });
+		journal.close();
+
+		AccountStore accountStore = mock(AccountStore.class);
+		TradeWriteBehind tradeWriteBehind = mock(TradeWriteBehind.class);
+		recovery(journal(), 2, accountStore, tradeWriteBehind).recover();
+
+		List<AccountState> restored = restored(accountStore);
+		assertEquals(1, restored.size());
+		AccountState rebuilt = restored.get(0);
+		assertEquals(live.getBalanceMicros(), rebuilt.getBalanceMicros());
+		assertEquals(15, rebuilt.getPosition("AAPL").getQuantity());
+		assertEquals(live.getPosition("AAPL").getCostBasisMicros(), rebuilt.getPosition("AAPL").getCostBasisMicros());
+		verify(tradeWriteBehind, times(1)).resubmit(anyList(), anyLong());
+		verify(tradeWriteBehind).resubmit(argThat(effects -> effects.size() == 1
+				&& effects.get(0).holdingQuantityAfter() == uncommitted.holdingQuantityAfter()), eq(3L));
+	}
+
+	@Test
+	void journalBehindTheCheckpointLoadsAccountsFromTheDatabase() {
+		AccountState live = new AccountState(7, Money.of("10000"), 0, 1);
+		Journal journal = journal();
+		journal.open(0);
+		journal.register(new AccountState(7, Money.of("10000"), 0, 1), () -> null);
+		journal.appendEffects(List.of(buy(live, "AAPL", 10, "100")), seq -> { });
+		journal.appendEffects(List.of(buy(live, "AAPL", 5, "110")), seq -> { });
+		journal.close();
+
+		// The database committed seqs 4 and 5, whose records were lost with the OS crash
+		AccountStore accountStore = mock(AccountStore.class);
+		TradeWriteBehind tradeWriteBehind = mock(TradeWriteBehind.class);
+		Journal reopened = journal();
+		recovery(reopened, 5, accountStore, tradeWriteBehind).recover();
+
+		assertTrue(restored(accountStore).isEmpty());
+		verify(tradeWriteBehind, never()).resubmit(anyList(), anyLong());
+		assertEquals(6, reopened.lastSeq());
+		List<JournalRecord> appended = new ArrayList<>();
+		reopened.replay(5, (seq, record) -> appended.add(record));
+		assertEquals(List.of(new JournalRecord.Invalidate(7)), appended);
+		reopened.close();
+
+		// A later restart replays across the gap and still leaves the account to the database
+		AccountStore nextStore = mock(AccountStore.class);
+		recovery(journal(), 6, nextStore, mock(TradeWriteBehind.class)).recover();
+		assertTrue(restored(nextStore).isEmpty());
+	}
+
+	private Journal journal() {
+		Journal journal = new Journal();
+		ReflectionTestUtils.setField(journal, "enabled", true);
+		ReflectionTestUtils.setField(journal, "dir", dir.toString());
+		ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+		ReflectionTestUtils.setField(journal, "forceIntervalMillis", 100L);
+		ReflectionTestUtils.setField(journal, "meterRegistry", new SimpleMeterRegistry());
+		journal.init();
+		return journal;
+	}
+
+	private static JournalRecovery recovery(Journal journal, long committed, AccountStore accountStore, TradeWriteBehind tradeWriteBehind) {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(committed);
+		AccountSnapshots snapshots = new AccountSnapshots();
+		ReflectionTestUtils.setField(snapshots, "journal", journal);
+
+		JournalRecovery recovery = new JournalRecovery();
+		ReflectionTestUtils.setField(recovery, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(recovery, "journal", journal);
+		ReflectionTestUtils.setField(recovery, "snapshots", snapshots);
+		ReflectionTestUtils.setField(recovery, "accountStore", accountStore);
+		ReflectionTestUtils.setField(recovery, "tradeWriteBehind", tradeWriteBehind);
+		return recovery;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<AccountState> restored(AccountStore accountStore) {
+		ArgumentCaptor<Collection<AccountState>> captor = ArgumentCaptor.forClass(Collection.class);
+		verify(accountStore).restore(captor.capture());
+		return List.copyOf(captor.getValue());
+	}
+
+	private static TradeEffect buy(AccountState account, String symbol, int quantity, String price) {
+		long priceMicros = Money.of(price);
+		account.setBalanceMicros(account.getBalanceMicros() - Money.times(priceMicros, quantity));
+		Position position = account.openPosition(symbol);
+		LotChange change = position.buy(account.allocateLotSeq(), quantity, priceMicros, NOW);
+		return new TradeEffect(account.getUserId(), account.getBalanceMicros(), account.getRealizedPnlMicros(), position.getStockSymbol(),
+				position.getQuantity(), position.getCostBasisMicros(), change, "BUY", quantity, priceMicros, 0, NOW,
+				new CompletableFuture<>());
+	}
+}
@@ -0,0 +1,116 @@
+package com.finovia.backend.journal;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.CostBasisMethod;
+import com.finovia.backend.account.LotChange;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.persistence.TradeEffect;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class JournalSegmentTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 2, 10, 0, 0, 123_000_000);
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void replayingJournaledEffectsRebuildsTheLiveAccount() {
+		Path file = dir.resolve("segment.journal");
+		JournalSegment segment = JournalSegment.create(file, 1, 1 << 16);
+
+		AccountState live = new AccountState(7, Money.of("10000"), 0, 1);
+		append(segment, 1, new JournalRecord.Baseline(new AccountState(7, Money.of("10000"), 0, 1)));
+		append(segment, 2, new JournalRecord.Effect(buy(live, "AAPL", 10, "100")));
+		append(segment, 3, new JournalRecord.Effect(buy(live, "AAPL", 10, "120")));
+		append(segment, 4, new JournalRecord.Effect(sell(live, "AAPL", 15, "130")));
+
+		JournalCodec codec = new JournalCodec();
+		List<AccountState> replayed = new ArrayList<>();
+		JournalSegment.read(file).scan((seq, type, payload) -> {
+			JournalRecord record = codec.decode(type, payload);
+			if (record instanceof JournalRecord.Baseline baseline) {
+				replayed.add(baseline.account());
+			} else if (record instanceof JournalRecord.Effect effect) {
+				JournalRecovery.apply(replayed.get(0), effect.effect());
+			}
+		});
+
+		AccountState rebuilt = replayed.get(0);
+		assertEquals(live.getBalanceMicros(), rebuilt.getBalanceMicros());
+		assertEquals(live.getRealizedPnlMicros(), rebuilt.getRealizedPnlMicros());
+		assertEquals(live.peekNextLotSeq(), rebuilt.peekNextLotSeq());
+		Position position = rebuilt.getPosition("AAPL");
+		assertEquals(5, position.getQuantity());
+		assertEquals(live.getPosition("AAPL").getCostBasisMicros(), position.getCostBasisMicros());
+		assertEquals(List.copyOf(live.getPosition("AAPL").getLots()), List.copyOf(position.getLots()));
+	}
+
+	@Test
+	void reopeningStopsAtATornRecordAndClearsIt() throws Exception {
+		Path file = dir.resolve("segment.journal");
+		JournalSegment segment = JournalSegment.create(file, 41, 1 << 16);
+		append(segment, 41, new JournalRecord.Invalidate(1));
+		append(segment, 42, new JournalRecord.Invalidate(2));
+		int torn = segment.position();
+		append(segment, 43, new JournalRecord.Invalidate(3));
+		try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+			raw.seek(segment.position() - 1);
+			raw.write(0x5A);
+		}
+
+		JournalSegment reopened = JournalSegment.reopen(file);
+		assertEquals(42, reopened.lastSeq());
+		assertEquals(torn, reopened.position());
+
+		append(reopened, 43, new JournalRecord.Invalidate(4));
+		List<Long> users = new ArrayList<>();
+		JournalCodec codec = new JournalCodec();
+		JournalSegment.read(file).scan((seq, type, payload) -> users.add(codec.decode(type, payload).userId()));
+		assertEquals(List.of(1L, 2L, 4L), users);
+		assertFalse(reopened.append(44, JournalRecord.INVALIDATE, ByteBuffer.allocate(1 << 16)));
+	}
+
+	private static void append(JournalSegment segment, long seq, JournalRecord record) {
+		ByteBuffer payload = ByteBuffer.allocate(1024);
+		JournalCodec.encode(record, payload);
+		segment.append(seq, JournalCodec.type(record), payload.flip());
+	}
+
+	private static TradeEffect buy(AccountState account, String symbol, int quantity, String price) {
+		long priceMicros = Money.of(price);
+		account.setBalanceMicros(account.getBalanceMicros() - Money.times(priceMicros, quantity));
+		Position position = account.openPosition(symbol);
+		LotChange change = position.buy(account.allocateLotSeq(), quantity, priceMicros, NOW);
+		return effect(account, position, change, "BUY", quantity, priceMicros, 0);
+	}
+
+	private static TradeEffect sell(AccountState account, String symbol, int quantity, String price) {
+		long priceMicros = Money.of(price);
+		account.setBalanceMicros(account.getBalanceMicros() + Money.times(priceMicros, quantity));
+		Position position = account.getPosition(symbol);
+		Position.SellOutcome outcome = position.sell(quantity, priceMicros, CostBasisMethod.FIFO, account.peekNextLotSeq());
+		account.addRealizedPnlMicros(outcome.realizedPnlMicros());
+		return effect(account, position, outcome.lotChange(), "SELL", quantity, priceMicros, outcome.realizedPnlMicros());
+	}
+
+	private static TradeEffect effect(AccountState account, Position position, LotChange change, String type, int quantity,
+									  long priceMicros, long realizedPnlMicros) {
+		return new TradeEffect(account.getUserId(), account.getBalanceMicros(), account.getRealizedPnlMicros(), position.getStockSymbol(),
+				position.getQuantity(), position.getCostBasisMicros(), change, type, quantity, priceMicros, realizedPnlMicros, NOW,
+				new CompletableFuture<>());
+	}
+}
@@ -0,0 +1,58 @@
+package com.finovia.backend.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankTreeTest {
+
+	private static final Comparator<long[]> ORDER = Comparator.<long[]>comparingLong(e -> -e[1]).thenComparingLong(e -> e[0]);
+
+	@Test
+	void ranksHigherScoresFirstAndTiesByLowerId() {
+		RankTree tree = new RankTree();
+		tree.insert(3, 500);
+		tree.insert(1, 700);
+		tree.insert(2, 500);
+
+		assertEquals(1, tree.rankOf(1, 700));
+		assertEquals(2, tree.rankOf(2, 500));
+		assertEquals(3, tree.rankOf(3, 500));
+		assertEquals(0, tree.rankOf(3, 501));
+		assertFalse(tree.remove(3, 501));
+	}
+
+	@Test
+	void matchesASortedListUnderRandomMoves() {
+		RankTree tree = new RankTree();
+		List<long[]> expected = new ArrayList<>();
+		Random random = new Random(7);
+		for (long id = 1; id <= 500; id++) {
+			long score = random.nextInt(1000);
+			tree.insert(id, score);
+			expected.add(new long[]{id, score});
+		}
+		for (int i = 0; i < 2000; i++) {
+			long[] entry = expected.get(random.nextInt(expected.size()));
+			assertTrue(tree.remove(entry[0], entry[1]));
+			entry[1] = random.nextInt(1000);
+			tree.insert(entry[0], entry[1]);
+		}
+		expected.sort(ORDER);
+
+		assertEquals(expected.size(), tree.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(i + 1, tree.rankOf(expected.get(i)[0], expected.get(i)[1]));
+		}
+		List<Long> top = new ArrayList<>();
+		tree.top(10, (rank, id, score) -> top.add(id));
+		assertEquals(expected.subList(0, 10).stream().map(e -> e[0]).toList(), top);
+	}
+}
@@ -0,0 +1,57 @@
+package com.finovia.backend.marketdata;
+
+import com.finovia.backend.dto.FinnhubQuote;
+import com.finovia.backend.service.QuoteService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FinnhubPollingFeedTest {
+
+	@Test
+	void pollsInParallelWithinTheBudgetAndTakesTurns() throws Exception {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		QuoteService quoteService = mock(QuoteService.class);
+		when(quoteService.getQuote(anyString())).thenAnswer(invocation -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			Thread.sleep(50);
+			running.decrementAndGet();
+			FinnhubQuote quote = new FinnhubQuote();
+			quote.setCurrentPrice(new BigDecimal("10"));
+			return quote;
+		});
+
+		// One cycle a minute with 4 calls a minute: 4 calls per cycle, 2 at a time
+		FinnhubPollingFeed feed = new FinnhubPollingFeed(quoteService, 60_000, 2, 4);
+		List<String> polled = new CopyOnWriteArrayList<>();
+		CountDownLatch firstCycle = new CountDownLatch(4);
+		feed.start(Set.of("A", "B", "C", "D", "E", "F"), (symbol, price, timestamp) -> {
+			polled.add(symbol);
+			firstCycle.countDown();
+		});
+		try {
+			assertTrue(firstCycle.await(5, TimeUnit.SECONDS));
+			assertEquals(Set.of("A", "B", "C", "D"), Set.copyOf(polled));
+
+			polled.clear();
+			feed.pollAll();
+			assertEquals(Set.of("E", "F", "A", "B"), Set.copyOf(polled));
+			assertEquals(2, maxRunning.get());
+		} finally {
+			feed.stop();
+		}
+	}
+}
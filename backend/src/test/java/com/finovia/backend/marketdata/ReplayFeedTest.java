@@ -0,0 +1,38 @@
+package com.finovia.backend.marketdata;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayFeedTest {
+
+	@Test
+	void replaysTicksInFileOrder() throws Exception {
+		Path file = Path.of(getClass().getResource("/marketdata/replay-sample.csv").toURI());
+		ReplayFeed feed = new ReplayFeed(file, 0, false);
+
+		List<PriceTick> received = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(5);
+		feed.start(Set.of(), (symbol, price, timestamp) -> {
+			received.add(new PriceTick(symbol, price, timestamp));
+			done.countDown();
+		});
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		feed.stop();
+
+		assertEquals(5, received.size());
+		assertEquals("AAPL", received.get(0).symbol());
+		assertEquals(new BigDecimal("189.62"), received.get(2).price());
+		assertEquals("TSLA", received.get(3).symbol());
+	}
+}
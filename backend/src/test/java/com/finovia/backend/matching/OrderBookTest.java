@@ -0,0 +1,90 @@
+package com.finovia.backend.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OrderBookTest {
+
+	private final List<Order> filled = new ArrayList<>();
+	private final List<Long> fillPrices = new ArrayList<>();
+	private final FillListener listener = (order, ticks) -> {
+		filled.add(order);
+		fillPrices.add(ticks);
+	};
+
+	@Test
+	void limitOrdersFillWhenMarketCrossesThem() {
+		OrderBook book = new OrderBook("AAPL");
+		Order buy = order(1, OrderSide.BUY, OrderType.LIMIT, 1_000_000);
+		Order sell = order(2, OrderSide.SELL, OrderType.LIMIT, 1_100_000);
+		book.add(buy, 1_050_000, listener);
+		book.add(sell, 1_050_000, listener);
+
+		book.onPrice(1_000_100, listener);
+		assertEquals(0, filled.size());
+
+		book.onPrice(999_000, listener);
+		assertEquals(List.of(buy), filled);
+		assertEquals(999_000L, fillPrices.get(0));
+
+		book.onPrice(1_100_000, listener);
+		assertEquals(List.of(buy, sell), filled);
+		assertEquals(0, book.size());
+	}
+
+	@Test
+	void stopOrdersTriggerOnTheWayThrough() {
+		OrderBook book = new OrderBook("AAPL");
+		Order buyStop = order(1, OrderSide.BUY, OrderType.STOP, 1_100_000);
+		Order sellStop = order(2, OrderSide.SELL, OrderType.STOP, 900_000);
+		book.add(buyStop, 1_000_000, listener);
+		book.add(sellStop, 1_000_000, listener);
+
+		book.onPrice(1_100_500, listener);
+		assertEquals(List.of(buyStop), filled);
+
+		book.onPrice(899_000, listener);
+		assertEquals(List.of(buyStop, sellStop), filled);
+	}
+
+	@Test
+	void marketableLimitFillsImmediately() {
+		OrderBook book = new OrderBook("AAPL");
+		Order buy = order(1, OrderSide.BUY, OrderType.LIMIT, 1_100_000);
+		book.add(buy, 1_050_000, listener);
+
+		assertEquals(List.of(buy), filled);
+		assertEquals(1_050_000L, fillPrices.get(0));
+		assertEquals(0, book.size());
+	}
+
+	@Test
+	void cancelAndReplace() {
+		OrderBook book = new OrderBook("AAPL");
+		Order first = order(1, OrderSide.BUY, OrderType.LIMIT, 1_000_000);
+		Order second = order(2, OrderSide.BUY, OrderType.LIMIT, 1_000_000);
+		book.add(first, 0, listener);
+		book.add(second, 0, listener);
+
+		assertSame(first, book.cancel(1));
+		assertNull(book.cancel(1));
+
+		book.replace(2, 950_000, 5, 0, listener);
+		book.onPrice(990_000, listener);
+		assertEquals(0, filled.size());
+
+		book.onPrice(950_000, listener);
+		assertEquals(List.of(second), filled);
+		assertEquals(5, second.getQuantity());
+	}
+
+	private static Order order(long id, OrderSide side, OrderType type, long priceTicks) {
+		return new Order(id, 7, "AAPL", side, type, priceTicks, 10);
+	}
+}
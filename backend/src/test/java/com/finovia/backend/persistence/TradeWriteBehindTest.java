@@ -0,0 +1,165 @@
+package com.finovia.backend.persistence;
+
+import com.finovia.backend.account.AccountStore;
+import com.finovia.backend.account.LotChange;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.TaxLot;
+import com.finovia.backend.journal.Journal;
+import com.finovia.backend.service.TradeSequencer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TradeWriteBehindTest {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 2, 10, 0, 0);
+
+	// The stubbed database refuses transaction rows with this quantity
+	private static final int BAD_QUANTITY = 13;
+
+	private final List<Long> savedUsers = Collections.synchronizedList(new ArrayList<>());
+
+	private TradeSequencer tradeSequencer;
+	private AccountStore accountStore;
+	private TradeWriteBehind writeBehind;
+
+	@BeforeEach
+	void setUp() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(50L);
+		doAnswer(invocation -> {
+			String sql = invocation.getArgument(0);
+			List<Object[]> rows = invocation.getArgument(1);
+			if (sql.startsWith("INSERT INTO transactions")) {
+				for (Object[] row : rows) {
+					if ((int) row[4] == BAD_QUANTITY) {
+						throw new DataIntegrityViolationException("rejected");
+					}
+				}
+				rows.forEach(row -> savedUsers.add((Long) row[1]));
+			}
+			return new int[rows.size()];
+		}).when(jdbcTemplate).batchUpdate(anyString(), ArgumentMatchers.<Object[]>anyList());
+
+		tradeSequencer = new TradeSequencer();
+		ReflectionTestUtils.setField(tradeSequencer, "configuredStripes", 2);
+		ReflectionTestUtils.setField(tradeSequencer, "queueCapacity", 100);
+		ReflectionTestUtils.setField(tradeSequencer, "meterRegistry", new SimpleMeterRegistry());
+		tradeSequencer.init();
+		tradeSequencer.start();
+
+		accountStore = mock(AccountStore.class);
+		writeBehind = new TradeWriteBehind();
+		ReflectionTestUtils.setField(writeBehind, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(writeBehind, "transactionManager", mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(writeBehind, "accountStore", accountStore);
+		ReflectionTestUtils.setField(writeBehind, "tradeSequencer", tradeSequencer);
+		// Disabled journal: effects go straight to the queue
+		ReflectionTestUtils.setField(writeBehind, "journal", new Journal());
+		ReflectionTestUtils.setField(writeBehind, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(writeBehind, "mode", PersistenceMode.DURABLE);
+		ReflectionTestUtils.setField(writeBehind, "batchSize", 500);
+		ReflectionTestUtils.setField(writeBehind, "flushIntervalMillis", 20L);
+		ReflectionTestUtils.setField(writeBehind, "queueCapacity", 1000);
+		writeBehind.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		tradeSequencer.stop();
+		writeBehind.stop();
+	}
+
+	@Test
+	void failedGroupFailsOnlyItsUserAndFencesItUntilTheReload() throws Exception {
+		// Holds user 1's lane, so the invalidation the failure schedules cannot run yet
+		CountDownLatch laneHeld = new CountDownLatch(1);
+		tradeSequencer.submit(1, () -> {
+			awaitQuietly(laneHeld);
+			return null;
+		});
+
+		CompletableFuture<Void> bad = writeBehind.submit(effect(1, BAD_QUANTITY));
+		CompletableFuture<Void> other = writeBehind.submit(effect(2, 5));
+		assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+		other.get(5, TimeUnit.SECONDS);
+
+		// Made from memory that still holds the failed trade: failed, never written
+		CompletableFuture<Void> stale = writeBehind.submit(effect(1, 5));
+		assertThrows(ExecutionException.class, () -> stale.get(5, TimeUnit.SECONDS));
+		assertEquals(List.of(2L), savedUsers);
+
+		laneHeld.countDown();
+		CompletableFuture<Void> reloaded = tradeSequencer.submit(1, () -> writeBehind.submit(effect(1, 5)))
+				.thenCompose(persisted -> persisted);
+		reloaded.get(5, TimeUnit.SECONDS);
+		verify(accountStore).invalidate(1);
+		assertEquals(List.of(2L, 1L), savedUsers);
+	}
+
+	@Test
+	void stoppingDrainsTheLanesIntoTheLastFlush() {
+		// Spring stops higher phases first
+		assertTrue(writeBehind.getPhase() < tradeSequencer.getPhase());
+
+		List<CompletableFuture<Void>> persisted = new ArrayList<>();
+		for (long user = 1; user <= 20; user++) {
+			long userId = user;
+			persisted.add(tradeSequencer.submit(userId, () -> {
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+				return writeBehind.submit(effect(userId, 5));
+			}).thenCompose(flushed -> flushed));
+		}
+		tradeSequencer.stop();
+		writeBehind.stop();
+
+		for (CompletableFuture<Void> future : persisted) {
+			assertTrue(future.isDone() && !future.isCompletedExceptionally());
+		}
+		assertEquals(20, savedUsers.size());
+		assertTrue(tradeSequencer.submit(1, () -> null).isCompletedExceptionally());
+		assertTrue(writeBehind.submit(effect(1, 5)).isCompletedExceptionally());
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static TradeEffect effect(long userId, int quantity) {
+		long price = Money.of("100");
+		long cost = Money.times(price, quantity);
+		return new TradeEffect(userId, Money.of("10000") - cost, 0, "AAPL", quantity, cost,
+				LotChange.added(new TaxLot(1, quantity, price, NOW)), "BUY", quantity, price, 0, NOW,
+				new CompletableFuture<>());
+	}
+}
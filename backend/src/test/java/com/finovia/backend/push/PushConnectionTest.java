@@ -0,0 +1,41 @@
+package com.finovia.backend.push;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PushConnectionTest {
+
+	@Test
+	void unsentValuesAreConflatedPerKey() throws Exception {
+		PushConnection connection = new PushConnection("c1", 1, new SseEmitter(), true);
+
+		assertFalse(connection.offer("price:AAPL", "price", 100));
+		assertTrue(connection.offer("price:AAPL", "price", 101));
+		assertFalse(connection.offer("price:MSFT", "price", 300));
+
+		assertEquals(2, connection.drain());
+		assertFalse(connection.hasPending());
+	}
+
+	@Test
+	void supplierPayloadsAreBuiltOnlyWhenSent() throws Exception {
+		PushConnection connection = new PushConnection("c1", 1, new SseEmitter(), true);
+		AtomicInteger builds = new AtomicInteger();
+		Supplier<Object> snapshot = builds::incrementAndGet;
+
+		connection.offer("portfolio", "portfolio", snapshot);
+		connection.offer("portfolio", "portfolio", snapshot);
+		connection.offer("portfolio", "portfolio", snapshot);
+		assertEquals(0, builds.get());
+
+		assertEquals(1, connection.drain());
+		assertEquals(1, builds.get());
+	}
+}
@@ -0,0 +1,123 @@
+package com.finovia.backend.service;
+
+import com.finovia.backend.dto.FinnhubQuote;
+import com.finovia.backend.finnhub.FinnhubClient;
+import com.finovia.backend.finnhub.FinnhubUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuoteServiceTest {
+
+	private static final int CALLERS = 8;
+
+	private final FinnhubClient finnhubClient = mock(FinnhubClient.class);
+	private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+	@AfterEach
+	void tearDown() {
+		callers.shutdownNow();
+	}
+
+	@Test
+	void concurrentMissesShareOneUpstreamCall() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		FinnhubQuote upstream = quote("189.62");
+		when(finnhubClient.getQuote("AAPL")).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return upstream;
+		});
+		QuoteService service = service();
+
+		List<Future<FinnhubQuote>> results = getConcurrently(service);
+		awaitCoalesced(service, CALLERS - 1);
+		release.countDown();
+
+		for (Future<FinnhubQuote> result : results) {
+			assertSame(upstream, result.get(5, TimeUnit.SECONDS));
+		}
+		verify(finnhubClient, times(1)).getQuote("AAPL");
+		// Cached now: one more lookup stays in memory
+		assertSame(upstream, service.getQuote("aapl"));
+		verify(finnhubClient, times(1)).getQuote("AAPL");
+	}
+
+	@Test
+	void failureReachesEveryWaiterAndFreesTheSlot() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		FinnhubQuote recovered = quote("190.10");
+		when(finnhubClient.getQuote("AAPL"))
+				.thenAnswer(invocation -> {
+					release.await(5, TimeUnit.SECONDS);
+					throw new FinnhubUnavailableException("Finnhub circuit open");
+				})
+				.thenReturn(recovered);
+		QuoteService service = service();
+
+		List<Future<FinnhubQuote>> results = getConcurrently(service);
+		awaitCoalesced(service, CALLERS - 1);
+		release.countDown();
+
+		for (Future<FinnhubQuote> result : results) {
+			ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+			assertInstanceOf(FinnhubUnavailableException.class, failure.getCause());
+		}
+		verify(finnhubClient, times(1)).getQuote("AAPL");
+		assertEquals(0, service.getStats().get("inFlight"));
+
+		// The next caller is not stuck behind the failed call and goes upstream again
+		assertSame(recovered, service.getQuote("AAPL"));
+		verify(finnhubClient, times(2)).getQuote("AAPL");
+	}
+
+	private List<Future<FinnhubQuote>> getConcurrently(QuoteService service) {
+		List<Future<FinnhubQuote>> results = new ArrayList<>(CALLERS);
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(callers.submit(() -> service.getQuote("AAPL")));
+		}
+		return results;
+	}
+
+	// Waits until every caller but the leader is parked on the in-flight call
+	private static void awaitCoalesced(QuoteService service, long expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while ((long) service.getStats().get("coalesced") < expected) {
+			assertTrue(System.nanoTime() < deadline, "callers did not coalesce");
+			Thread.sleep(5);
+		}
+	}
+
+	private QuoteService service() {
+		QuoteService service = new QuoteService();
+		ReflectionTestUtils.setField(service, "finnhubClient", finnhubClient);
+		ReflectionTestUtils.setField(service, "ttlMillis", 60_000L);
+		ReflectionTestUtils.setField(service, "maxSize", 100);
+		return service;
+	}
+
+	private static FinnhubQuote quote(String price) {
+		FinnhubQuote quote = new FinnhubQuote();
+		quote.setCurrentPrice(new BigDecimal(price));
+		return quote;
+	}
+}
@@ -0,0 +1,103 @@
+package com.finovia.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finovia.backend.dto.RecommendationTrend;
+import com.finovia.backend.finnhub.FinnhubClient;
+import com.finovia.backend.repository.HoldingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RecommendationServiceTest {
+
+	private static final List<RecommendationTrend> JANUARY = List.of(new RecommendationTrend("AAPL", "2024-01-01", 10, 20, 5, 1, 0));
+	private static final List<RecommendationTrend> FEBRUARY = List.of(new RecommendationTrend("AAPL", "2024-02-01", 12, 18, 6, 0, 0));
+
+	@TempDir
+	Path dir;
+
+	private final FinnhubClient finnhubClient = mock(FinnhubClient.class);
+	private final HoldingRepository holdingRepository = mock(HoldingRepository.class);
+
+	@Test
+	void firstFetchWaitsForFinnhub() {
+		CompletableFuture<List<RecommendationTrend>> upstream = new CompletableFuture<>();
+		when(finnhubClient.getRecommendationsAsync("AAPL")).thenReturn(upstream);
+		RecommendationService service = service(finnhubClient, 60_000);
+
+		CompletableFuture<List<RecommendationTrend>> trends = service.getTrends("aapl");
+
+		assertFalse(trends.isDone());
+		upstream.complete(JANUARY);
+		assertEquals(JANUARY, trends.join());
+	}
+
+	@Test
+	void cachedTrendsAreServedWithoutCallingFinnhub() {
+		when(finnhubClient.getRecommendationsAsync("AAPL")).thenReturn(CompletableFuture.completedFuture(JANUARY));
+		RecommendationService service = service(finnhubClient, 60_000);
+		service.getTrends("AAPL").join();
+
+		CompletableFuture<List<RecommendationTrend>> trends = service.getTrends("AAPL");
+
+		assertTrue(trends.isDone());
+		assertEquals(JANUARY, trends.join());
+		verify(finnhubClient, times(1)).getRecommendationsAsync("AAPL");
+	}
+
+	@Test
+	void expiredTrendsAreServedWhileTheyRefresh() {
+		CompletableFuture<List<RecommendationTrend>> refresh = new CompletableFuture<>();
+		when(finnhubClient.getRecommendationsAsync("AAPL"))
+				.thenReturn(CompletableFuture.completedFuture(JANUARY))
+				.thenReturn(refresh);
+		RecommendationService service = service(finnhubClient, -1);
+		service.getTrends("AAPL").join();
+
+		// Expired: the old trends come back at once and a refresh starts
+		assertEquals(JANUARY, service.getTrends("AAPL").getNow(null));
+		verify(finnhubClient, times(2)).getRecommendationsAsync("AAPL");
+
+		refresh.complete(FEBRUARY);
+		ReflectionTestUtils.setField(service, "ttlMillis", 60_000L);
+		assertEquals(FEBRUARY, service.getTrends("AAPL").getNow(null));
+	}
+
+	@Test
+	void snapshotRestoresTheCacheAfterARestart() {
+		when(holdingRepository.findDistinctStockSymbols()).thenReturn(List.of("AAPL"));
+		when(finnhubClient.getRecommendationsAsync("AAPL")).thenReturn(CompletableFuture.completedFuture(JANUARY));
+		service(finnhubClient, 60_000).prefetch();
+
+		FinnhubClient restartedClient = mock(FinnhubClient.class);
+		RecommendationService restarted = service(restartedClient, 60_000);
+		restarted.loadSnapshot();
+
+		assertEquals(JANUARY, restarted.getTrends("AAPL").getNow(null));
+		verifyNoInteractions(restartedClient);
+	}
+
+	private RecommendationService service(FinnhubClient client, long ttlMillis) {
+		RecommendationService service = new RecommendationService();
+		ReflectionTestUtils.setField(service, "finnhubClient", client);
+		ReflectionTestUtils.setField(service, "holdingRepository", holdingRepository);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "ttlMillis", ttlMillis);
+		ReflectionTestUtils.setField(service, "snapshotFile", dir.resolve("recommendation-trends.json").toString());
+		return service;
+	}
+}
@@ -0,0 +1,123 @@
+-- Query-plan and latency benchmark for the hot query paths at 10M transaction rows.
+--
+-- Run against a scratch database that has been migrated (start the app once against it, or
+-- run Flyway), then:
+--
+--   psql -d finovia_bench -v ON_ERROR_STOP=1 -f hot-path-queries-10m.sql
+--
+-- Each query is run with EXPLAIN (ANALYZE, BUFFERS) twice: with the V2 indexes, and inside a
+-- rolled-back transaction with them dropped. With the indexes every plan should be an
+-- Index Scan on ux_holdings_user_symbol / ix_transactions_user_ts_id with no Sort node;
+-- without them expect a Seq Scan (or bitmap heap scan) over the whole table plus a Sort.
+
+\timing on
+\set users 20000
+\set rows 10000000
+
+-- ---------------------------------------------------------------------------------------------
+-- Seed data
+-- ---------------------------------------------------------------------------------------------
+
+INSERT INTO users (username, email, password, virtual_balance)
+SELECT 'bench_' || g, 'bench_' || g || '@example.com', 'not-a-real-hash', 100000
+FROM generate_series(1, :users) g
+ON CONFLICT DO NOTHING;
+
+CREATE TEMP TABLE bench_users AS
+SELECT row_number() OVER (ORDER BY id) AS n, id
+FROM users
+WHERE username LIKE 'bench\_%';
+
+-- Skewed towards low n so a handful of accounts have hundreds of thousands of trades
+INSERT INTO transactions (id, user_id, stock_symbol, transaction_type, quantity, price_per_share, timestamp)
+SELECT nextval('transactions_seq'),
+       u.id,
+       (ARRAY['AAPL','MSFT','GOOGL','AMZN','NVDA','META','TSLA','BRK.B','JPM','V',
+              'UNH','XOM','JNJ','WMT','MA','PG','HD','CVX','LLY','ABBV'])[1 + (random() * 19)::int],
+       CASE WHEN random() < 0.55 THEN 'BUY' ELSE 'SELL' END,
+       1 + (random() * 99)::int,
+       round((10 + random() * 990)::numeric, 4),
+       now() - random() * interval '730 days'
+FROM generate_series(1, :rows) g
+JOIN bench_users u ON u.n = 1 + floor(:users * power(random(), 3))::int;
+
+INSERT INTO holdings (user_id, stock_symbol, quantity, average_purchase_price)
+SELECT DISTINCT user_id, stock_symbol, 10, 100
+FROM transactions
+WHERE user_id IN (SELECT id FROM bench_users)
+ON CONFLICT (user_id, stock_symbol) DO NOTHING;
+
+VACUUM ANALYZE users;
+VACUUM ANALYZE holdings;
+VACUUM ANALYZE transactions;
+
+-- The heaviest account and a cursor half-way through its history
+SELECT user_id AS heavy_user, COUNT(*) AS heavy_rows
+FROM transactions GROUP BY user_id ORDER BY COUNT(*) DESC LIMIT 1 \gset
+SELECT timestamp AS cursor_ts, id AS cursor_id
+FROM transactions WHERE user_id = :heavy_user
+ORDER BY timestamp DESC, id DESC OFFSET (:heavy_rows / 2) LIMIT 1 \gset
+
+\echo 'Heaviest account:' :heavy_user 'with' :heavy_rows 'transactions'
+
+-- ---------------------------------------------------------------------------------------------
+-- With indexes
+-- ---------------------------------------------------------------------------------------------
+
+\echo '== holdings by (user, symbol): every trade'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM holdings WHERE user_id = :heavy_user AND stock_symbol = 'AAPL';
+
+\echo '== today''s transactions: every dashboard load'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM transactions
+WHERE user_id = :heavy_user AND timestamp BETWEEN current_date AND current_date + interval '1 day' - interval '1 second'
+ORDER BY timestamp DESC;
+
+\echo '== 10 most recent'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, stock_symbol, transaction_type, quantity, price_per_share, timestamp
+FROM transactions WHERE user_id = :heavy_user
+ORDER BY timestamp DESC, id DESC LIMIT 10;
+
+\echo '== keyset page from the middle of the history'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, stock_symbol, transaction_type, quantity, price_per_share, timestamp
+FROM transactions
+WHERE user_id = :heavy_user
+  AND (timestamp < :'cursor_ts' OR (timestamp = :'cursor_ts' AND id < :cursor_id))
+ORDER BY timestamp DESC, id DESC LIMIT 50;
+
+-- ---------------------------------------------------------------------------------------------
+-- Same queries without the V2 indexes (rolled back, so the schema is untouched)
+-- ---------------------------------------------------------------------------------------------
+
+BEGIN;
+DROP INDEX ux_holdings_user_symbol;
+DROP INDEX ix_transactions_user_ts_id;
+
+\echo '== [no index] holdings by (user, symbol)'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM holdings WHERE user_id = :heavy_user AND stock_symbol = 'AAPL';
+
+\echo '== [no index] today''s transactions'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM transactions
+WHERE user_id = :heavy_user AND timestamp BETWEEN current_date AND current_date + interval '1 day' - interval '1 second'
+ORDER BY timestamp DESC;
+
+\echo '== [no index] 10 most recent'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, stock_symbol, transaction_type, quantity, price_per_share, timestamp
+FROM transactions WHERE user_id = :heavy_user
+ORDER BY timestamp DESC, id DESC LIMIT 10;
+
+\echo '== [no index] keyset page from the middle of the history'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id, stock_symbol, transaction_type, quantity, price_per_share, timestamp
+FROM transactions
+WHERE user_id = :heavy_user
+  AND (timestamp < :'cursor_ts' OR (timestamp = :'cursor_ts' AND id < :cursor_id))
+ORDER BY timestamp DESC, id DESC LIMIT 50;
+
+ROLLBACK;
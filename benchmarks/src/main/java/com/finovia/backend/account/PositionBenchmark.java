@@ -0,0 +1,79 @@
+package com.finovia.backend.account;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Cost-basis math of one buy and one sell against a position that holds `lots` open lots,
+// the per-trade work done on the sequencer lane. FIFO walks lots from the front; AVERAGE
+// relieves cost proportionally and only trims lots.
+//
+// Run with: mvn -pl benchmarks exec:exec -Dbenchmark=PositionBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionBenchmark {
+
+    private static final int PRICES = 1024;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 2, 10, 0);
+
+    @Param({"FIFO", "AVERAGE"})
+    public CostBasisMethod method;
+
+    @Param({"1", "32"})
+    public int lots;
+
+    private long[] prices;
+    private Position position;
+    private long nextLotSeq;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void prices() {
+        SplittableRandom random = new SplittableRandom(42);
+        prices = new long[PRICES];
+        for (int i = 0; i < PRICES; i++) {
+            prices[i] = Money.of(BigDecimal.valueOf(10_000 + random.nextInt(10_000), 2));
+        }
+    }
+
+    // Reset each iteration so the lot count stays where the parameter put it
+    @Setup(Level.Iteration)
+    public void position() {
+        position = new Position("AAPL");
+        nextLotSeq = 1;
+        for (int i = 0; i < lots; i++) {
+            position.buy(nextLotSeq++, 10, prices[i % PRICES], NOW);
+        }
+    }
+
+    @Benchmark
+    public void buyThenSell(Blackhole blackhole) {
+        long price = prices[cursor++ & (PRICES - 1)];
+        blackhole.consume(position.buy(nextLotSeq++, 10, price, NOW));
+        blackhole.consume(position.sell(10, price, method, nextLotSeq));
+    }
+
+    @Benchmark
+    public long unrealizedPnl() {
+        return position.unrealizedPnlMicros(prices[cursor++ & (PRICES - 1)]);
+    }
+}
@@ -0,0 +1,72 @@
+package com.finovia.backend.backtest;
+
+import com.finovia.backend.account.CostBasisMethod;
+import com.finovia.backend.account.Money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// One backtest run over ten years of daily closes for 500 symbols (random walks), per strategy.
+// The score is the time of a single run; a grid search runs many of them side by side.
+//
+// Run with: mvn -pl benchmarks exec:exec -Dbenchmark=BacktestBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class BacktestBenchmark {
+
+    private static final long DAY = 86_400_000L;
+
+    @Param({"500"})
+    public int symbols;
+
+    @Param({"2520"})
+    public int days;
+
+    @Param({"BUY_AND_HOLD", "SMA_CROSSOVER", "MOMENTUM"})
+    public StrategyType strategy;
+
+    private PriceHistory history;
+    private Map<String, Integer> params;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        PriceHistory.Builder builder = new PriceHistory.Builder();
+        for (int s = 0; s < symbols; s++) {
+            String symbol = "S" + s;
+            double price = 20 + random.nextDouble(200);
+            for (int d = 0; d < days; d++) {
+                price *= 1 + random.nextDouble(-0.02, 0.0205);
+                builder.add(symbol, d * DAY, Math.round(price * Money.ONE));
+            }
+        }
+        history = builder.build();
+        params = switch (strategy) {
+            case BUY_AND_HOLD -> Map.of();
+            case SMA_CROSSOVER -> Map.of("fast", 20, "slow", 100);
+            case MOMENTUM -> Map.of("lookback", 126, "top", 20, "rebalance", 21);
+        };
+    }
+
+    @Benchmark
+    public Backtest.Outcome run() {
+        return Backtest.run(history, strategy.create(symbols, params), Money.of("100000"), CostBasisMethod.FIFO);
+    }
+}
@@ -0,0 +1,28 @@
+package com.finovia.backend.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point for `mvn -pl benchmarks exec:exec`. Accepts the usual JMH command line, but unless
+// -rf/-rff are given the results are also written as JSON (to -Djmh.result, default
+// target/jmh-result.json) so two commits can be compared with any JMH result viewer or a diff.
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue() && !cli.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON)
+                    .result(System.getProperty("jmh.result", "target/jmh-result.json"));
+        }
+        new Runner(options.build()).run();
+    }
+}
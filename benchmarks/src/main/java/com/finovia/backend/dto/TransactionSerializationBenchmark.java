@@ -0,0 +1,99 @@
+package com.finovia.backend.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.finovia.backend.entity.Transaction;
+import com.finovia.backend.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Serializing a transaction history page with the same ObjectMapper setup Spring MVC uses.
+// `views` is what /api/transactions returns; `entities` is the old shape that dragged the
+// owning User along with every row.
+//
+// Run with: mvn -pl benchmarks exec:exec -Dbenchmark=TransactionSerializationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionSerializationBenchmark {
+
+    @Param({"50", "1000"})
+    public int size;
+
+    private ObjectWriter viewWriter;
+    private ObjectWriter entityWriter;
+    private List<TransactionView> views;
+    private List<Transaction> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        TypeFactory types = mapper.getTypeFactory();
+        viewWriter = mapper.writerFor(types.constructCollectionType(List.class, TransactionView.class));
+        entityWriter = mapper.writerFor(types.constructCollectionType(List.class, Transaction.class));
+
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("bench-user");
+        user.setEmail("bench@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ");
+        user.setVirtualBalance(new BigDecimal("100000.00"));
+
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 2, 10, 0);
+        views = new ArrayList<>(size);
+        entities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String type = random.nextBoolean() ? "BUY" : "SELL";
+            int quantity = 1 + random.nextInt(100);
+            BigDecimal price = BigDecimal.valueOf(10_000 + random.nextInt(10_000), 2);
+            BigDecimal pnl = "SELL".equals(type) ? BigDecimal.valueOf(random.nextInt(2_000) - 1_000, 2) : BigDecimal.ZERO;
+            LocalDateTime timestamp = start.plusMinutes(i);
+            views.add(new TransactionView((long) i, "AAPL", type, quantity, price, timestamp, pnl));
+
+            Transaction transaction = new Transaction();
+            transaction.setId((long) i);
+            transaction.setUser(user);
+            transaction.setStockSymbol("AAPL");
+            transaction.setTransactionType(type);
+            transaction.setQuantity(quantity);
+            transaction.setPricePerShare(price);
+            transaction.setTimestamp(timestamp);
+            transaction.setRealizedPnl(pnl);
+            entities.add(transaction);
+        }
+    }
+
+    @Benchmark
+    public byte[] views() throws JsonProcessingException {
+        return viewWriter.writeValueAsBytes(views);
+    }
+
+    @Benchmark
+    public byte[] entities() throws JsonProcessingException {
+        return entityWriter.writeValueAsBytes(entities);
+    }
+}
@@ -0,0 +1,88 @@
+package com.finovia.backend.filter;
+
+import com.finovia.backend.entity.User;
+import com.finovia.backend.repository.UserRepository;
+import com.finovia.backend.security.PrincipalCache;
+import com.finovia.backend.util.JwtUtil;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Cost of authenticating one request through JwtRequestFilter.
+// filterRequest is the steady state (token and principal cached, no database); parseToken is
+// the full signature check and claims parse that a cache miss pays, for comparison.
+//
+// Run with: mvn -pl benchmarks exec:exec -Dbenchmark=JwtRequestFilterBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtRequestFilter filter;
+    private String token;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("bench");
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findById(42L)).thenReturn(Optional.of(user));
+
+        PrincipalCache principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(principalCache, "maxSize", 10_000);
+
+        jwtUtil = new JwtUtil();
+        filter = new JwtRequestFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "principalCache", principalCache);
+
+        token = jwtUtil.generateToken("bench", 42L);
+        request = new MockHttpServletRequest("GET", "/api/portfolio/me");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @Benchmark
+    public Authentication filterRequest() throws Exception {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object parseToken() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtRequestFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.finovia.backend.journal;
+
+import com.finovia.backend.account.AccountState;
+import com.finovia.backend.account.CostBasisMethod;
+import com.finovia.backend.account.LotChange;
+import com.finovia.backend.account.Money;
+import com.finovia.backend.account.Position;
+import com.finovia.backend.persistence.TradeEffect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Startup replay of a journal tail: scanning the segments, checking every record's checksum,
+// decoding it and applying it to the rebuilt accounts. One invocation replays the whole journal,
+// so the score is the recovery time for that many events.
+//
+// Run with: mvn -pl benchmarks exec:exec -Dbenchmark=JournalReplayBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class JournalReplayBenchmark {
+
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final String[] SYMBOLS = {"AAPL", "MSFT", "NVDA", "AMZN", "GOOGL", "META", "TSLA", "AMD"};
+
+    @Param({"1000000"})
+    public int events;
+
+    @Param({"10000"})
+    public int accounts;
+
+    private Path dir;
+    private final List<Path> segments = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void write() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.of(2024, 1, 2, 10, 0);
+        ByteBuffer payload = ByteBuffer.allocate(4096);
+        long seq = 1;
+        JournalSegment segment = JournalSegment.create(dir.resolve(segmentName(seq)), seq, SEGMENT_BYTES);
+
+        AccountState[] live = new AccountState[accounts];
+        for (int i = 0; i < accounts; i++) {
+            live[i] = new AccountState(i + 1, Money.of("1000000"), 0, 1);
+        }
+        for (int i = 0; i < accounts + events; i++) {
+            JournalRecord record;
+            if (i < accounts) {
+                record = new JournalRecord.Baseline(live[i]);
+            } else {
+                AccountState account = live[random.nextInt(accounts)];
+                String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+                long price = Money.of("100") + random.nextInt(50_000_000);
+                Position position = account.getPosition(symbol);
+                int quantity = 1 + random.nextInt(20);
+                record = new JournalRecord.Effect(position != null && position.getQuantity() >= quantity && random.nextBoolean()
+                        ? sell(account, position, quantity, price, now)
+                        : buy(account, symbol, quantity, price, now));
+            }
+            payload.clear();
+            JournalCodec.encode(record, payload);
+            payload.flip();
+            if (!segment.append(seq, JournalCodec.type(record), payload)) {
+                segments.add(segment.file());
+                segment = JournalSegment.create(dir.resolve(segmentName(seq)), seq, SEGMENT_BYTES);
+                segment.append(seq, JournalCodec.type(record), payload);
+            }
+            seq++;
+        }
+        segments.add(segment.file());
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<Long, AccountState> replay() {
+        JournalCodec codec = new JournalCodec();
+        Map<Long, AccountState> rebuilt = new HashMap<>(accounts * 2);
+        JournalSegment.Visitor visitor = (seq, type, payload) -> {
+            switch (codec.decode(type, payload)) {
+                case JournalRecord.Baseline baseline -> rebuilt.put(baseline.userId(), baseline.account());
+                case JournalRecord.Effect effect -> JournalRecovery.apply(rebuilt.get(effect.userId()), effect.effect());
+                case JournalRecord.Invalidate invalidate -> rebuilt.remove(invalidate.userId());
+            }
+        };
+        for (Path file : segments) {
+            JournalSegment.read(file).scan(visitor);
+        }
+        return rebuilt;
+    }
+
+    private static String segmentName(long seq) {
+        return String.format("segment-%020d.journal", seq);
+    }
+
+    private static TradeEffect buy(AccountState account, String symbol, int quantity, long price, LocalDateTime now) {
+        account.setBalanceMicros(account.getBalanceMicros() - Money.times(price, quantity));
+        Position position = account.openPosition(symbol);
+        LotChange change = position.buy(account.allocateLotSeq(), quantity, price, now);
+        return effect(account, position, change, "BUY", quantity, price, 0, now);
+    }
+
+    private static TradeEffect sell(AccountState account, Position position, int quantity, long price, LocalDateTime now) {
+        account.setBalanceMicros(account.getBalanceMicros() + Money.times(price, quantity));
+        Position.SellOutcome outcome = position.sell(quantity, price, CostBasisMethod.FIFO, account.peekNextLotSeq());
+        account.addRealizedPnlMicros(outcome.realizedPnlMicros());
+        account.closeIfEmpty(position);
+        return effect(account, position, outcome.lotChange(), "SELL", quantity, price, outcome.realizedPnlMicros(), now);
+    }
+
+    private static TradeEffect effect(AccountState account, Position position, LotChange change, String type, int quantity,
+                                      long price, long realizedPnl, LocalDateTime now) {
+        return new TradeEffect(account.getUserId(), account.getBalanceMicros(), account.getRealizedPnlMicros(), position.getStockSymbol(),
+                position.getQuantity(), position.getCostBasisMicros(), change, type, quantity, price, realizedPnl, now, null);
+    }
+}
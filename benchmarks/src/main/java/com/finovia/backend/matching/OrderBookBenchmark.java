@@ -0,0 +1,99 @@
+package com.finovia.backend.matching;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Single-threaded throughput of one book under a mixed event stream:
+// ~60% new limit/stop orders, ~25% cancels, ~10% cancel/replace, ~5% price ticks.
+// Each op is one order event; the target is >= 100k ops/s on one core.
+//
+// Run with: mvn -pl benchmarks exec:exec -Dbenchmark=OrderBookBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBookBenchmark {
+
+    private static final int EVENTS = 1 << 20;
+    private static final long MID = 1_500_000; // 150.0000 in ticks
+
+    private byte[] kinds;
+    private long[] prices;
+    private OrderSide[] sides;
+    private OrderType[] types;
+
+    private OrderBook book;
+    private long nextId;
+    private int cursor;
+    private Blackhole blackhole;
+    private final FillListener listener = (order, ticks) -> blackhole.consume(order);
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(42);
+        kinds = new byte[EVENTS];
+        prices = new long[EVENTS];
+        sides = new OrderSide[EVENTS];
+        types = new OrderType[EVENTS];
+        long market = MID;
+        for (int i = 0; i < EVENTS; i++) {
+            int roll = random.nextInt(100);
+            kinds[i] = (byte) (roll < 60 ? 0 : roll < 85 ? 1 : roll < 95 ? 2 : 3);
+            if (kinds[i] == 3) {
+                market = Math.max(1, market + random.nextInt(-200, 201));
+                prices[i] = market;
+            } else {
+                sides[i] = random.nextBoolean() ? OrderSide.BUY : OrderSide.SELL;
+                types[i] = random.nextInt(4) == 0 ? OrderType.STOP : OrderType.LIMIT;
+                // Keep resting orders away from the market so most of them stay on the book
+                long offset = 100 + random.nextInt(5_000);
+                boolean below = (sides[i] == OrderSide.BUY) == (types[i] == OrderType.LIMIT);
+                prices[i] = below ? market - offset : market + offset;
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetBook(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        book = new OrderBook("BENCH");
+        nextId = 0;
+        cursor = 0;
+    }
+
+    @Benchmark
+    public void orderEvent() {
+        int i = cursor;
+        cursor = (cursor + 1) & (EVENTS - 1);
+        switch (kinds[i]) {
+            case 0 -> book.add(new Order(++nextId, 1, "BENCH", sides[i], types[i], prices[i], 10), 0, listener);
+            case 1 -> book.cancel(nextId - (i & 63));
+            case 2 -> book.replace(nextId - (i & 31), prices[i] + 1, 20, 0, listener);
+            default -> book.onPrice(prices[i], listener);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderBookBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,68 @@
+package com.finovia.backend.persistence;
+
+import com.finovia.backend.account.Money;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Daily summary aggregation for one write-behind flush: folding a batch of trade effects into
+// per user/day increments. The daily-summary endpoint itself is a single-row lookup now, so
+// this fold is where the summary's cost lives.
+//
+// Run with: mvn -pl benchmarks exec:exec -Dbenchmark=DailyRollupBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DailyRollupBenchmark {
+
+    @Param({"500"})
+    public int batchSize;
+
+    @Param({"1", "50"})
+    public int users;
+
+    private List<TradeEffect> batch;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 2, 10, 0);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            boolean buy = random.nextBoolean();
+            long price = Money.of(BigDecimal.valueOf(10_000 + random.nextInt(10_000), 2));
+            batch.add(new TradeEffect(
+                    random.nextInt(users) + 1, Money.of("100000"), 0, "AAPL",
+                    10, Money.times(price, 10), null,
+                    buy ? "BUY" : "SELL", 1 + random.nextInt(100), price,
+                    buy ? 0 : Money.of(BigDecimal.valueOf(random.nextInt(2_000) - 1_000, 2)),
+                    start.plusSeconds(i), null));
+        }
+    }
+
+    @Benchmark
+    public Collection<DailyRollup.Delta> aggregate() {
+        return DailyRollup.aggregate(batch);
+    }
+}
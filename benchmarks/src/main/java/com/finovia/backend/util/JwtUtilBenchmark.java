@@ -0,0 +1,63 @@
+package com.finovia.backend.util;
+
+import com.finovia.backend.entity.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue and validation costs: signing a new token, a full parse + signature check,
+// the cached verify() the request filter uses, and the UserDetails-based validateToken.
+//
+// Run with: mvn -pl benchmarks exec:exec -Dbenchmark=JwtUtilBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        user = new User();
+        user.setId(42L);
+        user.setUsername("bench-user");
+        token = jwtUtil.generateToken(user.getUsername(), user.getId());
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(user.getUsername(), user.getId());
+    }
+
+    @Benchmark
+    public Claims parse() {
+        return jwtUtil.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken verifyCached() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Boolean validate() {
+        return jwtUtil.validateToken(token, user);
+    }
+}
@@ -0,0 +1,104 @@
+package com.finovia.backend.loadtest;
+
+import com.finovia.backend.BackendApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// A backend node in its own JVM, started from this module's classpath. Keeping it out of the load
+// generator's process gives it its own heap, GC and file descriptor limit.
+final class BackendProcess implements AutoCloseable {
+
+    private final Process process;
+    private final int port;
+
+    private BackendProcess(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    static BackendProcess start(Map<String, Object> properties, String jvmArgs, Path log, Duration startupTimeout)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BackendApplication.class.getName());
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            command.add("--" + property.getKey() + "=" + property.getValue());
+        }
+        command.add("--server.port=" + port);
+
+        File logFile = log.toAbsolutePath().toFile();
+        logFile.getParentFile().mkdirs();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile)
+                .start();
+        BackendProcess backend = new BackendProcess(process, port);
+        try {
+            backend.awaitHealthy(startupTimeout, logFile);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            backend.close();
+            throw e;
+        }
+        return backend;
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    private void awaitHealthy(Duration timeout, File logFile) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl() + "/actuator/health"))
+                    .timeout(Duration.ofSeconds(2))
+                    .build();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Backend exited with " + process.exitValue() + ", see " + logFile);
+                }
+                try {
+                    if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("Backend not healthy after " + timeout.toSeconds() + "s, see " + logFile);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
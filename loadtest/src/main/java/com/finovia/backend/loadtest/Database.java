@@ -0,0 +1,49 @@
+package com.finovia.backend.loadtest;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+// The Postgres a run points the backend at: the configured loadtest.jdbc-url, or a throwaway
+// Testcontainers instance that close() removes again
+public final class Database implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> container;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+
+    private Database(PostgreSQLContainer<?> container, String jdbcUrl, String username, String password) {
+        this.container = container;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    public static Database start(LoadTestConfig config) {
+        if (config.jdbcUrl() != null) {
+            return new Database(null, config.jdbcUrl(), config.jdbcUsername(), config.jdbcPassword());
+        }
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>(DockerImageName.parse(config.postgresImage()));
+        container.start();
+        return new Database(container, container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+
+    public String jdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String username() {
+        return username;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
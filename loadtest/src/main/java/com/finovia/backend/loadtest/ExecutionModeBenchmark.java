@@ -0,0 +1,163 @@
+package com.finovia.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Platform vs virtual request threads under the same blocking load. Each mode gets a fresh backend
+// JVM (BackendProcess) against the same stub Finnhub and database, then loadtest.clients
+// closed-loop clients (10,000 by default) request quotes for loadtest.bench.symbols symbols.
+// The quote endpoint normally answers from MarketDataEngine's in-memory prices, so the backend
+// runs with the quote cache off, a price max age of 0, polling effectively disabled and a
+// bulkhead wide enough that no caller is turned away with a stale quote: every request thread
+// blocks on an upstream call of stub latency, its own or one it is coalesced onto. Reports
+// throughput, latency percentiles and upstream calls per request for the window after warmup.
+//
+// Run with: mvn -pl loadtest exec:exec -Dloadtest.main=com.finovia.backend.loadtest.ExecutionModeBenchmark
+public final class ExecutionModeBenchmark {
+
+    private ExecutionModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        int clients = Integer.getInteger("loadtest.clients", 10_000);
+        int symbolCount = Integer.getInteger("loadtest.bench.symbols", 50);
+        String[] modes = System.getProperty("loadtest.modes", "PLATFORM,VIRTUAL").split(",");
+        String jvmArgs = System.getProperty("loadtest.backend-jvm-args", "-Xmx1g");
+        String reportPath = System.getProperty("loadtest.bench.report", "target/execution-mode-report.json");
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        List<String> symbols = new ArrayList<>(symbolCount);
+        for (int i = 0; i < symbolCount; i++) {
+            symbols.add(String.format(Locale.ROOT, "SYM%03d", i));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("symbols", symbolCount);
+        report.put("stubLatencyMillis", config.stubLatencyMillis());
+        report.put("warmupSeconds", config.rampSeconds() + config.warmupSeconds());
+        report.put("measuredSeconds", config.durationSeconds());
+        Map<String, Object> results = new LinkedHashMap<>();
+        report.put("modes", results);
+
+        try (StubFinnhubServer stub = new StubFinnhubServer(config.stubPort(), config.stubLatencyMillis(),
+                config.stubJitterMillis(), config.stubVolatility());
+             Database database = Database.start(config)) {
+            stub.start();
+            for (String mode : modes) {
+                Map<String, Object> properties = LoadTestRunner.backendProperties(config, stub, database);
+                properties.put("execution.mode", mode.trim());
+                properties.put("quote.cache.ttl-ms", 0);
+                properties.put("marketdata.max-age-ms", 0);
+                properties.put("marketdata.poll-interval-ms", TimeUnit.DAYS.toMillis(1));
+                properties.put("finnhub.bulkhead.max-concurrent", clients);
+                System.out.println();
+                System.out.println("Starting backend with execution.mode=" + mode.trim());
+                try (BackendProcess backend = BackendProcess.start(properties, jvmArgs,
+                        Path.of("target", "backend-" + mode.trim().toLowerCase(Locale.ROOT) + ".log"), Duration.ofMinutes(2))) {
+                    long[] windowQuotes = new long[1];
+                    List<LatencyRecorder.EndpointStats> stats = drive(config, objectMapper, backend.baseUrl(), clients, symbols,
+                            stub, windowQuotes);
+                    LoadTestRunner.print("execution.mode=" + mode.trim() + ", " + clients + " clients", stats);
+                    long requests = stats.stream().mapToLong(LatencyRecorder.EndpointStats::requests).sum();
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("endpoints", stats);
+                    result.put("stubQuotesServed", windowQuotes[0]);
+                    // Near 0 would mean requests were answered from memory instead of blocking upstream
+                    result.put("upstreamCallsPerRequest", requests == 0 ? 0 : (double) windowQuotes[0] / requests);
+                    System.out.printf(Locale.ROOT, "Upstream quote calls in the window: %d (%.3f per request)%n",
+                            windowQuotes[0], requests == 0 ? 0 : (double) windowQuotes[0] / requests);
+                    results.put(mode.trim(), result);
+                }
+            }
+        }
+        Reports.write(objectMapper, reportPath, report);
+    }
+
+    private static List<LatencyRecorder.EndpointStats> drive(LoadTestConfig config, ObjectMapper objectMapper, String baseUrl,
+                                                             int clients, List<String> symbols, StubFinnhubServer stub,
+                                                             long[] windowQuotes) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            String token = signIn(client, objectMapper, baseUrl);
+
+            long warmupEnds = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.rampSeconds() + config.warmupSeconds());
+            long deadline = warmupEnds + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    long startDelayNanos = TimeUnit.SECONDS.toNanos(config.rampSeconds()) * i / clients;
+                    SplittableRandom random = new SplittableRandom(i);
+                    pool.execute(() -> {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(startDelayNanos);
+                            while (System.nanoTime() < deadline) {
+                                HttpRequest request = HttpRequest.newBuilder(URI.create(
+                                                baseUrl + "/api/stocks/quote/" + symbols.get(random.nextInt(symbols.size()))))
+                                        .header("Authorization", "Bearer " + token)
+                                        .timeout(Duration.ofSeconds(60))
+                                        .build();
+                                long start = System.nanoTime();
+                                try {
+                                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                                    recorder.record("quote", System.nanoTime() - start, status == 200);
+                                } catch (IOException e) {
+                                    recorder.record("quote", System.nanoTime() - start, false);
+                                }
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                }
+                TimeUnit.NANOSECONDS.sleep(warmupEnds - System.nanoTime());
+                recorder.startWindow();
+                long quotesBefore = stub.getQuotesServed();
+                long measuring = System.nanoTime();
+                TimeUnit.NANOSECONDS.sleep(deadline - measuring);
+                List<LatencyRecorder.EndpointStats> stats = recorder.snapshot((System.nanoTime() - measuring) / 1e9);
+                windowQuotes[0] = stub.getQuotesServed() - quotesBefore;
+                return stats;
+            }
+        }
+    }
+
+    private static String signIn(HttpClient client, ObjectMapper objectMapper, String baseUrl) throws IOException, InterruptedException {
+        String username = "bench-" + Long.toString(System.nanoTime(), 36);
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"load-test-password\"";
+        send(client, baseUrl + "/api/signup", credentials + ",\"email\":\"" + username + "@loadtest.local\"}");
+        String body = send(client, baseUrl + "/api/signin", credentials + "}");
+        return objectMapper.readTree(body).path("token").asText();
+    }
+
+    private static String send(HttpClient client, String url, String json) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,77 @@
+package com.finovia.backend.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-endpoint latency histograms (microsecond resolution, 3 significant digits) and error
+// counts. Recording is wait-free so it doesn't skew the numbers it measures; startWindow()
+// throws away everything recorded so far, e.g. at the end of the warmup.
+public class LatencyRecorder {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+
+    public void record(String endpoint, long elapsedNanos, boolean ok) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latency.recordValue(Math.min(MAX_TRACKABLE_MICROS, Math.max(1, elapsedNanos / 1_000)));
+        if (!ok) {
+            stats.errors.increment();
+        }
+    }
+
+    public void startWindow() {
+        for (Endpoint stats : endpoints.values()) {
+            stats.latency.getIntervalHistogram();
+            stats.errors.reset();
+        }
+    }
+
+    // Everything recorded since the last window start, as rates over the given wall time
+    public List<EndpointStats> snapshot(double seconds) {
+        List<EndpointStats> result = new ArrayList<>();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Histogram histogram = entry.getValue().latency.getIntervalHistogram();
+            long count = histogram.getTotalCount();
+            result.add(new EndpointStats(
+                    entry.getKey(),
+                    count,
+                    entry.getValue().errors.sum(),
+                    seconds > 0 ? count / seconds : 0,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        }
+        return result;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static final class Endpoint {
+        private final Recorder latency = new Recorder(MAX_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+
+    public record EndpointStats(
+            String endpoint,
+            long requests,
+            long errors,
+            double throughputPerSecond,
+            double p50Millis,
+            double p90Millis,
+            double p99Millis,
+            double p999Millis,
+            double maxMillis) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.finovia.backend.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Everything the run is parameterized by, read from -Dloadtest.* system properties
+public record LoadTestConfig(
+        int users,
+        int rampSeconds,
+        int warmupSeconds,
+        int durationSeconds,
+        long thinkMillis,
+        List<String> symbols,
+        Map<String, Integer> mix,
+        long stubLatencyMillis,
+        long stubJitterMillis,
+        double stubVolatility,
+        int stubPort,
+        String target,
+        String jdbcUrl,
+        String jdbcUsername,
+        @JsonIgnore String jdbcPassword, // kept out of the written report
+        String postgresImage,
+        String tradePersistenceMode,
+        String report) {
+
+    static final String DEFAULT_MIX = "buy:25,sell:15,portfolio:20,history:15,dashboard:15,quote:10";
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.users", 50),
+                Integer.getInteger("loadtest.ramp-s", 5),
+                Integer.getInteger("loadtest.warmup-s", 10),
+                Integer.getInteger("loadtest.duration-s", 60),
+                Long.getLong("loadtest.think-ms", 0),
+                Arrays.asList(System.getProperty("loadtest.symbols", "AAPL,MSFT,GOOGL,AMZN,NVDA,META,TSLA,JPM,V,KO").split(",")),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                Long.getLong("loadtest.stub.latency-ms", 50),
+                Long.getLong("loadtest.stub.jitter-ms", 20),
+                Double.parseDouble(System.getProperty("loadtest.stub.volatility", "0.002")),
+                Integer.getInteger("loadtest.stub.port", 0),
+                System.getProperty("loadtest.target"),
+                System.getProperty("loadtest.jdbc-url"),
+                System.getProperty("loadtest.jdbc-username", "postgres"),
+                System.getProperty("loadtest.jdbc-password", ""),
+                System.getProperty("loadtest.postgres-image", "postgres:16-alpine"),
+                System.getProperty("loadtest.trade-persistence-mode", "DURABLE"),
+                System.getProperty("loadtest.report", "target/loadtest-report.json"));
+    }
+
+    // "buy:25,sell:15,..." -> action weights; unknown actions are rejected up front
+    static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2 || !TraderSession.ACTIONS.contains(pair[0])) {
+                throw new IllegalArgumentException("Bad loadtest.mix entry '" + part + "', expected one of "
+                        + TraderSession.ACTIONS + " as action:weight");
+            }
+            mix.put(pair[0], Integer.parseInt(pair[1]));
+        }
+        return mix;
+    }
+}
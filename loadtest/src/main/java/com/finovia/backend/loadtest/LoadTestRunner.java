@@ -0,0 +1,150 @@
+package com.finovia.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finovia.backend.BackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Measures what one backend node sustains end to end. Starts the stub Finnhub, a Postgres
+// (Testcontainers unless loadtest.jdbc-url is given) and the backend on a random port, then
+// drives it with loadtest.users concurrent traders and reports per-endpoint throughput and
+// latency percentiles for the measurement window after warmup.
+//
+// With loadtest.target=http://host:port it only starts the stub (on loadtest.stub.port) and
+// drives an already running node, which keeps the load generator off the node's CPUs. That node
+// must have finnhub.base-url pointed at the stub.
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        try (StubFinnhubServer stub = new StubFinnhubServer(config.stubPort(), config.stubLatencyMillis(),
+                config.stubJitterMillis(), config.stubVolatility())) {
+            stub.start();
+            System.out.println("Stub Finnhub listening at " + stub.baseUrl());
+
+            Database database = null;
+            ConfigurableApplicationContext backend = null;
+            try {
+                String baseUrl = config.target();
+                if (baseUrl == null) {
+                    database = Database.start(config);
+                    backend = startBackend(config, stub, database);
+                    baseUrl = "http://127.0.0.1:" + backend.getEnvironment().getProperty("local.server.port");
+                }
+
+                Map<String, Object> report = run(config, objectMapper, baseUrl);
+                report.put("stubQuotesServed", stub.getQuotesServed());
+                report.put("stubRecommendationsServed", stub.getRecommendationsServed());
+                Reports.write(objectMapper, config.report(), report);
+            } finally {
+                if (backend != null) {
+                    backend.close();
+                }
+                if (database != null) {
+                    database.close();
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startBackend(LoadTestConfig config, StubFinnhubServer stub, Database database) {
+        Map<String, Object> properties = backendProperties(config, stub, database);
+        properties.put("server.port", 0);
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    // What every backend under test gets: the database, the stub as Finnhub and quiet logging
+    static Map<String, Object> backendProperties(LoadTestConfig config, StubFinnhubServer stub, Database database) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", database.jdbcUrl());
+        properties.put("spring.datasource.username", database.username());
+        properties.put("spring.datasource.password", database.password());
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("finnhub.api.key", "load-test");
+        properties.put("finnhub.base-url", stub.baseUrl());
+        properties.put("marketdata.feed", "finnhub");
+        properties.put("trade.persistence.mode", config.tradePersistenceMode());
+        properties.put("recommendation.snapshot.file", "target/loadtest-recommendation-trends.json");
+        // A fresh journal per backend: one left over from an earlier run would be replayed into this database
+        String data = "target/loadtest-data/" + Long.toString(System.nanoTime(), 36);
+        properties.put("journal.dir", data + "/journal");
+        properties.put("candles.dir", data + "/candles");
+        return properties;
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, ObjectMapper objectMapper, String baseUrl)
+            throws InterruptedException {
+        LatencyRecorder setup = new LatencyRecorder();
+        LatencyRecorder steady = new LatencyRecorder();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        // Unique per run so repeated runs against the same database don't collide on usernames
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        long started = System.nanoTime();
+        long warmupEnds = started + TimeUnit.SECONDS.toNanos(config.rampSeconds() + config.warmupSeconds());
+        long deadline = warmupEnds + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+
+        System.out.printf(Locale.ROOT, "Driving %s with %d users: %ds ramp, %ds warmup, %ds measured%n",
+                baseUrl, config.users(), config.rampSeconds(), config.warmupSeconds(), config.durationSeconds());
+        try (ExecutorService traders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.users(); i++) {
+                long startDelay = config.users() > 1 ? TimeUnit.SECONDS.toMillis(config.rampSeconds()) * i / (config.users() - 1) : 0;
+                traders.execute(new TraderSession(client, objectMapper, baseUrl, config, setup, steady,
+                        "lt-" + runId + "-" + i, startDelay, deadline, i));
+            }
+
+            TimeUnit.NANOSECONDS.sleep(warmupEnds - System.nanoTime());
+            steady.startWindow();
+            long measuring = System.nanoTime();
+            TimeUnit.NANOSECONDS.sleep(deadline - measuring);
+            double seconds = (System.nanoTime() - measuring) / 1e9;
+
+            // Traders finish their in-flight request after the deadline; those land outside the window
+            List<LatencyRecorder.EndpointStats> signups = setup.snapshot(config.rampSeconds() + config.warmupSeconds());
+            List<LatencyRecorder.EndpointStats> endpoints = steady.snapshot(seconds);
+            print("Setup (ramp + warmup)", signups);
+            print("Measured window (" + String.format(Locale.ROOT, "%.1f", seconds) + "s)", endpoints);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("config", config);
+            report.put("measuredSeconds", seconds);
+            report.put("setup", signups);
+            report.put("endpoints", endpoints);
+            return report;
+        }
+    }
+
+    static void print(String title, List<LatencyRecorder.EndpointStats> stats) {
+        System.out.println();
+        System.out.println(title);
+        System.out.printf(Locale.ROOT, "%-14s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LatencyRecorder.EndpointStats s : stats) {
+            System.out.printf(Locale.ROOT, "%-14s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.endpoint(), s.requests(), s.errors(), s.throughputPerSecond(),
+                    s.p50Millis(), s.p90Millis(), s.p99Millis(), s.p999Millis(), s.maxMillis());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.finovia.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+
+final class Reports {
+
+    private Reports() {
+    }
+
+    static void write(ObjectMapper objectMapper, String path, Object report) throws IOException {
+        File file = new File(path);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+}
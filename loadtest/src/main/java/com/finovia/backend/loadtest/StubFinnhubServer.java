@@ -0,0 +1,161 @@
+package com.finovia.backend.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Stands in for finnhub.io during load tests: /quote and /stock/recommendation on the same paths
+// as the real API, each answered after latency +/- jitter. Every quote request moves that symbol
+// one step along a geometric random walk, so the backend sees prices that actually change.
+public class StubFinnhubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double volatility;
+
+    private final Map<String, Walk> walks = new ConcurrentHashMap<>();
+    private final LongAdder quotes = new LongAdder();
+    private final LongAdder recommendations = new LongAdder();
+
+    public StubFinnhubServer(int port, long latencyMillis, long jitterMillis, double volatility) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.volatility = volatility;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/api/v1/quote", this::quote);
+        server.createContext("/api/v1/stock/recommendation", this::recommendation);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    // What finnhub.base-url should be set to
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1";
+    }
+
+    public long getQuotesServed() {
+        return quotes.sum();
+    }
+
+    public long getRecommendationsServed() {
+        return recommendations.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void quote(HttpExchange exchange) throws IOException {
+        String symbol = symbol(exchange.getRequestURI());
+        if (symbol == null) {
+            respond(exchange, 400, "{\"error\":\"symbol is required\"}");
+            return;
+        }
+        delay();
+        quotes.increment();
+        respond(exchange, 200, walks.computeIfAbsent(symbol, Walk::new).step(volatility));
+    }
+
+    private void recommendation(HttpExchange exchange) throws IOException {
+        String symbol = symbol(exchange.getRequestURI());
+        if (symbol == null) {
+            respond(exchange, 400, "{\"error\":\"symbol is required\"}");
+            return;
+        }
+        delay();
+        recommendations.increment();
+        StringBuilder json = new StringBuilder("[");
+        for (int month = 0; month < 4; month++) {
+            if (month > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.ROOT,
+                    "{\"symbol\":\"%s\",\"period\":\"2024-%02d-01\",\"strongBuy\":%d,\"buy\":%d,\"hold\":%d,\"sell\":%d,\"strongSell\":%d}",
+                    symbol, 4 - month, 10 + month, 20, 8, 2, 0));
+        }
+        respond(exchange, 200, json.append(']').toString());
+    }
+
+    private void delay() {
+        long millis = latencyMillis;
+        if (jitterMillis > 0) {
+            millis += ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1);
+        }
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String symbol(URI uri) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith("symbol=") && pair.length() > "symbol=".length()) {
+                return pair.substring("symbol=".length()).toUpperCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // One symbol's session: opens somewhere between 20 and 500 depending on the symbol
+    private static final class Walk {
+        private final double open;
+        private double last;
+        private double high;
+        private double low;
+
+        Walk(String symbol) {
+            open = 20 + Math.floorMod(symbol.hashCode(), 480);
+            last = open;
+            high = open;
+            low = open;
+        }
+
+        synchronized String step(double volatility) {
+            last = Math.max(0.01, last * Math.exp(volatility * ThreadLocalRandom.current().nextGaussian()));
+            high = Math.max(high, last);
+            low = Math.min(low, last);
+            double change = last - open;
+            return String.format(Locale.ROOT,
+                    "{\"c\":%.2f,\"d\":%.2f,\"dp\":%.4f,\"h\":%.2f,\"l\":%.2f,\"o\":%.2f,\"pc\":%.2f,\"t\":%d}",
+                    last, change, change / open * 100, high, low, open, open, Instant.now().getEpochSecond());
+        }
+    }
+}
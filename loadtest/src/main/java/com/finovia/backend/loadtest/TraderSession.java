@@ -0,0 +1,205 @@
+package com.finovia.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+// One simulated user: signs up, signs in, then loops over the weighted action mix until the
+// deadline. A "dashboard" is what the front end fires on page load, the portfolio, recent
+// history and daily summary requested together, and is timed as one unit as well as per call.
+public class TraderSession implements Runnable {
+
+    static final Set<String> ACTIONS = Set.of("buy", "sell", "portfolio", "history", "dashboard", "quote");
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final LoadTestConfig config;
+    private final LatencyRecorder setup;
+    private final LatencyRecorder steady;
+    private final String username;
+    private final long startDelayMillis;
+    private final long deadlineNanos;
+    private final SplittableRandom random;
+
+    private final String[] actions;
+    private final int[] cumulativeWeights;
+    // What this user holds as far as its own successful trades tell it
+    private final Map<String, Integer> holdings = new HashMap<>();
+    private String token;
+
+    public TraderSession(HttpClient client, ObjectMapper objectMapper, String baseUrl, LoadTestConfig config,
+                         LatencyRecorder setup, LatencyRecorder steady, String username,
+                         long startDelayMillis, long deadlineNanos, long seed) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.setup = setup;
+        this.steady = steady;
+        this.username = username;
+        this.startDelayMillis = startDelayMillis;
+        this.deadlineNanos = deadlineNanos;
+        this.random = new SplittableRandom(seed);
+
+        actions = config.mix().keySet().toArray(new String[0]);
+        cumulativeWeights = new int[actions.length];
+        int total = 0;
+        for (int i = 0; i < actions.length; i++) {
+            total += config.mix().get(actions[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            Thread.sleep(startDelayMillis);
+            if (!signUpAndSignIn()) {
+                return;
+            }
+            while (System.nanoTime() < deadlineNanos) {
+                perform(nextAction());
+                if (config.thinkMillis() > 0) {
+                    Thread.sleep(config.thinkMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean signUpAndSignIn() throws InterruptedException {
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"load-test-password\"";
+        Result signup = send(setup, "signup", post("/api/signup", credentials + ",\"email\":\"" + username + "@loadtest.local\"}", false));
+        if (!signup.ok()) {
+            return false;
+        }
+        Result signin = send(setup, "signin", post("/api/signin", credentials + "}", false));
+        if (!signin.ok()) {
+            return false;
+        }
+        try {
+            JsonNode body = objectMapper.readTree(signin.body());
+            token = body.path("token").asText(null);
+        } catch (Exception e) {
+            token = null;
+        }
+        return token != null;
+    }
+
+    private String nextAction() {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return actions[i];
+            }
+        }
+        return actions[actions.length - 1];
+    }
+
+    private void perform(String action) throws InterruptedException {
+        switch (action) {
+            case "buy" -> buy();
+            case "sell" -> sell();
+            case "portfolio" -> send(steady, "portfolio", get("/api/portfolio/me"));
+            case "history" -> send(steady, "history", get("/api/transactions/recent"));
+            case "dashboard" -> dashboard();
+            case "quote" -> send(steady, "quote", get("/api/stocks/quote/" + randomSymbol()));
+            default -> throw new IllegalStateException("Unknown action " + action);
+        }
+    }
+
+    private void buy() throws InterruptedException {
+        String symbol = randomSymbol();
+        int quantity = 1 + random.nextInt(5);
+        if (send(steady, "buy", post("/api/stocks/buy", order(symbol, quantity), true)).ok()) {
+            holdings.merge(symbol, quantity, Integer::sum);
+        }
+    }
+
+    // Sells part of something already held; with nothing to sell yet, buys instead
+    private void sell() throws InterruptedException {
+        if (holdings.isEmpty()) {
+            buy();
+            return;
+        }
+        List<String> held = List.copyOf(holdings.keySet());
+        String symbol = held.get(random.nextInt(held.size()));
+        int quantity = 1 + random.nextInt(holdings.get(symbol));
+        if (send(steady, "sell", post("/api/stocks/sell", order(symbol, quantity), true)).ok()) {
+            holdings.computeIfPresent(symbol, (key, owned) -> owned == quantity ? null : owned - quantity);
+        }
+    }
+
+    private void dashboard() {
+        long start = System.nanoTime();
+        CompletableFuture<Boolean> portfolio = sendAsync("portfolio", get("/api/portfolio/me"));
+        CompletableFuture<Boolean> history = sendAsync("history", get("/api/transactions/recent"));
+        CompletableFuture<Boolean> summary = sendAsync("daily-summary", get("/api/transactions/daily-summary"));
+        boolean ok = portfolio.join() & history.join() & summary.join();
+        steady.record("dashboard", System.nanoTime() - start, ok);
+    }
+
+    private Result send(LatencyRecorder recorder, String endpoint, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            boolean ok = response.statusCode() / 100 == 2;
+            recorder.record(endpoint, System.nanoTime() - start, ok);
+            return new Result(ok, response.body());
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            return new Result(false, null);
+        }
+    }
+
+    private CompletableFuture<Boolean> sendAsync(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    boolean ok = error == null && response.statusCode() / 100 == 2;
+                    steady.record(endpoint, System.nanoTime() - start, ok);
+                    return ok;
+                });
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json, boolean authenticated) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (authenticated) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private String randomSymbol() {
+        return config.symbols().get(random.nextInt(config.symbols().size()));
+    }
+
+    private static String order(String symbol, int quantity) {
+        return "{\"symbol\":\"" + symbol + "\",\"quantity\":" + quantity + "}";
+    }
+
+    private record Result(boolean ok, String body) {
+    }
+}